@@ -0,0 +1,860 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/** A Graph, directed or undirected, that may be modified and read by
+ *  many threads at once.
+ *
+ *  Vertex numbers are allocated from a bitmap with compare-and-set, so
+ *  add() needs no lock and still returns the smallest number not in use
+ *  when it takes effect.  Everything else about vertex V is guarded by
+ *  one of a fixed set of locks (its stripe), chosen by V's number: its
+ *  lists of successors and predecessors with their edge ids, and the
+ *  part of the edge index holding the edges whose (first) end point is
+ *  V.  An operation on edge (U, V) holds the stripes of U and V,
+ *  acquired in order of stripe number so that no two threads can
+ *  deadlock, and operations on edges with end points in different
+ *  stripes proceed in parallel.  Reads of a vertex's lists hold its
+ *  stripe, so successors(V), copySuccessors(V, ...), and so on return a
+ *  consistent snapshot of V's list at some moment.  Whole-graph views
+ *  (vertices(), edges(), the sizes) are weakly consistent: they reflect
+ *  every change made before they were called, and perhaps some made
+ *  during the call.
+ *
+ *  As in DirectedGraph and UndirectedGraph, successors are listed in the
+ *  order their edges were added, edges() returns the edges in the order
+ *  they were added, and a removed edge's id may be reused by any later
+ *  edge.  Released edge ids are kept in one lock-free stack shared by
+ *  all stripes, so that the ids in use stay bounded by the largest
+ *  number of edges the graph has had.
+ *  @author Florence Lau
+ */
+public class ConcurrentGraph extends Graph {
+
+    /** An empty graph, directed iff DIRECTED. */
+    public ConcurrentGraph(boolean directed) {
+        this(directed, DEFAULT_STRIPES);
+    }
+
+    /** An empty graph, directed iff DIRECTED, whose vertices are divided
+     *  among at least STRIPES locks (rounded up to a power of 2).  More
+     *  stripes make contention between writers less likely. */
+    public ConcurrentGraph(boolean directed, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        int n = Integer.highestOneBit(stripes);
+        if (n < stripes) {
+            n *= 2;
+        }
+        _directed = directed;
+        _stripeMask = n - 1;
+        _locks = new Object[n];
+        _edgeTables = new EdgeTable[n];
+        for (int i = 0; i < n; i += 1) {
+            _locks[i] = new Object();
+            _edgeTables[i] = new EdgeTable();
+        }
+        _chunks = new Chunk[1];
+        _chunks[0] = new Chunk(directed);
+        _chunks[0].used.set(0, 1L);
+    }
+
+    @Override
+    public int vertexSize() {
+        return _numVertices.get();
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex.get();
+    }
+
+    @Override
+    public int edgeSize() {
+        return _numEdges.intValue();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        Chunk chunk = chunk(v);
+        if (chunk == null) {
+            return 0;
+        }
+        synchronized (lock(v)) {
+            Row row = chunk.out[offset(v)];
+            return row == null ? 0 : row.size;
+        }
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!_directed) {
+            return outDegree(v);
+        }
+        Chunk chunk = chunk(v);
+        if (chunk == null) {
+            return 0;
+        }
+        synchronized (lock(v)) {
+            Row row = chunk.in[offset(v)];
+            return row == null ? 0 : row.size;
+        }
+    }
+
+    @Override
+    public boolean contains(int u) {
+        Chunk chunk = chunk(u);
+        return chunk != null
+            && (chunk.live.get(offset(u) >> 6) & (1L << u)) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        while (true) {
+            int w = _firstFreeWord.get();
+            Chunk chunk = chunkForWord(w);
+            int i = w & (WORDS_PER_CHUNK - 1);
+            long bits = chunk.used.get(i);
+            while (bits != -1L) {
+                int b = Long.numberOfTrailingZeros(~bits);
+                if (chunk.used.compareAndSet(i, bits, bits | (1L << b))) {
+                    int v = (w << 6) + b;
+                    addVertex(chunk, v);
+                    return v;
+                }
+                bits = chunk.used.get(i);
+            }
+            _firstFreeWord.compareAndSet(w, w + 1);
+        }
+    }
+
+    @Override
+    public int add(int u, int v) {
+        Chunk cu = chunk(u), cv = chunk(v);
+        if (cu == null || cv == null) {
+            return 0;
+        }
+        int a = first(u, v), b = a == u ? v : u;
+        int e;
+        Object lock1 = lock(Math.min(stripe(u), stripe(v))),
+            lock2 = lock(Math.max(stripe(u), stripe(v)));
+        synchronized (lock1) {
+            synchronized (lock2) {
+                if (!contains(u) || !contains(v)) {
+                    return 0;
+                }
+                EdgeTable table = _edgeTables[stripe(a)];
+                long key = EdgeIndex.key(a, b);
+                e = table.get(key);
+                if (e != 0) {
+                    return e;
+                }
+                e = _freeEdgeIds.pop();
+                if (e == 0) {
+                    e = _highestEdgeId.incrementAndGet();
+                    _freeEdgeIds.reserve(e);
+                }
+                table.put(key, e, _sequence.getAndIncrement());
+                cu.out[offset(u)].add(v, e);
+                if (_directed) {
+                    cv.in[offset(v)].add(u, e);
+                } else if (u != v) {
+                    cv.out[offset(v)].add(u, e);
+                }
+            }
+        }
+        _numEdges.increment();
+        _modifications.increment();
+        return e;
+    }
+
+    @Override
+    public void remove(int v) {
+        Chunk chunk = chunk(v);
+        if (chunk == null) {
+            return;
+        }
+        int k = offset(v);
+        int[] out, in;
+        synchronized (lock(v)) {
+            if (!contains(v)) {
+                return;
+            }
+            clearBit(chunk.live, v);
+            out = chunk.out[k].snapshot();
+            in = _directed ? chunk.in[k].snapshot() : new int[0];
+        }
+        for (int w : out) {
+            removeEdge(v, w);
+        }
+        for (int w : in) {
+            removeEdge(w, v);
+        }
+        synchronized (lock(v)) {
+            chunk.out[k] = null;
+            if (_directed) {
+                chunk.in[k] = null;
+            }
+        }
+        lowerMaxVertex(v);
+        clearBit(chunk.used, v);
+        int w = v >> 6;
+        for (int f = _firstFreeWord.get(); f > w;
+             f = _firstFreeWord.get()) {
+            if (_firstFreeWord.compareAndSet(f, w)) {
+                break;
+            }
+        }
+        _numVertices.decrementAndGet();
+        _modifications.increment();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        if (chunk(u) != null && chunk(v) != null) {
+            removeEdge(u, v);
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_next == 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v + 1);
+                return v;
+            }
+
+            /** The next vertex to deliver, or 0 if there is none. */
+            private int _next = nextVertex(1);
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return element(v, k, false, false);
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        return element(v, k, false, true);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        return element(v, k, _directed, false);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        return copy(v, false, dst);
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        return copy(v, _directed, dst);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        int[] row = snapshot(v, false);
+        return IntIteration.range(row, 0, row.length);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        int[] row = snapshot(v, _directed);
+        return IntIteration.range(row, 0, row.length);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        int n;
+        long[] seqs;
+        int[] ends;
+        n = 0;
+        seqs = new long[16];
+        ends = new int[32];
+        for (int s = 0; s < _edgeTables.length; s += 1) {
+            EdgeTable table = _edgeTables[s];
+            synchronized (_locks[s]) {
+                if (n + table.size > seqs.length) {
+                    seqs = Arrays.copyOf(seqs, 2 * (n + table.size));
+                    ends = Arrays.copyOf(ends, 4 * (n + table.size));
+                }
+                for (int i = 0; i < table.keys.length; i += 1) {
+                    long key = table.keys[i];
+                    if (key != 0) {
+                        seqs[n] = table.seqs[i];
+                        ends[2 * n] = (int) (key >>> 32);
+                        ends[2 * n + 1] = (int) key;
+                        n += 1;
+                    }
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(seqs, n);
+        Arrays.sort(sorted);
+        int[] ordered = new int[2 * n];
+        for (int i = 0; i < n; i += 1) {
+            int pos = Arrays.binarySearch(sorted, seqs[i]);
+            ordered[2 * pos] = ends[2 * i];
+            ordered[2 * pos + 1] = ends[2 * i + 1];
+        }
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _pos < ordered.length;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = ordered[_pos];
+                _edge[1] = ordered[_pos + 1];
+                _pos += 2;
+                return _edge;
+            }
+
+            /** Index in ordered of the next edge. */
+            private int _pos;
+            /** The array used to return each edge. */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (chunk(u) == null || chunk(v) == null) {
+            return 0;
+        }
+        int a = first(u, v), b = a == u ? v : u;
+        synchronized (lock(a)) {
+            return _edgeTables[stripe(a)].get(EdgeIndex.key(a, b));
+        }
+    }
+
+    @Override
+    long modCount() {
+        return _modifications.sum();
+    }
+
+    /** Make V, whose bit in CHUNK's used map has just been set, one of
+     *  my vertices. */
+    private void addVertex(Chunk chunk, int v) {
+        int k = offset(v);
+        synchronized (lock(v)) {
+            chunk.out[k] = new Row();
+            if (_directed) {
+                chunk.in[k] = new Row();
+            }
+            setBit(chunk.live, v);
+        }
+        _highestVertex.accumulateAndGet(v, Math::max);
+        _maxVertex.accumulateAndGet(v, Math::max);
+        _numVertices.incrementAndGet();
+        _modifications.increment();
+    }
+
+    /** Remove edge (U, V), if present, where U and V are in allocated
+     *  chunks. */
+    private void removeEdge(int u, int v) {
+        int a = first(u, v), b = a == u ? v : u;
+        Chunk cu = chunk(u), cv = chunk(v);
+        Object lock1 = lock(Math.min(stripe(u), stripe(v))),
+            lock2 = lock(Math.max(stripe(u), stripe(v)));
+        synchronized (lock1) {
+            synchronized (lock2) {
+                EdgeTable table = _edgeTables[stripe(a)];
+                int e = table.remove(EdgeIndex.key(a, b));
+                if (e == 0) {
+                    return;
+                }
+                _freeEdgeIds.push(e);
+                cu.out[offset(u)].remove(v);
+                if (_directed) {
+                    cv.in[offset(v)].remove(u);
+                } else if (u != v) {
+                    cv.out[offset(v)].remove(u);
+                }
+            }
+        }
+        _numEdges.decrement();
+        _modifications.increment();
+    }
+
+    /** Returns element K of the predecessor list of V if IN, and
+     *  otherwise of its successor list: the edge id if IDS, and otherwise
+     *  the vertex.  Returns 0 if there is no such element. */
+    private int element(int v, int k, boolean in, boolean ids) {
+        Chunk chunk = chunk(v);
+        if (chunk == null || k < 0) {
+            return 0;
+        }
+        synchronized (lock(v)) {
+            Row row = (in ? chunk.in : chunk.out)[offset(v)];
+            if (row == null || k >= row.size) {
+                return 0;
+            }
+            return ids ? row.ids[k] : row.vertices[k];
+        }
+    }
+
+    /** Copy as much of the predecessor list of V (if IN) or successor
+     *  list as fits into DST, and return the length of the list. */
+    private int copy(int v, boolean in, int[] dst) {
+        Chunk chunk = chunk(v);
+        if (chunk == null) {
+            return 0;
+        }
+        synchronized (lock(v)) {
+            Row row = (in ? chunk.in : chunk.out)[offset(v)];
+            if (row == null) {
+                return 0;
+            }
+            System.arraycopy(row.vertices, 0, dst, 0,
+                             Math.min(row.size, dst.length));
+            return row.size;
+        }
+    }
+
+    /** Returns a copy of the predecessor list of V (if IN) or its
+     *  successor list. */
+    private int[] snapshot(int v, boolean in) {
+        Chunk chunk = chunk(v);
+        if (chunk == null) {
+            return new int[0];
+        }
+        synchronized (lock(v)) {
+            Row row = (in ? chunk.in : chunk.out)[offset(v)];
+            return row == null ? new int[0] : row.snapshot();
+        }
+    }
+
+    /** Returns the smallest vertex >= V, or 0 if there is none. */
+    private int nextVertex(int v) {
+        int last = _highestVertex.get();
+        while (v <= last) {
+            Chunk chunk = chunk(v);
+            long bits = chunk.live.get(offset(v) >> 6) & (-1L << v);
+            if (bits != 0) {
+                return (v & ~63) + Long.numberOfTrailingZeros(bits);
+            }
+            v = (v | 63) + 1;
+        }
+        return 0;
+    }
+
+    /** Returns the largest vertex <= V, or 0 if there is none. */
+    private int previousVertex(int v) {
+        while (v > 0) {
+            Chunk chunk = chunk(v);
+            long bits = chunk.live.get(offset(v) >> 6)
+                & (-1L >>> (63 - (v & 63)));
+            if (bits != 0) {
+                return (v & ~63) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            v = (v & ~63) - 1;
+        }
+        return 0;
+    }
+
+    /** If V, which has just been removed, is recorded as my largest
+     *  vertex, record the largest vertex below it instead.  A vertex
+     *  below V added during the scan is found by a second scan once the
+     *  lower mark is in place; one added later raises the mark itself. */
+    private void lowerMaxVertex(int v) {
+        while (_maxVertex.get() == v) {
+            int below = previousVertex(v - 1);
+            if (_maxVertex.compareAndSet(v, below)) {
+                int missed = previousVertex(v - 1);
+                if (missed > below) {
+                    _maxVertex.accumulateAndGet(missed, Math::max);
+                }
+                return;
+            }
+        }
+    }
+
+    /** Returns the end point of edge (U, V) under which it is indexed:
+     *  U if I am directed, and otherwise the smaller of U and V. */
+    private int first(int u, int v) {
+        return _directed ? u : Math.min(u, v);
+    }
+
+    /** Returns the stripe of vertex V. */
+    private int stripe(int v) {
+        return v & _stripeMask;
+    }
+
+    /** Returns the lock for vertex V. */
+    private Object lock(int v) {
+        return _locks[stripe(v)];
+    }
+
+    /** Returns the chunk holding vertex V, or null if no chunk has been
+     *  allocated for it. */
+    private Chunk chunk(int v) {
+        Chunk[] chunks = _chunks;
+        int c = v >>> CHUNK_BITS;
+        return v <= 0 || c >= chunks.length ? null : chunks[c];
+    }
+
+    /** Returns the chunk holding word W of the vertex bitmap, allocating
+     *  it (and any before it) if necessary. */
+    private Chunk chunkForWord(int w) {
+        int c = w / WORDS_PER_CHUNK;
+        Chunk[] chunks = _chunks;
+        if (c < chunks.length) {
+            return chunks[c];
+        }
+        synchronized (_chunkLock) {
+            chunks = _chunks;
+            if (c >= chunks.length) {
+                int n = chunks.length;
+                chunks = Arrays.copyOf(chunks, Math.max(c + 1, 2 * n));
+                for (int i = n; i < chunks.length; i += 1) {
+                    chunks[i] = new Chunk(_directed);
+                }
+                _chunks = chunks;
+            }
+            return chunks[c];
+        }
+    }
+
+    /** Set the bit for vertex V in BITS, one of the bitmaps of V's
+     *  chunk. */
+    private static void setBit(AtomicLongArray bits, int v) {
+        bits.getAndAccumulate(offset(v) >> 6, 1L << v, (x, y) -> x | y);
+    }
+
+    /** Clear the bit for vertex V in BITS, one of the bitmaps of V's
+     *  chunk. */
+    private static void clearBit(AtomicLongArray bits, int v) {
+        bits.getAndAccumulate(offset(v) >> 6, ~(1L << v), (x, y) -> x & y);
+    }
+
+    /** Returns the position of vertex V within its chunk. */
+    private static int offset(int v) {
+        return v & (CHUNK_SIZE - 1);
+    }
+
+    /** The vertices numbered c * CHUNK_SIZE .. (c + 1) * CHUNK_SIZE - 1
+     *  for some c.  The bitmaps are read and changed without locks; the
+     *  lists of vertex V are guarded by V's stripe. */
+    private static final class Chunk {
+        /** A chunk for a directed graph iff DIRECTED. */
+        Chunk(boolean directed) {
+            out = new Row[CHUNK_SIZE];
+            in = directed ? new Row[CHUNK_SIZE] : null;
+        }
+
+        /** Bit V is set iff the number V is allocated: from when add()
+         *  chooses it to when remove(V) has finished. */
+        private final AtomicLongArray used =
+            new AtomicLongArray(WORDS_PER_CHUNK);
+        /** Bit V is set iff V is one of my vertices. */
+        private final AtomicLongArray live =
+            new AtomicLongArray(WORDS_PER_CHUNK);
+        /** Successors of each vertex (all neighbors if undirected), or
+         *  null for vertices not present. */
+        private final Row[] out;
+        /** Predecessors of each vertex if directed, else null. */
+        private final Row[] in;
+    }
+
+    /** A list of vertices, in the order added, with a parallel list of
+     *  the ids of the edges to them. */
+    private static final class Row {
+        /** Add W, reached by edge E, at the end. */
+        void add(int w, int e) {
+            if (size == vertices.length) {
+                int n = size + (size >> 1) + 4;
+                vertices = Arrays.copyOf(vertices, n);
+                ids = Arrays.copyOf(ids, n);
+            }
+            vertices[size] = w;
+            ids[size] = e;
+            size += 1;
+        }
+
+        /** Remove W, which must be present. */
+        void remove(int w) {
+            int k;
+            for (k = 0; vertices[k] != w; k += 1) {
+                continue;
+            }
+            size -= 1;
+            System.arraycopy(vertices, k + 1, vertices, k, size - k);
+            System.arraycopy(ids, k + 1, ids, k, size - k);
+        }
+
+        /** Returns a copy of the vertices. */
+        int[] snapshot() {
+            return Arrays.copyOf(vertices, size);
+        }
+
+        /** The vertices, in vertices[0 .. size-1]. */
+        private int[] vertices = new int[0];
+        /** The edge ids, parallel to vertices. */
+        private int[] ids = new int[0];
+        /** Number of entries. */
+        private int size;
+    }
+
+    /** The edges indexed under the vertices of one stripe, guarded by
+     *  that stripe's lock.
+     *  An open-addressing table with linear probing, keyed by packed end
+     *  points (see EdgeIndex.key), holding each edge's id and its
+     *  sequence number, which orders edges by when they were added. */
+    private static final class EdgeTable {
+        /** Returns the id of the edge with key KEY, or 0 if none. */
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return ids[i];
+                }
+            }
+            return 0;
+        }
+
+        /** Add the edge with key KEY, which is not present, with id E and
+         *  sequence number SEQ. */
+        void put(long key, int e, long seq) {
+            if (2 * (size + 1) > keys.length) {
+                long[] oldKeys = keys, oldSeqs = seqs;
+                int[] oldIds = ids;
+                keys = new long[2 * oldKeys.length];
+                seqs = new long[keys.length];
+                ids = new int[keys.length];
+                for (int j = 0; j < oldKeys.length; j += 1) {
+                    if (oldKeys[j] != 0) {
+                        insert(oldKeys[j], oldIds[j], oldSeqs[j]);
+                    }
+                }
+            }
+            insert(key, e, seq);
+            size += 1;
+        }
+
+        /** Remove the edge with key KEY, if present, and return its id,
+         *  or 0 if it is not present. */
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i;
+            for (i = slot(key, mask); keys[i] != key; i = (i + 1) & mask) {
+                if (keys[i] == 0) {
+                    return 0;
+                }
+            }
+            int e = ids[i];
+            int hole = i;
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    ids[hole] = ids[j];
+                    seqs[hole] = seqs[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = 0;
+            size -= 1;
+            return e;
+        }
+
+        /** Store KEY, E, and SEQ in an empty slot. */
+        private void insert(long key, int e, long seq) {
+            int mask = keys.length - 1;
+            int i;
+            for (i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                continue;
+            }
+            keys[i] = key;
+            ids[i] = e;
+            seqs[i] = seq;
+        }
+
+        /** Returns the home slot of KEY in a table with mask MASK. */
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        /** Packed end points of each edge, or 0 for an empty slot. */
+        private long[] keys = new long[MIN_TABLE];
+        /** Edge ids, parallel to keys. */
+        private int[] ids = new int[MIN_TABLE];
+        /** Sequence numbers, parallel to keys. */
+        private long[] seqs = new long[MIN_TABLE];
+        /** Number of edges. */
+        private int size;
+    }
+
+    /** A lock-free stack of released edge ids (a Treiber stack).  The
+     *  entry below id E on the stack is kept at position E of a list of
+     *  fixed-size segments, which grows (under a lock) as larger ids are
+     *  allocated.  The top is packed with a count of changes to it, so
+     *  that a pop cannot succeed against a top that was popped and
+     *  pushed again meanwhile. */
+    private static final class IdStack {
+        /** Push E, which must have been passed to reserve. */
+        void push(int e) {
+            while (true) {
+                long top = _top.get();
+                link(e).set(e & (SEGMENT_SIZE - 1), (int) top);
+                if (_top.compareAndSet(top, next(top, e))) {
+                    return;
+                }
+            }
+        }
+
+        /** Remove and return the id on top, or return 0 if I am
+         *  empty. */
+        int pop() {
+            while (true) {
+                long top = _top.get();
+                int e = (int) top;
+                if (e == 0) {
+                    return 0;
+                }
+                int below = link(e).get(e & (SEGMENT_SIZE - 1));
+                if (_top.compareAndSet(top, next(top, below))) {
+                    return e;
+                }
+            }
+        }
+
+        /** Make room for ids up to E. */
+        void reserve(int e) {
+            int s = e >>> SEGMENT_BITS;
+            if (s < _links.length) {
+                return;
+            }
+            synchronized (this) {
+                AtomicIntegerArray[] links = _links;
+                if (s >= links.length) {
+                    int n = links.length;
+                    links = Arrays.copyOf(links, Math.max(s + 1, 2 * n));
+                    for (int i = n; i < links.length; i += 1) {
+                        links[i] = new AtomicIntegerArray(SEGMENT_SIZE);
+                    }
+                    _links = links;
+                }
+            }
+        }
+
+        /** Returns the segment holding the link of E. */
+        private AtomicIntegerArray link(int e) {
+            return _links[e >>> SEGMENT_BITS];
+        }
+
+        /** Returns the packed top following TOP, with E on top. */
+        private static long next(long top, int e) {
+            return ((top >>> 32) + 1) << 32 | (e & 0xffffffffL);
+        }
+
+        /** Log base 2 of the number of links in a segment. */
+        private static final int SEGMENT_BITS = 12;
+        /** Number of links in a segment. */
+        private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+        /** The id on top (0 if none) in the low 32 bits, and the number of
+         *  changes to the top in the high 32. */
+        private final AtomicLong _top = new AtomicLong();
+        /** The links, in segments. */
+        private volatile AtomicIntegerArray[] _links =
+            new AtomicIntegerArray[0];
+    }
+
+    /** Default number of stripes. */
+    private static final int DEFAULT_STRIPES = 256;
+    /** Log base 2 of the number of vertices in a chunk. */
+    private static final int CHUNK_BITS = 12;
+    /** Number of vertices in a chunk. */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /** Number of words in each bitmap of a chunk. */
+    private static final int WORDS_PER_CHUNK = CHUNK_SIZE / 64;
+    /** Initial size of an EdgeTable.  Must be a power of 2. */
+    private static final int MIN_TABLE = 8;
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** The locks guarding the stripes of my vertices. */
+    private final Object[] _locks;
+    /** The edges whose (first) end points are in each stripe. */
+    private final EdgeTable[] _edgeTables;
+    /** Maps a vertex number to its stripe. */
+    private final int _stripeMask;
+    /** The vertex directory: the chunk holding vertex V is
+     *  _chunks[V >> CHUNK_BITS].  Replaced by a longer copy to grow. */
+    private volatile Chunk[] _chunks;
+    /** Guards the growth of _chunks. */
+    private final Object _chunkLock = new Object();
+    /** A word of the vertex bitmap such that all earlier words are
+     *  full, except perhaps while a remove is lowering it. */
+    private final AtomicInteger _firstFreeWord = new AtomicInteger();
+    /** Largest vertex number ever allocated. */
+    private final AtomicInteger _highestVertex = new AtomicInteger();
+    /** Largest current vertex number (weakly consistent, as for the
+     *  sizes), or 0. */
+    private final AtomicInteger _maxVertex = new AtomicInteger();
+    /** Largest edge id ever allocated. */
+    private final AtomicInteger _highestEdgeId = new AtomicInteger();
+    /** Released edge ids, to be reused before new ones. */
+    private final IdStack _freeEdgeIds = new IdStack();
+    /** Source of the sequence numbers that order edges. */
+    private final AtomicLong _sequence = new AtomicLong();
+    /** Number of vertices. */
+    private final AtomicInteger _numVertices = new AtomicInteger();
+    /** Number of edges. */
+    private final LongAdder _numEdges = new LongAdder();
+    /** Number of changes made to my vertices and edges. */
+    private final LongAdder _modifications = new LongAdder();
+}
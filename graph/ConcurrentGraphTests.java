@@ -0,0 +1,207 @@
+package graph;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for ConcurrentGraph.
+ *  @author Florence Lau
+ */
+public class ConcurrentGraphTests {
+
+    /** Apply the same random operations to a ConcurrentGraph and a
+     *  GraphObj, both directed iff DIRECTED, comparing them. */
+    private void checkSequential(boolean directed) {
+        Random rand = new Random(18);
+        Graph G = new ConcurrentGraph(directed, 4);
+        Graph H = directed ? new DirectedGraph() : new UndirectedGraph();
+        for (int i = 0; i < 3000; i += 1) {
+            int op = rand.nextInt(10);
+            int u = 1 + rand.nextInt(150), v = 1 + rand.nextInt(150);
+            if (op < 2) {
+                assertEquals(H.add(), G.add());
+            } else if (op < 3) {
+                H.remove(u);
+                G.remove(u);
+            } else if (op < 8) {
+                assertEquals(H.add(u, v) != 0, G.add(u, v) != 0);
+            } else {
+                H.remove(u, v);
+                G.remove(u, v);
+            }
+            assertEquals(H.contains(u, v), G.contains(u, v));
+        }
+        FrozenGraphTests.assertSameGraph(H, G, false);
+    }
+
+    @Test
+    public void testSequentialDirected() {
+        checkSequential(true);
+    }
+
+    @Test
+    public void testSequentialUndirected() {
+        checkSequential(false);
+    }
+
+    @Test
+    public void testEdgeIds() {
+        ConcurrentGraph G = new ConcurrentGraph(false);
+        for (int i = 0; i < 5; i += 1) {
+            G.add();
+        }
+        int e = G.add(2, 4);
+        assertEquals(e, G.add(4, 2));
+        assertEquals(e, G.edgeId(4, 2));
+        assertEquals(1, G.outDegree(2));
+        int s = G.add(3, 3);
+        assertEquals(1, G.outDegree(3));
+        assertEquals(3, G.successor(3, 0));
+        assertEquals(s, G.successorEdge(3, 0));
+        G.remove(2, 4);
+        assertEquals(0, G.edgeId(2, 4));
+        assertEquals(e, G.add(2, 5));
+        assertEquals(0, G.add(1, 6));
+    }
+
+    @Test
+    public void testEdgeIdReuse() {
+        ConcurrentGraph G = new ConcurrentGraph(true, 16);
+        int n = 100, degree = 20;
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        for (int u = 1; u <= 40; u += 1) {
+            for (int v = 1; v <= degree; v += 1) {
+                assertTrue(G.add(u, v) <= degree);
+            }
+            for (int v = 1; v <= degree; v += 1) {
+                G.remove(u, v);
+            }
+        }
+        G.remove(n);
+        assertEquals(n - 1, G.maxVertex());
+        for (int v = n / 2; v < n; v += 1) {
+            G.remove(v);
+        }
+        assertEquals(n / 2 - 1, G.maxVertex());
+        assertEquals(n / 2, G.add());
+        assertEquals(n / 2, G.maxVertex());
+    }
+
+    /** Run BODY(i) in N threads for i = 0 .. N-1, and wait for them. */
+    private static void inThreads(int n, ThreadBody body) throws Exception {
+        Thread[] threads = new Thread[n];
+        Throwable[] failures = new Throwable[n];
+        for (int i = 0; i < n; i += 1) {
+            final int k = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    body.run(k);
+                } catch (Throwable excp) {
+                    failures[k] = excp;
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Throwable failure : failures) {
+            if (failure != null) {
+                throw new AssertionError(failure);
+            }
+        }
+    }
+
+    /** The code run by each thread of inThreads. */
+    private interface ThreadBody {
+        /** Do the work of thread number K. */
+        void run(int k) throws Exception;
+    }
+
+    @Test
+    public void testConcurrentVertices() throws Exception {
+        ConcurrentGraph G = new ConcurrentGraph(true);
+        int perThread = 5000;
+        inThreads(4, k -> {
+            for (int i = 0; i < perThread; i += 1) {
+                int v = G.add();
+                if (i % 3 == 0) {
+                    G.remove(v);
+                }
+            }
+        });
+        int n = G.vertexSize();
+        assertEquals(4 * (perThread - (perThread + 2) / 3), n);
+        int expected = 0;
+        for (int v : G.vertices()) {
+            expected += 1;
+            assertEquals(expected, v);
+        }
+        assertEquals(n, expected);
+        assertEquals(n, G.maxVertex());
+        assertEquals(n + 1, G.add());
+    }
+
+    @Test
+    public void testConcurrentEdges() throws Exception {
+        ConcurrentGraph G = new ConcurrentGraph(false, 16);
+        int n = 300;
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                for (int v = 1; v <= n; v += 1) {
+                    int[] succ = new int[n + 1];
+                    int d = G.copySuccessors(v, succ);
+                    HashSet<Integer> seen = new HashSet<>();
+                    for (int k = 0; k < d; k += 1) {
+                        if (!seen.add(succ[k])) {
+                            throw new IllegalStateException("duplicate");
+                        }
+                    }
+                }
+            }
+        });
+        reader.start();
+        inThreads(4, k -> {
+            Random rand = new Random(k);
+            for (int i = 0; i < 20000; i += 1) {
+                int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n);
+                if (rand.nextInt(3) == 0) {
+                    G.remove(u, v);
+                } else {
+                    G.add(u, v);
+                }
+            }
+        });
+        done.set(true);
+        reader.join();
+        int count, degrees;
+        count = degrees = 0;
+        HashSet<Integer> ids = new HashSet<>();
+        for (int[] e : G.edges()) {
+            count += 1;
+            assertTrue(G.contains(e[1], e[0]));
+            assertTrue(ids.add(G.edgeId(e[0], e[1])));
+        }
+        for (int v = 1; v <= n; v += 1) {
+            degrees += G.outDegree(v);
+            for (int w : G.successors(v)) {
+                assertTrue(G.contains(v, w));
+                if (v == w) {
+                    degrees += 1;
+                }
+            }
+        }
+        assertEquals(G.edgeSize(), count);
+        assertEquals(2 * count, degrees);
+    }
+}
@@ -0,0 +1,777 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/** A contraction hierarchy over a weighted graph, for answering many
+ *  shortest-path queries between given end points far faster than a
+ *  search of the graph itself.
+ *
+ *  Building the hierarchy removes ("contracts") the vertices one at a
+ *  time, from least to most important, adding a shortcut edge (U, W)
+ *  through each contracted vertex V whenever U-V-W is the only shortest
+ *  path from U to W among the vertices that remain, as determined by a
+ *  bounded "witness" search from U that avoids V.  A vertex's rank is
+ *  its position in this order.  Every shortest path then has a
+ *  counterpart that climbs to higher ranks and then descends, so a query
+ *  searches upwards from both end points, over few vertices, and expands
+ *  the shortcuts on the path found into the edges they stand for.
+ *
+ *  Contraction proceeds in rounds.  Each round selects the vertices
+ *  whose priority (the number of shortcuts contracting them would add,
+ *  less the number of edges it would remove, plus the number of their
+ *  neighbors already contracted and the depth of the hierarchy below
+ *  them) is lower than that of all their neighbors.  No two of them are
+ *  adjacent, so their witness searches are made in parallel, each
+ *  avoiding all vertices of the round, and the priorities of their
+ *  neighbors are then recomputed in parallel.
+ *
+ *  A hierarchy may be saved to a file and loaded from it, with a tag
+ *  (such as a checksum of the data from which its graph was made) that
+ *  identifies the graph it belongs to.  Queries may be made by many
+ *  threads at once.
+ *  @author Florence Lau
+ */
+public final class ContractionHierarchy {
+
+    /** The hierarchy of G, whose edge weights are those recorded by
+     *  LabeledGraph.setWeight.  An undirected edge may be traveled in
+     *  either direction.  Edges from a vertex to itself are ignored, and
+     *  of several edges between the same vertices only the lightest is
+     *  used. */
+    public ContractionHierarchy(LabeledGraph<?, ?> G) {
+        new Builder(G).build();
+    }
+
+    /** A hierarchy read from a file, with the given arrays (see the
+     *  fields of the same names). */
+    private ContractionHierarchy(int[] rank, int[] upStart, int[] upEnd,
+                                 int[] upMiddle, double[] upWeight,
+                                 int[] downStart, int[] downEnd,
+                                 int[] downMiddle, double[] downWeight) {
+        _rank = rank;
+        _upStart = upStart;
+        _upEnd = upEnd;
+        _upMiddle = upMiddle;
+        _upWeight = upWeight;
+        _downStart = downStart;
+        _downEnd = downEnd;
+        _downMiddle = downMiddle;
+        _downWeight = downWeight;
+    }
+
+    /** Returns the largest vertex number of my graph. */
+    public int maxVertex() {
+        return _rank.length - 1;
+    }
+
+    /** Returns the number of edges, including shortcuts, in my upward and
+     *  downward graphs together. */
+    public int edgeSize() {
+        return _upEnd.length + _downEnd.length;
+    }
+
+    /** Returns the length of a shortest path in my graph from SOURCE to
+     *  DEST, or positive infinity if there is none. */
+    public double distance(int source, int dest) {
+        SearchWorkspace[] spaces = WORKSPACES.get();
+        int meet = search(source, dest, spaces[0], spaces[1]);
+        return meet == 0 ? Double.POSITIVE_INFINITY
+            : spaces[0].weight(meet) + spaces[1].weight(meet);
+    }
+
+    /** Returns the vertices of a shortest path in my graph from SOURCE to
+     *  DEST, starting with SOURCE and ending with DEST, or null if there
+     *  is none. */
+    public List<Integer> path(int source, int dest) {
+        SearchWorkspace[] spaces = WORKSPACES.get();
+        SearchWorkspace forward = spaces[0], backward = spaces[1];
+        int meet = search(source, dest, forward, backward);
+        if (meet == 0) {
+            return null;
+        }
+        List<Integer> top = new ArrayList<>();
+        for (int v = meet; v != 0; v = forward.predecessor(v)) {
+            top.add(v);
+        }
+        Collections.reverse(top);
+        for (int v = backward.predecessor(meet); v != 0;
+             v = backward.predecessor(v)) {
+            top.add(v);
+        }
+        List<Integer> result = new ArrayList<>();
+        result.add(source);
+        for (int i = 1; i < top.size(); i += 1) {
+            unpack(top.get(i - 1), top.get(i), result);
+        }
+        return result;
+    }
+
+    /** Write me to FILE, replacing its contents, with tag TAG. */
+    public void save(File file, long tag) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(), CREATE,
+                                                TRUNCATE_EXISTING, WRITE)) {
+            Output output = new Output(out);
+            output.putInt(MAGIC);
+            output.putInt(VERSION);
+            output.putLong(tag);
+            output.putInt(maxVertex());
+            output.putInt(_upEnd.length);
+            output.putInt(_downEnd.length);
+            output.putInt(0);
+            output.putAll(_rank);
+            output.putAll(_upStart);
+            output.putAll(_upEnd);
+            output.putAll(_upMiddle);
+            output.putAll(_upWeight);
+            output.putAll(_downStart);
+            output.putAll(_downEnd);
+            output.putAll(_downMiddle);
+            output.putAll(_downWeight);
+            output.flush();
+        }
+    }
+
+    /** Returns the hierarchy saved in FILE, which must have been saved
+     *  with tag TAG. */
+    public static ContractionHierarchy load(File file, long tag)
+        throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), READ)) {
+            long size = in.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("not a hierarchy file");
+            }
+            ByteBuffer header = in.map(READ_ONLY, 0, HEADER_SIZE)
+                .order(ORDER);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a hierarchy file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(String.format("unsupported hierarchy "
+                                                    + "file version %d",
+                                                    header.getInt(4)));
+            }
+            if (header.getLong(8) != tag) {
+                throw new IOException("hierarchy file is out of date");
+            }
+            int maxVertex = header.getInt(16), ups = header.getInt(20),
+                downs = header.getInt(24);
+            if (maxVertex < 0 || ups < 0 || downs < 0
+                || size != HEADER_SIZE + 4L * (maxVertex + 1)
+                + 8L * (maxVertex + 2) + 16L * ((long) ups + downs)) {
+                throw new IOException("corrupt hierarchy file");
+            }
+            long[] position = { HEADER_SIZE };
+            int[] rank = ints(in, position, maxVertex + 1),
+                upStart = ints(in, position, maxVertex + 2),
+                upEnd = ints(in, position, ups),
+                upMiddle = ints(in, position, ups);
+            double[] upWeight = doubles(in, position, ups);
+            int[] downStart = ints(in, position, maxVertex + 2),
+                downEnd = ints(in, position, downs),
+                downMiddle = ints(in, position, downs);
+            double[] downWeight = doubles(in, position, downs);
+            if (upStart[maxVertex + 1] != ups
+                || downStart[maxVertex + 1] != downs) {
+                throw new IOException("corrupt hierarchy file");
+            }
+            return new ContractionHierarchy(rank, upStart, upEnd, upMiddle,
+                                            upWeight, downStart, downEnd,
+                                            downMiddle, downWeight);
+        }
+    }
+
+    /** Search upwards from SOURCE, using FORWARD, and from DEST, using
+     *  BACKWARD, recording the predecessor of each vertex reached on the
+     *  way up in each workspace.  Returns the vertex at the top of a
+     *  shortest path, or 0 if there is no path.  Each direction stops
+     *  once the smallest key on its fringe is no less than the best path
+     *  found, since no upward path from it can lead to a shorter one. */
+    private int search(int source, int dest, SearchWorkspace forward,
+                       SearchWorkspace backward) {
+        int max = maxVertex();
+        if (source <= 0 || source > max || dest <= 0 || dest > max
+            || _rank[source] == 0 || _rank[dest] == 0) {
+            return 0;
+        }
+        forward.begin(max);
+        backward.begin(max);
+        IndexedHeap ff = forward.fringe(), bf = backward.fringe();
+        forward.setWeight(source, 0);
+        forward.setPredecessor(source, 0);
+        ff.put(source, 0);
+        backward.setWeight(dest, 0);
+        backward.setPredecessor(dest, 0);
+        bf.put(dest, 0);
+        double best = Double.POSITIVE_INFINITY;
+        int meet = 0;
+        while (true) {
+            boolean goForward = !ff.isEmpty() && ff.minPriority() < best,
+                goBackward = !bf.isEmpty() && bf.minPriority() < best;
+            if (goForward && goBackward) {
+                goForward = ff.minPriority() <= bf.minPriority();
+            } else if (!goForward && !goBackward) {
+                break;
+            }
+            SearchWorkspace mine = goForward ? forward : backward,
+                other = goForward ? backward : forward;
+            int[] start = goForward ? _upStart : _downStart,
+                end = goForward ? _upEnd : _downEnd;
+            double[] weight = goForward ? _upWeight : _downWeight;
+            int v = mine.fringe().removeMin();
+            double d = mine.weight(v);
+            if (d + other.weight(v) < best) {
+                best = d + other.weight(v);
+                meet = v;
+            }
+            for (int a = start[v]; a < start[v + 1]; a += 1) {
+                int w = end[a];
+                double dw = d + weight[a];
+                if (dw < mine.weight(w)) {
+                    mine.setWeight(w, dw);
+                    mine.setPredecessor(w, v);
+                    mine.fringe().put(w, dw);
+                }
+            }
+        }
+        ff.clear();
+        bf.clear();
+        return meet;
+    }
+
+    /** Append to PATH the vertices after U on the path through my graph
+     *  that the edge (U, V) of the upward or downward graph stands
+     *  for. */
+    private void unpack(int u, int v, List<Integer> path) {
+        int[] stack = new int[16];
+        int top;
+        stack[0] = v;
+        top = 1;
+        int from = u;
+        while (top > 0) {
+            int to = stack[top - 1];
+            int middle = middle(from, to);
+            if (middle == 0) {
+                path.add(to);
+                from = to;
+                top -= 1;
+            } else {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * top);
+                }
+                stack[top] = middle;
+                top += 1;
+            }
+        }
+    }
+
+    /** Returns the vertex bypassed by the shortcut (U, V), or 0 if (U, V)
+     *  is an edge of my graph. */
+    private int middle(int u, int v) {
+        if (_rank[u] < _rank[v]) {
+            for (int a = _upStart[u]; a < _upStart[u + 1]; a += 1) {
+                if (_upEnd[a] == v) {
+                    return _upMiddle[a];
+                }
+            }
+        } else {
+            for (int a = _downStart[v]; a < _downStart[v + 1]; a += 1) {
+                if (_downEnd[a] == u) {
+                    return _downMiddle[a];
+                }
+            }
+        }
+        throw new IllegalStateException("corrupt hierarchy");
+    }
+
+    /** Returns N ints read from IN at POSITION[0], advancing it. */
+    private static int[] ints(FileChannel in, long[] position, int n)
+        throws IOException {
+        int[] result = new int[n];
+        for (int k = 0; k < n; k += READ_CHUNK) {
+            int m = Math.min(READ_CHUNK, n - k);
+            MappedByteBuffer buf = in.map(READ_ONLY, position[0], 4L * m);
+            buf.order(ORDER).asIntBuffer().get(result, k, m);
+            position[0] += 4L * m;
+        }
+        return result;
+    }
+
+    /** Returns N doubles read from IN at POSITION[0], advancing it. */
+    private static double[] doubles(FileChannel in, long[] position, int n)
+        throws IOException {
+        double[] result = new double[n];
+        for (int k = 0; k < n; k += READ_CHUNK) {
+            int m = Math.min(READ_CHUNK, n - k);
+            MappedByteBuffer buf = in.map(READ_ONLY, position[0], 8L * m);
+            buf.order(ORDER).asDoubleBuffer().get(result, k, m);
+            position[0] += 8L * m;
+        }
+        return result;
+    }
+
+    /** Buffered output of ints, longs, and doubles to a channel. */
+    private static final class Output {
+        /** Output to OUT. */
+        Output(FileChannel out) {
+            _out = out;
+            _buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+        }
+
+        /** Write X. */
+        void putInt(int x) throws IOException {
+            room(4);
+            _buffer.putInt(x);
+        }
+
+        /** Write X. */
+        void putLong(long x) throws IOException {
+            room(8);
+            _buffer.putLong(x);
+        }
+
+        /** Write the elements of A. */
+        void putAll(int[] a) throws IOException {
+            for (int x : a) {
+                putInt(x);
+            }
+        }
+
+        /** Write the elements of A. */
+        void putAll(double[] a) throws IOException {
+            for (double x : a) {
+                room(8);
+                _buffer.putDouble(x);
+            }
+        }
+
+        /** Write out everything buffered. */
+        void flush() throws IOException {
+            _buffer.flip();
+            while (_buffer.hasRemaining()) {
+                _out.write(_buffer);
+            }
+            _buffer.clear();
+        }
+
+        /** Make room for N more bytes in the buffer. */
+        private void room(int n) throws IOException {
+            if (_buffer.remaining() < n) {
+                flush();
+            }
+        }
+
+        /** The destination. */
+        private final FileChannel _out;
+        /** Bytes not yet written. */
+        private final ByteBuffer _buffer;
+    }
+
+    /** The edges leaving or entering one vertex during contraction: to or
+     *  from END[k], of weight WEIGHT[k], bypassing MIDDLE[k] (0 for an
+     *  edge of the original graph), for 0 <= k < size. */
+    private static final class Arcs {
+        /** Add an edge to or from E of weight W bypassing M, or lower the
+         *  weight of the existing one to W if that is less. */
+        void add(int e, double w, int m) {
+            for (int k = 0; k < size; k += 1) {
+                if (end[k] == e) {
+                    if (w < weight[k]) {
+                        weight[k] = w;
+                        middle[k] = m;
+                    }
+                    return;
+                }
+            }
+            if (size == end.length) {
+                int n = 2 * size + 2;
+                end = Arrays.copyOf(end, n);
+                weight = Arrays.copyOf(weight, n);
+                middle = Arrays.copyOf(middle, n);
+            }
+            end[size] = e;
+            weight[size] = w;
+            middle[size] = m;
+            size += 1;
+        }
+
+        /** Remove the edge to or from E, if any. */
+        void remove(int e) {
+            for (int k = 0; k < size; k += 1) {
+                if (end[k] == e) {
+                    size -= 1;
+                    end[k] = end[size];
+                    weight[k] = weight[size];
+                    middle[k] = middle[size];
+                    return;
+                }
+            }
+        }
+
+        /** Returns the largest weight in me, or 0 if I am empty. */
+        double maxWeight() {
+            double result = 0;
+            for (int k = 0; k < size; k += 1) {
+                result = Math.max(result, weight[k]);
+            }
+            return result;
+        }
+
+        /** The other end points. */
+        int[] end = new int[0];
+        /** The weights. */
+        double[] weight = new double[0];
+        /** The bypassed vertices. */
+        int[] middle = new int[0];
+        /** The number of edges. */
+        int size;
+    }
+
+    /** The shortcuts found for contracting one vertex: (FROM[k], TO[k]) of
+     *  weight WEIGHT[k], for 0 <= k < size. */
+    private static final class Shortcuts {
+        /** Add the shortcut (U, W) of weight D. */
+        void add(int u, int w, double d) {
+            if (size == from.length) {
+                int n = 2 * size + 4;
+                from = Arrays.copyOf(from, n);
+                to = Arrays.copyOf(to, n);
+                weight = Arrays.copyOf(weight, n);
+            }
+            from[size] = u;
+            to[size] = w;
+            weight[size] = d;
+            size += 1;
+        }
+
+        /** Start points. */
+        int[] from = new int[0];
+        /** End points. */
+        int[] to = new int[0];
+        /** Weights. */
+        double[] weight = new double[0];
+        /** Number of shortcuts. */
+        int size;
+    }
+
+    /** Contracts a graph, filling in the fields of the enclosing
+     *  hierarchy. */
+    private final class Builder {
+        /** A builder for the hierarchy of G. */
+        Builder(LabeledGraph<?, ?> G) {
+            _max = G.maxVertex();
+            _out = new Arcs[_max + 1];
+            _in = new Arcs[_max + 1];
+            _priority = new int[_max + 1];
+            _deleted = new int[_max + 1];
+            _level = new int[_max + 1];
+            _skip = new boolean[_max + 1];
+            _ranks = new int[_max + 1];
+            _upArcs = new Arcs[_max + 1];
+            _downArcs = new Arcs[_max + 1];
+            int n;
+            n = 0;
+            for (IntIteration it = G.intVertices(); it.hasNext(); ) {
+                int v = it.nextInt();
+                _out[v] = new Arcs();
+                _in[v] = new Arcs();
+                n += 1;
+            }
+            _remaining = new int[n];
+            n = 0;
+            for (IntIteration it = G.intVertices(); it.hasNext(); ) {
+                int v = it.nextInt();
+                _remaining[n] = v;
+                n += 1;
+                int d = G.outDegree(v);
+                for (int k = 0; k < d; k += 1) {
+                    int w = G.successor(v, k);
+                    if (w != v) {
+                        double wt = G.edgeWeight(G.successorEdge(v, k));
+                        _out[v].add(w, wt, 0);
+                        _in[w].add(v, wt, 0);
+                    }
+                }
+            }
+        }
+
+        /** Contract all vertices and record the result. */
+        void build() {
+            IntStream.of(_remaining).parallel()
+                .forEach(v -> _priority[v] = priority(v));
+            int nextRank = 1;
+            while (_remaining.length > 0) {
+                int[] round = IntStream.of(_remaining).parallel()
+                    .filter(this::isLocalMinimum).toArray();
+                for (int v : round) {
+                    _skip[v] = true;
+                }
+                Shortcuts[] found = new Shortcuts[round.length];
+                IntStream.range(0, round.length).parallel()
+                    .forEach(i -> found[i] = shortcuts(round[i], false));
+                boolean[] affected = new boolean[_max + 1];
+                for (int i = 0; i < round.length; i += 1) {
+                    int v = round[i];
+                    _ranks[v] = nextRank;
+                    nextRank += 1;
+                    contract(v, found[i], affected);
+                }
+                _remaining = IntStream.of(_remaining)
+                    .filter(v -> _ranks[v] == 0).toArray();
+                IntStream.of(_remaining).parallel().filter(v -> affected[v])
+                    .forEach(v -> _priority[v] = priority(v));
+            }
+            finish();
+        }
+
+        /** Returns true iff V has lower priority than all its remaining
+         *  neighbors, ties being broken by a hash of the vertex number. */
+        private boolean isLocalMinimum(int v) {
+            Arcs out = _out[v], in = _in[v];
+            for (int k = 0; k < out.size; k += 1) {
+                if (!precedes(v, out.end[k])) {
+                    return false;
+                }
+            }
+            for (int k = 0; k < in.size; k += 1) {
+                if (!precedes(v, in.end[k])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns true iff V is to be contracted before U. */
+        private boolean precedes(int v, int u) {
+            if (_priority[v] != _priority[u]) {
+                return _priority[v] < _priority[u];
+            }
+            int hv = v * HASH, hu = u * HASH;
+            return hv != hu ? hv < hu : v < u;
+        }
+
+        /** Returns the priority of V: the edge difference of contracting it
+         *  plus the number of its neighbors already contracted and its
+         *  level. */
+        private int priority(int v) {
+            return shortcuts(v, true).size - _out[v].size - _in[v].size
+                + _deleted[v] + _level[v];
+        }
+
+        /** Returns the shortcuts needed to contract V: those (U, W) for
+         *  edges (U, V) and (V, W) such that a search from U that avoids V
+         *  (and, unless SIMULATE, all the vertices of the current round)
+         *  finds no path to W as short as U-V-W.  If SIMULATE, the result
+         *  is only an estimate, for computing V's priority. */
+        private Shortcuts shortcuts(int v, boolean simulate) {
+            Shortcuts result = new Shortcuts();
+            Arcs in = _in[v], out = _out[v];
+            if (in.size == 0 || out.size == 0) {
+                return result;
+            }
+            double maxOut = out.maxWeight();
+            SearchWorkspace ws = WORKSPACES.get()[0];
+            for (int i = 0; i < in.size; i += 1) {
+                int u = in.end[i];
+                double toV = in.weight[i];
+                witnessSearch(u, v, toV + maxOut, simulate, ws);
+                for (int j = 0; j < out.size; j += 1) {
+                    int w = out.end[j];
+                    double via = toV + out.weight[j];
+                    if (w != u && ws.weight(w) > via) {
+                        result.add(u, w, via);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /** Search from U, using WS, for paths of length at most LIMIT that
+         *  avoid V and, unless SIMULATE, the vertices of the current round,
+         *  settling at most WITNESS_SETTLED vertices (SIMULATED_SETTLED if
+         *  SIMULATE). */
+        private void witnessSearch(int u, int v, double limit,
+                                   boolean simulate, SearchWorkspace ws) {
+            int maxSettled = simulate ? SIMULATED_SETTLED : WITNESS_SETTLED;
+            ws.begin(_max);
+            IndexedHeap fringe = ws.fringe();
+            ws.setWeight(u, 0);
+            fringe.put(u, 0);
+            for (int settled = 0; !fringe.isEmpty()
+                     && fringe.minPriority() <= limit
+                     && settled < maxSettled; settled += 1) {
+                int x = fringe.removeMin();
+                double d = ws.weight(x);
+                Arcs arcs = _out[x];
+                for (int k = 0; k < arcs.size; k += 1) {
+                    int y = arcs.end[k];
+                    double dy = d + arcs.weight[k];
+                    if (y != v && (simulate || !_skip[y])
+                        && dy < ws.weight(y)) {
+                        ws.setWeight(y, dy);
+                        fringe.put(y, dy);
+                    }
+                }
+            }
+            fringe.clear();
+        }
+
+        /** Remove V from the graph, adding the shortcuts FOUND, recording
+         *  its remaining edges as those of the upward and downward graphs,
+         *  and marking its neighbors in AFFECTED. */
+        private void contract(int v, Shortcuts found, boolean[] affected) {
+            Arcs out = _out[v], in = _in[v];
+            _upArcs[v] = out;
+            _downArcs[v] = in;
+            for (int k = 0; k < out.size; k += 1) {
+                int w = out.end[k];
+                _in[w].remove(v);
+                _deleted[w] += 1;
+                _level[w] = Math.max(_level[w], _level[v] + 1);
+                affected[w] = true;
+            }
+            for (int k = 0; k < in.size; k += 1) {
+                int u = in.end[k];
+                _out[u].remove(v);
+                _deleted[u] += 1;
+                _level[u] = Math.max(_level[u], _level[v] + 1);
+                affected[u] = true;
+            }
+            for (int k = 0; k < found.size; k += 1) {
+                _out[found.from[k]].add(found.to[k], found.weight[k], v);
+                _in[found.to[k]].add(found.from[k], found.weight[k], v);
+            }
+            _out[v] = _in[v] = null;
+        }
+
+        /** Pack the recorded upward and downward edges into arrays. */
+        private void finish() {
+            ContractionHierarchy ch = ContractionHierarchy.this;
+            ch._rank = _ranks;
+            ch._upStart = new int[_max + 2];
+            ch._downStart = new int[_max + 2];
+            for (int v = 1; v <= _max; v += 1) {
+                ch._upStart[v + 1] = ch._upStart[v]
+                    + (_upArcs[v] == null ? 0 : _upArcs[v].size);
+                ch._downStart[v + 1] = ch._downStart[v]
+                    + (_downArcs[v] == null ? 0 : _downArcs[v].size);
+            }
+            ch._upEnd = new int[ch._upStart[_max + 1]];
+            ch._upMiddle = new int[ch._upEnd.length];
+            ch._upWeight = new double[ch._upEnd.length];
+            ch._downEnd = new int[ch._downStart[_max + 1]];
+            ch._downMiddle = new int[ch._downEnd.length];
+            ch._downWeight = new double[ch._downEnd.length];
+            for (int v = 1; v <= _max; v += 1) {
+                pack(_upArcs[v], ch._upStart[v], ch._upEnd, ch._upMiddle,
+                     ch._upWeight);
+                pack(_downArcs[v], ch._downStart[v], ch._downEnd,
+                     ch._downMiddle, ch._downWeight);
+            }
+        }
+
+        /** Copy ARCS, if not null, into END, MIDDLE, and WEIGHT starting at
+         *  position START. */
+        private void pack(Arcs arcs, int start, int[] end, int[] middle,
+                          double[] weight) {
+            if (arcs != null) {
+                System.arraycopy(arcs.end, 0, end, start, arcs.size);
+                System.arraycopy(arcs.middle, 0, middle, start, arcs.size);
+                System.arraycopy(arcs.weight, 0, weight, start, arcs.size);
+            }
+        }
+
+        /** The largest vertex number. */
+        private final int _max;
+        /** Edges leaving each uncontracted vertex. */
+        private final Arcs[] _out;
+        /** Edges entering each uncontracted vertex. */
+        private final Arcs[] _in;
+        /** Contraction priority of each uncontracted vertex. */
+        private final int[] _priority;
+        /** Number of contracted neighbors of each vertex. */
+        private final int[] _deleted;
+        /** One more than the largest level of the contracted neighbors of
+         *  each vertex, or 0. */
+        private final int[] _level;
+        /** True for the vertices of the current and earlier rounds. */
+        private final boolean[] _skip;
+        /** The rank of each vertex, or 0 if not yet contracted. */
+        private final int[] _ranks;
+        /** The edges leaving each vertex when it was contracted. */
+        private final Arcs[] _upArcs;
+        /** The edges entering each vertex when it was contracted. */
+        private final Arcs[] _downArcs;
+        /** The uncontracted vertices. */
+        private int[] _remaining;
+    }
+
+    /** Identifies a hierarchy file. */
+    private static final int MAGIC = 0x43484945;
+    /** The file format version. */
+    private static final int VERSION = 1;
+    /** Size of the file header in bytes. */
+    private static final int HEADER_SIZE = 32;
+    /** Byte order of files. */
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** Size of the output buffer in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Largest number of elements read from one mapping. */
+    private static final int READ_CHUNK = 1 << 26;
+    /** Most vertices settled by one witness search. */
+    private static final int WITNESS_SETTLED = 500;
+    /** Most vertices settled by one witness search made to estimate a
+     *  priority.  Failing to find a witness only overestimates the
+     *  priority, so these searches are kept short. */
+    private static final int SIMULATED_SETTLED = 20;
+    /** Multiplier for the hash that breaks ties between priorities. */
+    private static final int HASH = 0x9E3779B9;
+
+    /** Two workspaces for each thread: for witness searches and forward
+     *  queries, and for backward queries. */
+    private static final ThreadLocal<SearchWorkspace[]> WORKSPACES =
+        ThreadLocal.withInitial(() -> new SearchWorkspace[] {
+                new SearchWorkspace(), new SearchWorkspace() });
+
+    /** The rank of each vertex (1 for the first contracted), or 0 for
+     *  vertex numbers not in the graph. */
+    private int[] _rank;
+    /** The edges of the upward graph from vertex V, which lead to
+     *  vertices of higher rank, are those with indices _upStart[V] to
+     *  _upStart[V + 1] - 1. */
+    private int[] _upStart;
+    /** The end points of the upward edges. */
+    private int[] _upEnd;
+    /** The vertices bypassed by the upward edges, or 0 for edges of the
+     *  original graph. */
+    private int[] _upMiddle;
+    /** The weights of the upward edges. */
+    private double[] _upWeight;
+    /** The edges of the downward graph into vertex V, which come from
+     *  vertices of higher rank, are those with indices _downStart[V] to
+     *  _downStart[V + 1] - 1. */
+    private int[] _downStart;
+    /** The start points of the downward edges. */
+    private int[] _downEnd;
+    /** The vertices bypassed by the downward edges, or 0. */
+    private int[] _downMiddle;
+    /** The weights of the downward edges. */
+    private double[] _downWeight;
+}
@@ -0,0 +1,113 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for ContractionHierarchy.
+ *  @author Florence Lau
+ */
+public class ContractionHierarchyTests {
+
+    /** Check that CH gives the shortest paths of G between many pairs of
+     *  vertices. */
+    private static void checkQueries(LabeledGraph<Void, Void> g,
+                                     ContractionHierarchy ch) {
+        int n = g.maxVertex();
+        for (int source = 1; source <= n; source += 3) {
+            if (!g.contains(source)) {
+                assertNull(ch.path(source, 1));
+                continue;
+            }
+            WeightedShortestPaths paths = new WeightedShortestPaths(g, source);
+            paths.setPaths();
+            for (int dest = 1; dest <= n; dest += 1) {
+                double expected = paths.getWeight(dest);
+                assertEquals(expected, ch.distance(source, dest), 1e-9);
+                List<Integer> path = ch.path(source, dest);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertNull(path);
+                    continue;
+                }
+                assertEquals(source, (int) path.get(0));
+                assertEquals(dest, (int) path.get(path.size() - 1));
+                double length = 0;
+                for (int i = 1; i < path.size(); i += 1) {
+                    length += g.getWeight(path.get(i - 1), path.get(i));
+                }
+                assertEquals(expected, length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testDirected() {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(true, 300, 1200, 30);
+        checkQueries(g, new ContractionHierarchy(g));
+    }
+
+    @Test
+    public void testUndirected() {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(false, 300, 500, 31);
+        checkQueries(g, new ContractionHierarchy(g));
+    }
+
+    @Test
+    public void testGrid() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        int w = 30;
+        for (int i = 0; i < w * w; i += 1) {
+            g.add();
+        }
+        for (int v = 1; v <= w * w; v += 1) {
+            if (v % w != 0) {
+                g.add(v, v + 1);
+                g.add(v + 1, v);
+                g.setWeight(v, v + 1, 1);
+            }
+            if (v + w <= w * w) {
+                g.add(v, v + w);
+                g.add(v + w, v);
+                g.setWeight(v, v + w, 2);
+            }
+        }
+        ContractionHierarchy ch = new ContractionHierarchy(g);
+        assertEquals(w * w, ch.maxVertex());
+        checkQueries(g, ch);
+        assertEquals(Arrays.asList(1, 2, 3), ch.path(1, 3));
+        assertEquals(Arrays.asList(5), ch.path(5, 5));
+        assertNull(ch.path(0, 5));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(true, 200, 700, 32);
+        g.remove(17);
+        ContractionHierarchy ch = new ContractionHierarchy(g);
+        File file = File.createTempFile("hierarchy", ".ch");
+        try {
+            ch.save(file, 42);
+            ContractionHierarchy loaded = ContractionHierarchy.load(file, 42);
+            assertEquals(ch.edgeSize(), loaded.edgeSize());
+            assertNull(loaded.path(17, 1));
+            checkQueries(g, loaded);
+            try {
+                ContractionHierarchy.load(file, 43);
+                fail("stale hierarchy loaded");
+            } catch (IOException excp) {
+                assertEquals("hierarchy file is out of date",
+                             excp.getMessage());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -2,8 +2,14 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
+import java.util.Arrays;
+import java.util.BitSet;
+
 /** Represents a general unlabeled directed graph whose vertices are denoted by
  *  positive integers. Graphs may have self edges.
+ *  Each vertex has a list of its successors and a list of its
+ *  predecessors, in the order the edges were added, each with a parallel
+ *  list of the corresponding edge ids.
  *
  *  @author Florence Lau
  */
@@ -14,27 +20,140 @@ public class DirectedGraph extends GraphObj {
         return true;
     }
 
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? outgoingEdges.size(v) : 0;
+    }
+
     @Override
     public int inDegree(int v) {
-        return getPredecessors(v).size();
+        return contains(v) ? incomingEdges.size(v) : 0;
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return element(outgoingEdges, v, k);
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        return element(outgoingIds, v, k);
     }
 
     @Override
     public int predecessor(int v, int k) {
-        int temp = 0;
-        for (int counter = 0; counter < k; k++) {
-            if (predecessors(v).hasNext()) {
-                temp = predecessors(v).next();
-            } else {
-                return 0;
-            }
-        }
-        return temp;
+        return element(incomingEdges, v, k);
+    }
+
+    @Override
+    int predecessorEdge(int v, int k) {
+        return element(incomingIds, v, k);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        return copy(outgoingEdges, v, dst);
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        return copy(incomingEdges, v, dst);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return outgoingEdges.iteration(v);
     }
 
     @Override
     public Iteration<Integer> predecessors(int v) {
-        return Iteration.iteration(getPredecessors(v));
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return incomingEdges.iteration(v);
     }
 
+    @Override
+    void link(int u, int v, int e) {
+        outgoingEdges.add(u, v);
+        outgoingIds.add(u, e);
+        incomingEdges.add(v, u);
+        incomingIds.add(v, e);
+    }
+
+    @Override
+    void unlink(int u, int v, int e) {
+        int k = outgoingEdges.indexOf(u, v);
+        outgoingEdges.removeAt(u, k);
+        outgoingIds.removeAt(u, k);
+        k = incomingEdges.indexOf(v, u);
+        incomingEdges.removeAt(v, k);
+        incomingIds.removeAt(v, k);
+    }
+
+    @Override
+    void unlinkAll(int v, BitSet dead) {
+        removeIds(outgoingIds, outgoingEdges, v, dead);
+        removeIds(incomingIds, incomingEdges, v, dead);
+    }
+
+    @Override
+    int[] incidentEdges(int v) {
+        int[] out = outgoingIds.toArray(v), in = incomingIds.toArray(v);
+        int[] result = Arrays.copyOf(out, out.length + in.length);
+        System.arraycopy(in, 0, result, out.length, in.length);
+        return result;
+    }
+
+    @Override
+    void clearVertex(int v) {
+        outgoingEdges.clear(v);
+        outgoingIds.clear(v);
+        incomingEdges.clear(v);
+        incomingIds.clear(v);
+    }
+
+    @Override
+    void loadAdjacency(int n, int[] edgeU, int[] edgeV) {
+        int m = edgeU.length;
+        int[] outSize = new int[n + 1], inSize = new int[n + 1];
+        for (int i = 0; i < m; i += 1) {
+            outSize[edgeU[i]] += 1;
+            inSize[edgeV[i]] += 1;
+        }
+        int[][] outRows = rows(outSize), outIdRows = rows(outSize),
+            inRows = rows(inSize), inIdRows = rows(inSize);
+        Arrays.fill(outSize, 0);
+        Arrays.fill(inSize, 0);
+        for (int i = 0; i < m; i += 1) {
+            int u = edgeU[i], v = edgeV[i];
+            outRows[u][outSize[u]] = v;
+            outIdRows[u][outSize[u]] = i + 1;
+            outSize[u] += 1;
+            inRows[v][inSize[v]] = u;
+            inIdRows[v][inSize[v]] = i + 1;
+            inSize[v] += 1;
+        }
+        for (int v = 1; v <= n; v += 1) {
+            outgoingEdges.set(v, outRows[v], outSize[v]);
+            outgoingIds.set(v, outIdRows[v], outSize[v]);
+            incomingEdges.set(v, inRows[v], inSize[v]);
+            incomingIds.set(v, inIdRows[v], inSize[v]);
+        }
+    }
+
+    /** Successors of each vertex, in the order the edges were added. */
+    private final IntLists outgoingEdges = new IntLists();
+
+    /** Edge ids corresponding to the entries of outgoingEdges. */
+    private final IntLists outgoingIds = new IntLists();
+
+    /** Predecessors of each vertex, in the order the edges were added. */
+    private final IntLists incomingEdges = new IntLists();
+
+    /** Edge ids corresponding to the entries of incomingEdges. */
+    private final IntLists incomingIds = new IntLists();
+
 }
@@ -0,0 +1,150 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A hash table of edge ids, for finding the id of the edge with given
+ *  end points.  The end points themselves are not stored here: those of
+ *  edge E are ENDS[2E] and ENDS[2E + 1] in an array kept by the owner and
+ *  passed to each operation.  Uses open addressing with linear probing on
+ *  a single int[], so that lookups, insertions and deletions take expected
+ *  constant time independent of the degrees of the end points, an entry
+ *  costs four bytes, and no objects are created per edge.  Deletion
+ *  shifts later entries of a probe run back, so the table never
+ *  accumulates tombstones.
+ *  @author Florence Lau
+ */
+final class EdgeIndex {
+
+    /** An empty index. */
+    EdgeIndex() {
+        this(0);
+    }
+
+    /** An empty index with room for EXPECTED edges before it must grow. */
+    EdgeIndex(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * expected) {
+            capacity *= 2;
+        }
+        _ids = new int[capacity];
+    }
+
+    /** Returns the number of edges in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns the id of the edge in me whose end points in ENDS are U
+     *  and V, in that order, or 0 if there is none. */
+    int get(int u, int v, int[] ends) {
+        int mask = _ids.length - 1;
+        for (int i = slot(key(u, v), mask); _ids[i] != EMPTY;
+             i = (i + 1) & mask) {
+            int e = _ids[i];
+            if (ends[2 * e] == u && ends[2 * e + 1] == v) {
+                return e;
+            }
+        }
+        return 0;
+    }
+
+    /** Add edge E, whose end points are recorded in ENDS, and which must
+     *  not already be present. */
+    void put(int e, int[] ends) {
+        if (2 * (_size + 1) > _ids.length) {
+            resize(2 * _ids.length, ends);
+        }
+        int mask = _ids.length - 1;
+        int i;
+        for (i = slot(key(e, ends), mask); _ids[i] != EMPTY;
+             i = (i + 1) & mask) {
+            continue;
+        }
+        _ids[i] = e;
+        _size += 1;
+    }
+
+    /** Remove edge E, whose end points are recorded in ENDS, if it is
+     *  present. */
+    void remove(int e, int[] ends) {
+        int mask = _ids.length - 1;
+        int i;
+        for (i = slot(key(e, ends), mask); _ids[i] != e; i = (i + 1) & mask) {
+            if (_ids[i] == EMPTY) {
+                return;
+            }
+        }
+        int hole = i;
+        for (int j = (i + 1) & mask; _ids[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(key(_ids[j], ends), mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                _ids[hole] = _ids[j];
+                hole = j;
+            }
+        }
+        _ids[hole] = EMPTY;
+        _size -= 1;
+    }
+
+    /** Make room for EXPECTED edges in all, whose end points are recorded
+     *  in ENDS, so that adding up to that many need not grow me. */
+    void reserve(int expected, int[] ends) {
+        int capacity = _ids.length;
+        while (capacity < 2 * expected) {
+            capacity *= 2;
+        }
+        if (capacity > _ids.length) {
+            resize(capacity, ends);
+        }
+    }
+
+    /** Remove all entries. */
+    void clear() {
+        _ids = new int[MIN_CAPACITY];
+        _size = 0;
+    }
+
+    /** Returns the packed key for (U, V). */
+    static long key(int u, int v) {
+        return ((long) u << 32) | (v & 0xffffffffL);
+    }
+
+    /** Returns the packed key for the end points of edge E in ENDS. */
+    private static long key(int e, int[] ends) {
+        return key(ends[2 * e], ends[2 * e + 1]);
+    }
+
+    /** Returns the home slot of KEY in a table with mask MASK. */
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Rehash my contents, whose end points are in ENDS, into a table of
+     *  size CAPACITY, a power of 2. */
+    private void resize(int capacity, int[] ends) {
+        int[] old = _ids;
+        _ids = new int[capacity];
+        int mask = capacity - 1;
+        for (int e : old) {
+            if (e != EMPTY) {
+                int i;
+                for (i = slot(key(e, ends), mask); _ids[i] != EMPTY;
+                     i = (i + 1) & mask) {
+                    continue;
+                }
+                _ids[i] = e;
+            }
+        }
+    }
+
+    /** Marks an unused slot.  Edge ids are positive. */
+    private static final int EMPTY = 0;
+    /** Smallest table size.  Must be a power of 2. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Edge ids, or EMPTY. */
+    private int[] _ids;
+    /** Number of entries in use. */
+    private int _size;
+}
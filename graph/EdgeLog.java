@@ -0,0 +1,102 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A log of edge ids in the order their edges were added, held in an int
+ *  array.  Each edge occupies a numbered position.  Removing an edge
+ *  simply marks its position as dead, so removal takes constant time; the
+ *  dead positions are squeezed out by compact(), which the owner calls
+ *  once they outnumber the live ones, keeping both space and iteration
+ *  time proportional to the number of live edges.  The end points of the
+ *  edges are kept by the owner, indexed by id.
+ *  @author Florence Lau
+ */
+final class EdgeLog {
+
+    /** An empty log. */
+    EdgeLog() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /** An empty log with room for CAPACITY edges before it must grow. */
+    EdgeLog(int capacity) {
+        _id = new int[Math.max(capacity, INITIAL_CAPACITY)];
+    }
+
+    /** Returns the number of live edges in me. */
+    int size() {
+        return _end - _dead;
+    }
+
+    /** Returns the number of positions in use, live or dead. */
+    int end() {
+        return _end;
+    }
+
+    /** Returns true iff position POS holds a live edge. */
+    boolean live(int pos) {
+        return _id[pos] != DEAD;
+    }
+
+    /** Returns the id of the edge at position POS, or 0 if it is dead. */
+    int id(int pos) {
+        return _id[pos];
+    }
+
+    /** Add the edge with id ID at the end of the log, and return its
+     *  position. */
+    int append(int id) {
+        if (_end == _id.length) {
+            _id = Arrays.copyOf(_id, _end + (_end >> 1) + 1);
+        }
+        _id[_end] = id;
+        _end += 1;
+        return _end - 1;
+    }
+
+    /** Mark the edge at position POS as removed. */
+    void kill(int pos) {
+        _id[pos] = DEAD;
+        _dead += 1;
+    }
+
+    /** Returns true iff enough positions are dead that compact() should
+     *  be called. */
+    boolean shouldCompact() {
+        return _dead > MIN_COMPACTION && _dead > size();
+    }
+
+    /** Remove all dead positions, renumbering the live ones in order. */
+    void compact() {
+        int k;
+        k = 0;
+        for (int i = 0; i < _end; i += 1) {
+            if (_id[i] != DEAD) {
+                _id[k] = _id[i];
+                k += 1;
+            }
+        }
+        _end = k;
+        _dead = 0;
+        int n = Math.max(INITIAL_CAPACITY, k + (k >> 1));
+        if (n < _id.length) {
+            _id = Arrays.copyOf(_id, n);
+        }
+    }
+
+    /** Marks a dead position.  Edge ids are positive. */
+    private static final int DEAD = 0;
+    /** Initial size of the array. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Number of dead positions tolerated regardless of size. */
+    private static final int MIN_COMPACTION = 64;
+
+    /** Edge ids, indexed by position. */
+    private int[] _id;
+    /** Number of positions in use. */
+    private int _end;
+    /** Number of dead positions. */
+    private int _dead;
+}
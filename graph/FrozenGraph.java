@@ -0,0 +1,465 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static graph.GraphFormat.*;
+
+/** An immutable copy of a Graph in compressed sparse row (CSR) form.
+ *  The successors of all vertices are laid end to end in one int[], in
+ *  the order returned by the original graph, with a second int[] of
+ *  offsets marking where each vertex's successors begin; predecessors of
+ *  a directed graph are held the same way.  Edge ids are those of the
+ *  original graph, so a FrozenGraph may stand in for its original under a
+ *  labeling keyed by edge id.
+ *
+ *  All methods that would modify a FrozenGraph throw
+ *  UnsupportedOperationException.  Since its contents never change after
+ *  construction, a FrozenGraph may be shared freely among threads.
+ *  @author Florence Lau
+ */
+public class FrozenGraph extends Graph {
+
+    /** An immutable copy of the current contents of G.  Any later changes
+     *  to G do not affect the copy (see refresh()). */
+    public FrozenGraph(Graph G) {
+        _source = G;
+        _sourceModCount = G.modCount();
+        _directed = G.isDirected();
+        _vertices = new BitSet();
+        for (IntIteration vs = G.intVertices(); vs.hasNext(); ) {
+            _vertices.set(vs.nextInt());
+        }
+        _vertexSize = G.vertexSize();
+        _maxVertex = G.maxVertex();
+        _edgeSize = G.edgeSize();
+
+        _outStart = new int[_maxVertex + 2];
+        _outTargets = fill(G, _outStart, true);
+        _outIds = edgeIds(G);
+        if (_directed) {
+            _inStart = new int[_maxVertex + 2];
+            _inSources = fill(G, _inStart, false);
+        } else {
+            _inStart = _outStart;
+            _inSources = _outTargets;
+        }
+        _sortedTargets = new int[_outTargets.length];
+        _sortedIds = new int[_outTargets.length];
+        sortRows();
+
+        _edgeU = new int[_edgeSize];
+        _edgeV = new int[_edgeSize];
+        int k;
+        k = 0;
+        for (int[] e : G.edges()) {
+            _edgeU[k] = e[0];
+            _edgeV[k] = e[1];
+            k += 1;
+        }
+    }
+
+    /** Returns the graph in FILE, which must have been written by
+     *  MappedGraph.write or LabeledGraph.write (whose labels are ignored).
+     *  Each part of the file is copied with a single bulk read into the
+     *  array that holds it, without parsing or creating objects per vertex
+     *  or edge.  The result never becomes stale. */
+    public static FrozenGraph read(File file) throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), READ)) {
+            return new FrozenGraph(in, GraphFormat.read(in));
+        }
+    }
+
+    /** The graph in the file open on IN, whose layout is FORMAT. */
+    private FrozenGraph(FileChannel in, GraphFormat format)
+        throws IOException {
+        _source = null;
+        _sourceModCount = 0;
+        _directed = format.directed();
+        _vertices = BitSet.valueOf(
+            in.map(FileChannel.MapMode.READ_ONLY, format.offset(BITS),
+                   4 * format.length(BITS)));
+        _vertexSize = format.vertexSize();
+        _maxVertex = format.maxVertex();
+        _edgeSize = format.edgeSize();
+        _outStart = format.readSection(in, OUT_START);
+        _outTargets = format.readSection(in, OUT_TARGETS);
+        _outIds = format.readSection(in, OUT_IDS);
+        _sortedTargets = format.readSection(in, SORTED_TARGETS);
+        _sortedIds = format.readSection(in, SORTED_IDS);
+        if (_directed) {
+            _inStart = format.readSection(in, IN_START);
+            _inSources = format.readSection(in, IN_SOURCES);
+        } else {
+            _inStart = _outStart;
+            _inSources = _outTargets;
+        }
+        _edgeU = format.readSection(in, EDGE_U);
+        _edgeV = format.readSection(in, EDGE_V);
+    }
+
+    /** A graph, directed iff DIRECTED, with the vertices 1 .. N and the
+     *  edges (EDGEU[i], EDGEV[i]), added in that order, so that they have
+     *  ids i + 1.  The edges must be distinct, their end points must be
+     *  among the vertices, and if the graph is undirected,
+     *  EDGEU[i] <= EDGEV[i].  I take ownership of EDGEU and EDGEV. */
+    FrozenGraph(boolean directed, int n, int[] edgeU, int[] edgeV) {
+        _source = null;
+        _sourceModCount = 0;
+        _directed = directed;
+        _vertices = new BitSet(n + 1);
+        _vertices.set(1, n + 1);
+        _vertexSize = _maxVertex = n;
+        _edgeSize = edgeU.length;
+        _edgeU = edgeU;
+        _edgeV = edgeV;
+
+        _outStart = new int[n + 2];
+        _inStart = directed ? new int[n + 2] : _outStart;
+        for (int i = 0; i < _edgeSize; i += 1) {
+            _outStart[edgeU[i] + 1] += 1;
+            if (directed || edgeU[i] != edgeV[i]) {
+                _inStart[edgeV[i] + 1] += 1;
+            }
+        }
+        for (int v = 1; v <= n; v += 1) {
+            _outStart[v + 1] += _outStart[v];
+            if (directed) {
+                _inStart[v + 1] += _inStart[v];
+            }
+        }
+        _outTargets = new int[_outStart[n + 1]];
+        _outIds = new int[_outTargets.length];
+        _inSources = directed ? new int[_inStart[n + 1]] : _outTargets;
+        int[] outNext = Arrays.copyOf(_outStart, n + 1),
+            inNext = directed ? Arrays.copyOf(_inStart, n + 1) : outNext;
+        for (int i = 0; i < _edgeSize; i += 1) {
+            int u = edgeU[i], v = edgeV[i];
+            _outTargets[outNext[u]] = v;
+            _outIds[outNext[u]] = i + 1;
+            outNext[u] += 1;
+            if (directed) {
+                _inSources[inNext[v]] = u;
+                inNext[v] += 1;
+            } else if (u != v) {
+                _outTargets[outNext[v]] = u;
+                _outIds[outNext[v]] = i + 1;
+                outNext[v] += 1;
+            }
+        }
+        _sortedTargets = new int[_outTargets.length];
+        _sortedIds = new int[_outTargets.length];
+        sortRows();
+    }
+
+    /** Returns a FrozenGraph with the current contents of the graph from
+     *  which I was made.  This is simply me if that graph can tell that it
+     *  has not changed since I was made, and otherwise a new copy. */
+    public FrozenGraph refresh() {
+        if (!isStale()) {
+            return this;
+        }
+        return new FrozenGraph(_source);
+    }
+
+    /** Returns true iff the graph from which I was made may have changed
+     *  since I was made.  Always false if I was not made from another
+     *  graph. */
+    public boolean isStale() {
+        if (_source == null) {
+            return false;
+        }
+        return _sourceModCount < 0 || _source.modCount() != _sourceModCount;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _outStart[v + 1] - _outStart[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _inStart[v + 1] - _inStart[v] : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && _vertices.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw frozen();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return IntIteration.bits(_vertices, 1);
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        if (k < 0 || k >= outDegree(v)) {
+            return 0;
+        }
+        return _outTargets[_outStart[v] + k];
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        if (k < 0 || k >= outDegree(v)) {
+            return 0;
+        }
+        return _outIds[_outStart[v] + k];
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        if (k < 0 || k >= inDegree(v)) {
+            return 0;
+        }
+        return _inSources[_inStart[v] + k];
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        if (!contains(v)) {
+            return IntIteration.range(_outTargets, 0, 0);
+        }
+        return IntIteration.range(_outTargets, _outStart[v], _outStart[v + 1]);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        if (!contains(v)) {
+            return IntIteration.range(_inSources, 0, 0);
+        }
+        return IntIteration.range(_inSources, _inStart[v], _inStart[v + 1]);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        int n = outDegree(v);
+        System.arraycopy(_outTargets, n == 0 ? 0 : _outStart[v],
+                         dst, 0, Math.min(n, dst.length));
+        return n;
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        int n = inDegree(v);
+        System.arraycopy(_inSources, n == 0 ? 0 : _inStart[v],
+                         dst, 0, Math.min(n, dst.length));
+        return n;
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _k < _edgeU.length;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _edgeU[_k];
+                _edge[1] = _edgeV[_k];
+                _k += 1;
+                return _edge;
+            }
+
+            /** Index of the next edge to deliver. */
+            private int _k;
+            /** The array used to return each edge. */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        int k = Arrays.binarySearch(_sortedTargets, _outStart[u],
+                                    _outStart[u + 1], v);
+        return k < 0 ? 0 : _sortedIds[k];
+    }
+
+    @Override
+    long modCount() {
+        return 0;
+    }
+
+    /** Fill in START with the offsets of the successor lists (if
+     *  SUCCESSORS) or predecessor lists (otherwise) of the vertices of G,
+     *  and return the concatenation of these lists. */
+    private int[] fill(Graph G, int[] start, boolean successors) {
+        int total;
+        total = 0;
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            start[v] = total;
+            if (_vertices.get(v)) {
+                total += successors ? G.outDegree(v) : G.inDegree(v);
+            }
+        }
+        start[_maxVertex + 1] = total;
+        int[] result = new int[total];
+        int[] buffer = new int[0];
+        for (int v = _vertices.nextSetBit(1); v >= 0;
+             v = _vertices.nextSetBit(v + 1)) {
+            int n = start[v + 1] - start[v];
+            if (n > buffer.length) {
+                buffer = new int[Math.max(n, 2 * buffer.length)];
+            }
+            if (successors) {
+                G.copySuccessors(v, buffer);
+            } else {
+                G.copyPredecessors(v, buffer);
+            }
+            System.arraycopy(buffer, 0, result, start[v], n);
+        }
+        return result;
+    }
+
+    /** Returns the ids in G of the edges leading to the successors in
+     *  _outTargets. */
+    private int[] edgeIds(Graph G) {
+        int[] ids = new int[_outTargets.length];
+        for (int v = _vertices.nextSetBit(1); v >= 0;
+             v = _vertices.nextSetBit(v + 1)) {
+            for (int k = _outStart[v]; k < _outStart[v + 1]; k += 1) {
+                ids[k] = G.edgeId(v, _outTargets[k]);
+            }
+        }
+        return ids;
+    }
+
+    /** Fill in _sortedTargets and _sortedIds with the contents of
+     *  _outTargets and _outIds, with each vertex's segment sorted by
+     *  target, so that edgeId can use binary search. */
+    private void sortRows() {
+        long[] pairs = new long[0];
+        for (int v = _vertices.nextSetBit(1); v >= 0;
+             v = _vertices.nextSetBit(v + 1)) {
+            int from = _outStart[v], n = _outStart[v + 1] - from;
+            if (n > pairs.length) {
+                pairs = new long[Math.max(n, 2 * pairs.length)];
+            }
+            for (int k = 0; k < n; k += 1) {
+                pairs[k] = ((long) _outTargets[from + k] << 32)
+                    | (_outIds[from + k] & 0xffffffffL);
+            }
+            Arrays.sort(pairs, 0, n);
+            for (int k = 0; k < n; k += 1) {
+                _sortedTargets[from + k] = (int) (pairs[k] >>> 32);
+                _sortedIds[from + k] = (int) pairs[k];
+            }
+        }
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("graph is frozen");
+    }
+
+    /** The graph from which I was made, or null if none. */
+    private final Graph _source;
+    /** The modification count of _source when I was made. */
+    private final long _sourceModCount;
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertices: bit V is set iff V is one of my vertices. */
+    private final BitSet _vertices;
+    /** Number of my vertices. */
+    private final int _vertexSize;
+    /** My largest vertex number. */
+    private final int _maxVertex;
+    /** Number of my edges. */
+    private final int _edgeSize;
+    /** The successors of V are _outTargets[_outStart[V] ..
+     *  _outStart[V + 1] - 1]. */
+    private final int[] _outStart;
+    /** Successor lists of all vertices, laid end to end. */
+    private final int[] _outTargets;
+    /** Edge ids corresponding to _outTargets. */
+    private final int[] _outIds;
+    /** The predecessors of V are _inSources[_inStart[V] ..
+     *  _inStart[V + 1] - 1]. */
+    private final int[] _inStart;
+    /** Predecessor lists of all vertices, laid end to end. */
+    private final int[] _inSources;
+    /** _outTargets with each vertex's segment sorted. */
+    private final int[] _sortedTargets;
+    /** Edge ids corresponding to _sortedTargets. */
+    private final int[] _sortedIds;
+    /** First end points of all edges, in the order they were added. */
+    private final int[] _edgeU;
+    /** Second end points corresponding to _edgeU. */
+    private final int[] _edgeV;
+}
@@ -0,0 +1,114 @@
+package graph;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for the FrozenGraph class.
+ *  @author Florence Lau
+ */
+public class FrozenGraphTests {
+
+    /** Returns a random graph (directed iff DIRECTED) with N vertices,
+     *  about M edge insertions, and a few removed vertices and edges. */
+    static Graph randomGraph(boolean directed, int n, int m, long seed) {
+        Graph g = directed ? new DirectedGraph() : new UndirectedGraph();
+        Random r = new Random(seed);
+        for (int i = 0; i < n; i += 1) {
+            g.add();
+        }
+        for (int i = 0; i < m; i += 1) {
+            g.add(r.nextInt(n) + 1, r.nextInt(n) + 1);
+        }
+        for (int i = 0; i < n / 10; i += 1) {
+            g.remove(r.nextInt(n) + 1);
+        }
+        for (int i = 0; i < m / 10; i += 1) {
+            g.remove(r.nextInt(n) + 1, r.nextInt(n) + 1);
+        }
+        return g;
+    }
+
+    /** Returns the contents of IT as a list. */
+    static ArrayList<Integer> list(Iteration<Integer> it) {
+        ArrayList<Integer> result = new ArrayList<>();
+        for (int x : it) {
+            result.add(x);
+        }
+        return result;
+    }
+
+    /** Assert that G and H have the same vertices, edges, edge ids and
+     *  neighbor orders. */
+    static void assertSameGraph(Graph g, Graph h) {
+        assertSameGraph(g, h, true);
+    }
+
+    /** Assert that G and H have the same vertices, edges, and neighbor
+     *  orders, and, if IDS, the same edge ids. */
+    static void assertSameGraph(Graph g, Graph h, boolean ids) {
+        assertEquals(g.isDirected(), h.isDirected());
+        assertEquals(g.vertexSize(), h.vertexSize());
+        assertEquals(g.maxVertex(), h.maxVertex());
+        assertEquals(g.edgeSize(), h.edgeSize());
+        assertEquals(list(g.vertices()), list(h.vertices()));
+        for (int v = 0; v <= g.maxVertex() + 1; v += 1) {
+            assertEquals(g.contains(v), h.contains(v));
+            assertEquals(list(g.successors(v)), list(h.successors(v)));
+            assertEquals(list(g.predecessors(v)), list(h.predecessors(v)));
+            assertEquals(g.outDegree(v), h.outDegree(v));
+            assertEquals(g.inDegree(v), h.inDegree(v));
+            if (g.contains(v)) {
+                assertEquals(g.successor(v, 1), h.successor(v, 1));
+                assertEquals(g.predecessor(v, 0), h.predecessor(v, 0));
+            }
+            for (int w = 1; w <= g.maxVertex(); w += 1) {
+                if (ids) {
+                    assertEquals(g.edgeId(v, w), h.edgeId(v, w));
+                }
+                assertEquals(g.contains(v, w), h.contains(v, w));
+            }
+        }
+        Iteration<int[]> ge = g.edges(), he = h.edges();
+        while (ge.hasNext()) {
+            assertTrue(he.hasNext());
+            assertArrayEquals(ge.next(), he.next());
+        }
+        assertFalse(he.hasNext());
+    }
+
+    @Test
+    public void testDirected() {
+        Graph g = randomGraph(true, 60, 400, 1);
+        assertSameGraph(g, new FrozenGraph(g));
+    }
+
+    @Test
+    public void testUndirected() {
+        Graph g = randomGraph(false, 60, 400, 2);
+        assertSameGraph(g, new FrozenGraph(g));
+    }
+
+    @Test
+    public void testRefresh() {
+        Graph g = randomGraph(true, 20, 50, 3);
+        FrozenGraph f = new FrozenGraph(g);
+        assertFalse(f.isStale());
+        assertSame(f, f.refresh());
+        g.add(1, 2);
+        g.remove(3);
+        assertTrue(f.isStale());
+        FrozenGraph f2 = f.refresh();
+        assertNotSame(f, f2);
+        assertSameGraph(g, f2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        Graph g = randomGraph(false, 5, 5, 4);
+        new FrozenGraph(g).add();
+    }
+}
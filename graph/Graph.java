@@ -94,6 +94,38 @@ public abstract class Graph {
         return successor(v, k);
     }
 
+    /** Copy the successors of V into DST[0 .. ], in the order the edges to
+     *  them were added, stopping early if DST fills up.  Returns
+     *  outDegree(V), which may exceed the number of values copied.  This
+     *  provides the same values as successors(V) without creating any
+     *  objects per successor. */
+    public int copySuccessors(int v, int[] dst) {
+        int n;
+        n = 0;
+        for (int w : successors(v)) {
+            if (n < dst.length) {
+                dst[n] = w;
+            }
+            n += 1;
+        }
+        return n;
+    }
+
+    /** Copy the predecessors of V into DST[0 .. ], in the order the edges
+     *  from them were added, stopping early if DST fills up.  Returns
+     *  inDegree(V), which may exceed the number of values copied. */
+    public int copyPredecessors(int v, int[] dst) {
+        int n;
+        n = 0;
+        for (int w : predecessors(v)) {
+            if (n < dst.length) {
+                dst[n] = w;
+            }
+            n += 1;
+        }
+        return n;
+    }
+
     /** Returns an iteration over all successors of V in the order the edges
      *  to them were added.  Empty if V is not my vertex. */
     public abstract Iteration<Integer> successors(int v);
@@ -108,6 +140,24 @@ public abstract class Graph {
         return successors(v);
     }
 
+    /** Returns an IntIteration over vertices(), so that they may be
+     *  retrieved without boxing. */
+    public IntIteration intVertices() {
+        return IntIteration.intIteration(vertices());
+    }
+
+    /** Returns an IntIteration over successors(V), so that they may be
+     *  retrieved without boxing. */
+    public IntIteration intSuccessors(int v) {
+        return IntIteration.intIteration(successors(v));
+    }
+
+    /** Returns an IntIteration over predecessors(V), so that they may be
+     *  retrieved without boxing. */
+    public IntIteration intPredecessors(int v) {
+        return IntIteration.intIteration(predecessors(v));
+    }
+
     /** Returns an iteration over all edges in me.  Edges are returned
      *  as two-element arrays (u, v), which are directed if the graph
      *  is.  The values in the array returned by .next() may have changed
@@ -124,6 +174,54 @@ public abstract class Graph {
         }
     }
 
+    /** Returns a count that changes whenever vertices or edges are added
+     *  to or removed from me, or -1 if I do not keep such a count. */
+    long modCount() {
+        return -1;
+    }
+
+    /** Returns a view of me that does not change until released by
+     *  unpin, for use by a search that must see a consistent graph
+     *  throughout.  By default, returns me, so that changing me during
+     *  the search has whatever effect it has on my iterations. */
+    Graph pin() {
+        return this;
+    }
+
+    /** Release VIEW, which was returned by pin(). */
+    void unpin(Graph view) {
+    }
+
+    /** Remove the edges (US[i], VS[i]), for 0 <= i < N, as if by
+     *  remove(US[i], VS[i]) for each in turn.  Graphs that can remove many
+     *  edges at once more cheaply than one at a time override this. */
+    void removeEdges(int[] us, int[] vs, int n) {
+        for (int i = 0; i < n; i += 1) {
+            remove(us[i], vs[i]);
+        }
+    }
+
+    /** Prepare to add N more edges, so that adding them need not grow my
+     *  tables repeatedly.  Does nothing by default. */
+    void reserveEdges(int n) {
+    }
+
+    /** Returns edgeId(V, successor(V, K)), or 0 if there is no such
+     *  successor.  Graphs that keep edge ids in their adjacency lists
+     *  override this to avoid looking the edge up. */
+    int successorEdge(int v, int k) {
+        int w = successor(v, k);
+        return w == 0 ? 0 : edgeId(v, w);
+    }
+
+    /** Returns edgeId(predecessor(V, K), V), or 0 if there is no such
+     *  predecessor.  Graphs that keep edge ids in their adjacency lists
+     *  override this to avoid looking the edge up. */
+    int predecessorEdge(int v, int k) {
+        int u = predecessor(v, k);
+        return u == 0 ? 0 : edgeId(u, v);
+    }
+
     /** Returns a unique positive identifier for the edge (U, V), if it
      *  is present, or 0 otherwise.  This value should always be bounded by
      *  a small multiple of the meximum number of the edges in the graph.
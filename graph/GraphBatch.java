@@ -0,0 +1,249 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A batch of edge additions and removals to be made to a graph all at
+ *  once, obtained from GraphObj.batch or LabeledGraph.batch.  Operations
+ *  are recorded, in order, by add and remove, and take effect only when
+ *  commit is called.  The result of commit is as if the operations had
+ *  been applied one at a time in the order recorded, except that any
+ *  edge ids released by the batch's removals are available to its
+ *  additions from the start.  Edges added by the batch follow all
+ *  existing edges in the graph's edge order and in the successor lists,
+ *  in the order they were recorded.
+ *
+ *  Committing costs far less than applying the operations one at a
+ *  time: the operations are grouped by edge so that each edge's fate is
+ *  settled once, the removals are done in one pass that filters each
+ *  affected adjacency list once however many of its edges go, and the
+ *  graph's tables are grown once for all the additions.
+ *
+ *  EL is the type of the graph's edge labels (Void if it has none).
+ *  @author Florence Lau
+ */
+public final class GraphBatch<EL> {
+
+    /** An empty batch for GRAPH, which is LABELED if GRAPH is labeled,
+     *  and otherwise LABELED is null. */
+    GraphBatch(Graph graph, LabeledGraph<?, EL> labeled) {
+        _graph = graph;
+        _labeled = labeled;
+    }
+
+    /** Record the addition of edge (U, V), and return me.  Has no effect
+     *  if U or V is not a vertex of the graph when committed. */
+    public GraphBatch<EL> add(int u, int v) {
+        record(ADD, u, v);
+        return this;
+    }
+
+    /** Record the addition of edge (U, V) with label LAB, as for
+     *  LabeledGraph.add(U, V, LAB), and return me. */
+    public GraphBatch<EL> add(int u, int v, EL lab) {
+        checkLabeled();
+        record(ADD | LABEL, u, v);
+        _labels[_size - 1] = lab;
+        return this;
+    }
+
+    /** Record the addition of edge (U, V) with label LAB and weight W (see
+     *  LabeledGraph.setWeight), and return me. */
+    public GraphBatch<EL> add(int u, int v, EL lab, double w) {
+        add(u, v, lab);
+        _kinds[_size - 1] |= WEIGHT;
+        _weights[_size - 1] = w;
+        return this;
+    }
+
+    /** Record the removal of edge (U, V), and return me. */
+    public GraphBatch<EL> remove(int u, int v) {
+        record(REMOVE, u, v);
+        return this;
+    }
+
+    /** Returns the number of operations recorded since the last
+     *  commit. */
+    public int size() {
+        return _size;
+    }
+
+    /** Apply all the operations recorded since the last commit to the
+     *  graph, and empty me. */
+    public void commit() {
+        int n = _size;
+        boolean directed = _graph.isDirected();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i += 1) {
+            int u = _us[i], v = _vs[i];
+            keys[i] = directed || u <= v ? EdgeIndex.key(u, v)
+                : EdgeIndex.key(v, u);
+        }
+        int capacity = 16;
+        while (capacity < 2 * n) {
+            capacity *= 2;
+        }
+        int mask = capacity - 1;
+        int[] heads = new int[capacity], tails = new int[capacity];
+        int[] next = new int[n], firsts = new int[n];
+        int numGroups;
+        numGroups = 0;
+        for (int i = 0; i < n; i += 1) {
+            int s;
+            for (s = EdgeIndex.slot(keys[i], mask);
+                 heads[s] != 0 && keys[heads[s] - 1] != keys[i];
+                 s = (s + 1) & mask) {
+                continue;
+            }
+            if (heads[s] == 0) {
+                heads[s] = i + 1;
+                firsts[numGroups] = i;
+                numGroups += 1;
+            } else {
+                next[tails[s]] = i;
+            }
+            tails[s] = i;
+            next[i] = -1;
+        }
+
+        int[] removeU = new int[n], removeV = new int[n];
+        int[] adds = new int[n], updates = new int[n];
+        int[] labelOf = new int[n], weightOf = new int[n];
+        int numRemoves, numAdds, numUpdates;
+        numRemoves = numAdds = numUpdates = 0;
+        for (int g = 0; g < numGroups; g += 1) {
+            int first = firsts[g];
+            int u = _us[first], v = _vs[first];
+            if (!_graph.contains(u) || !_graph.contains(v)) {
+                continue;
+            }
+            boolean present = _graph.contains(u, v), removed = false;
+            int addedAt, labelAt, weightAt;
+            addedAt = labelAt = weightAt = -1;
+            for (int op = first; op >= 0; op = next[op]) {
+                if (_kinds[op] == REMOVE) {
+                    if (present) {
+                        removed |= addedAt < 0;
+                        present = false;
+                        addedAt = labelAt = weightAt = -1;
+                    }
+                    continue;
+                }
+                if (!present) {
+                    present = true;
+                    addedAt = op;
+                }
+                if ((_kinds[op] & LABEL) != 0) {
+                    labelAt = op;
+                }
+                if ((_kinds[op] & WEIGHT) != 0) {
+                    weightAt = op;
+                }
+            }
+            if (removed) {
+                removeU[numRemoves] = u;
+                removeV[numRemoves] = v;
+                numRemoves += 1;
+            }
+            int at = present && addedAt >= 0 ? addedAt : first;
+            labelOf[at] = labelAt;
+            weightOf[at] = weightAt;
+            if (present && addedAt >= 0) {
+                adds[numAdds] = addedAt;
+                numAdds += 1;
+            } else if (present && (labelAt >= 0 || weightAt >= 0)) {
+                updates[numUpdates] = first;
+                numUpdates += 1;
+            }
+        }
+
+        if (numRemoves > 0) {
+            _graph.removeEdges(removeU, removeV, numRemoves);
+        }
+        Arrays.sort(adds, 0, numAdds);
+        _graph.reserveEdges(numAdds);
+        for (int i = 0; i < numAdds; i += 1) {
+            _graph.add(_us[adds[i]], _vs[adds[i]]);
+            setAttributes(adds[i], labelOf[adds[i]], weightOf[adds[i]]);
+        }
+        for (int i = 0; i < numUpdates; i += 1) {
+            int op = updates[i];
+            setAttributes(op, labelOf[op], weightOf[op]);
+        }
+        clear();
+    }
+
+    /** Discard all operations recorded since the last commit. */
+    public void clear() {
+        if (_labels != null) {
+            Arrays.fill(_labels, 0, _size, null);
+        }
+        _size = 0;
+    }
+
+    /** Set the label of the edge of operation OP from operation LABELAT
+     *  and its weight from operation WEIGHTAT, where -1 means to leave
+     *  it unchanged. */
+    private void setAttributes(int op, int labelAt, int weightAt) {
+        if (labelAt >= 0) {
+            _labeled.setLabel(_us[op], _vs[op], _labels[labelAt]);
+        }
+        if (weightAt >= 0) {
+            _labeled.setWeight(_us[op], _vs[op], _weights[weightAt]);
+        }
+    }
+
+    /** Record an operation of kind KIND on edge (U, V). */
+    private void record(int kind, int u, int v) {
+        if (_size == _us.length) {
+            int n = _size + (_size >> 1) + INITIAL_CAPACITY;
+            _us = Arrays.copyOf(_us, n);
+            _vs = Arrays.copyOf(_vs, n);
+            _kinds = Arrays.copyOf(_kinds, n);
+            if (_labels != null) {
+                _labels = Arrays.copyOf(_labels, n);
+                _weights = Arrays.copyOf(_weights, n);
+            }
+        }
+        _us[_size] = u;
+        _vs[_size] = v;
+        _kinds[_size] = (byte) kind;
+        _size += 1;
+    }
+
+    /** Check that my graph has edge labels, and allocate the arrays that
+     *  hold them if needed. */
+    @SuppressWarnings("unchecked")
+    private void checkLabeled() {
+        if (_labeled == null) {
+            throw new UnsupportedOperationException("graph has no labels");
+        }
+        if (_labels == null) {
+            _labels = (EL[]) new Object[_us.length + 1];
+            _weights = new double[_us.length + 1];
+        }
+    }
+
+    /** Operation kinds, or'ed together. */
+    private static final int REMOVE = 0, ADD = 1, LABEL = 2, WEIGHT = 4;
+    /** Minimum growth of the operation arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The graph I change. */
+    private final Graph _graph;
+    /** The graph I change, if it is labeled, else null. */
+    private final LabeledGraph<?, EL> _labeled;
+    /** Number of operations recorded. */
+    private int _size;
+    /** First end points of the operations. */
+    private int[] _us = new int[0];
+    /** Second end points of the operations. */
+    private int[] _vs = new int[0];
+    /** Kinds of the operations. */
+    private byte[] _kinds = new byte[0];
+    /** Labels of the operations, or null if none have labels. */
+    private EL[] _labels;
+    /** Weights of the operations, allocated with _labels. */
+    private double[] _weights;
+}
@@ -0,0 +1,168 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for GraphBatch.
+ *  @author Florence Lau
+ */
+public class GraphBatchTests {
+
+    /** Returns a labeled graph, directed iff DIRECTED, with N vertices. */
+    private static LabeledGraph<String, String> graph(boolean directed,
+                                                      int n) {
+        LabeledGraph<String, String> G =
+            new LabeledGraph<>(directed ? new DirectedGraph()
+                               : new UndirectedGraph());
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        return G;
+    }
+
+    /** Check that random batches applied to a graph directed iff DIRECTED
+     *  have the same effect as applying their operations one at a
+     *  time. */
+    private void checkBatches(boolean directed) {
+        Random rand = new Random(20);
+        int n = 60;
+        LabeledGraph<String, String> G = graph(directed, n),
+            H = graph(directed, n);
+        for (int round = 0; round < 30; round += 1) {
+            GraphBatch<String> batch = G.batch();
+            for (int i = 0; i < 300; i += 1) {
+                int u = 1 + rand.nextInt(n + 2), v = 1 + rand.nextInt(n);
+                int op = rand.nextInt(8);
+                String lab = "e" + i;
+                double w = rand.nextDouble();
+                if (op < 3) {
+                    batch.remove(u, v);
+                    H.remove(u, v);
+                } else if (op < 5) {
+                    batch.add(u, v);
+                    H.add(u, v);
+                } else if (op < 7) {
+                    batch.add(u, v, lab);
+                    H.add(u, v, lab);
+                } else {
+                    batch.add(u, v, lab, w);
+                    if (H.add(u, v, lab) != 0) {
+                        H.setWeight(u, v, w);
+                    }
+                }
+            }
+            assertEquals(300, batch.size());
+            batch.commit();
+            assertEquals(0, batch.size());
+            FrozenGraphTests.assertSameGraph(G, H, false);
+            for (int[] e : G.edges()) {
+                assertEquals(H.getLabel(e[0], e[1]), G.getLabel(e[0], e[1]));
+                assertEquals(H.getWeight(e[0], e[1]),
+                             G.getWeight(e[0], e[1]), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testDirectedBatches() {
+        checkBatches(true);
+    }
+
+    @Test
+    public void testUndirectedBatches() {
+        checkBatches(false);
+    }
+
+    @Test
+    public void testUnlabeledBatch() {
+        DirectedGraph G = new DirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            G.add();
+        }
+        G.add(1, 2);
+        G.add(2, 3);
+        G.add(3, 4);
+        G.batch().remove(1, 2).add(4, 5).remove(2, 3).add(1, 2).commit();
+        DirectedGraph H = new DirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            H.add();
+        }
+        H.add(3, 4);
+        H.add(4, 5);
+        H.add(1, 2);
+        FrozenGraphTests.assertSameGraph(G, H, false);
+        assertEquals(0, G.inDegree(3));
+        try {
+            G.batch().add(1, 3, null);
+            fail("label accepted");
+        } catch (UnsupportedOperationException excp) {
+            assertEquals(3, G.edgeSize());
+        }
+    }
+
+    /** A labeled graph that records the edges removed from it. */
+    private static class RecordingGraph extends LabeledGraph<String, String> {
+        /** An empty directed graph. */
+        RecordingGraph() {
+            super(new DirectedGraph());
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            if (contains(u, v)) {
+                removed.add(u + "-" + v);
+            }
+            super.remove(u, v);
+        }
+
+        /** The edges removed from me, in order. */
+        private final List<String> removed = new ArrayList<>();
+    }
+
+    @Test
+    public void testOverriddenRemove() {
+        RecordingGraph G = new RecordingGraph();
+        for (int i = 0; i < 4; i += 1) {
+            G.add();
+        }
+        G.add(1, 2, "a");
+        G.add(2, 3, "b");
+        G.add(3, 4, "c");
+        G.batch().remove(2, 3).remove(1, 4).add(1, 3, "d")
+            .remove(1, 2).commit();
+        Collections.sort(G.removed);
+        assertEquals(Arrays.asList("1-2", "2-3"), G.removed);
+        assertEquals(2, G.edgeSize());
+        assertFalse(G.contains(1, 2));
+        assertEquals("d", G.getLabel(1, 3));
+    }
+
+    @Test
+    public void testRemoveHub() {
+        UndirectedGraph G = new UndirectedGraph();
+        int n = 20000;
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        for (int v = 2; v <= n; v += 1) {
+            G.add(1, v);
+        }
+        GraphBatch<Void> batch = G.batch();
+        for (int v = 2; v <= n; v += 2) {
+            batch.remove(v, 1);
+        }
+        batch.commit();
+        assertEquals(n / 2 - 1, G.outDegree(1));
+        assertEquals(3, G.successor(1, 0));
+        assertEquals(0, G.outDegree(2));
+        G.remove(1);
+        assertEquals(0, G.edgeSize());
+    }
+}
@@ -0,0 +1,280 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/** Collects the vertices and edges of a new graph and then builds it in
+ *  one step.  Vertices are numbered 1, 2, ... in the order they are
+ *  added, and edges are simply appended to primitive buffers, with no
+ *  check for duplicates.  The building methods then sort the edges and
+ *  discard duplicates in parallel, and lay out the result at its final
+ *  size.  The graph built is the same, down to vertex numbers, edge ids,
+ *  and the orders of edges() and of each adjacency list, as would result
+ *  from adding the same vertices and edges in the same order to an empty
+ *  DirectedGraph or UndirectedGraph.
+ *
+ *  A GraphBuilder is not itself safe for use by several threads at once.
+ *  @author Florence Lau
+ */
+public class GraphBuilder {
+
+    /** A builder for an empty graph that is directed iff DIRECTED. */
+    public GraphBuilder(boolean directed) {
+        this(directed, 0);
+    }
+
+    /** A builder for an empty graph that is directed iff DIRECTED, with
+     *  room for EDGES edges before its buffers must grow. */
+    public GraphBuilder(boolean directed, int edges) {
+        _directed = directed;
+        _u = new int[Math.max(edges, INITIAL_CAPACITY)];
+        _v = new int[_u.length];
+    }
+
+    /** Returns true iff the graph I build is directed. */
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    /** Returns the number of vertices added so far. */
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    /** Returns the number of edges added so far, counting duplicates. */
+    public int edgeCount() {
+        return _edgeCount;
+    }
+
+    /** Add a new vertex and return its number, which is one more than the
+     *  number of the previous vertex. */
+    public int add() {
+        _vertexSize += 1;
+        return _vertexSize;
+    }
+
+    /** Add N new vertices, numbered from vertexSize() + 1. */
+    public void addVertices(int n) {
+        _vertexSize += n;
+    }
+
+    /** Add an edge incident on U and V, which must already have been
+     *  added.  The edge is directed (leaves U and enters V) if I am
+     *  directed.  Has no effect on the graph built if an edge with the
+     *  same end points has already been added. */
+    public void add(int u, int v) {
+        if (u <= 0 || u > _vertexSize || v <= 0 || v > _vertexSize) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+        if (_edgeCount == _u.length) {
+            int n = _edgeCount + (_edgeCount >> 1) + 1;
+            _u = Arrays.copyOf(_u, n);
+            _v = Arrays.copyOf(_v, n);
+        }
+        _u[_edgeCount] = u;
+        _v[_edgeCount] = v;
+        _edgeCount += 1;
+    }
+
+    /** Returns a new DirectedGraph or UndirectedGraph (according to
+     *  isDirected()) with my vertices and edges. */
+    public Graph build() {
+        int[][] edges = distinctEdges();
+        GraphObj result = _directed ? new DirectedGraph()
+            : new UndirectedGraph();
+        result.load(_vertexSize, edges[0], edges[1]);
+        return result;
+    }
+
+    /** Returns a new FrozenGraph with my vertices and edges. */
+    public FrozenGraph buildFrozen() {
+        int[][] edges = distinctEdges();
+        return new FrozenGraph(_directed, _vertexSize, edges[0], edges[1]);
+    }
+
+    /** Returns the end points of the first occurrence of each of my
+     *  edges, in the order added, as a pair of arrays.  For an undirected
+     *  graph, the smaller end point comes first. */
+    private int[][] distinctEdges() {
+        int m = _edgeCount;
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i += 1) {
+            int u = _u[i], v = _v[i];
+            keys[i] = _directed || u <= v ? EdgeIndex.key(u, v)
+                : EdgeIndex.key(v, u);
+        }
+        boolean[] duplicate = new boolean[m];
+        int vertexBits = bits(_vertexSize), indexBits = bits(m);
+        if (2 * vertexBits + indexBits < Long.SIZE) {
+            markDuplicates(keys, duplicate, vertexBits, indexBits);
+        } else {
+            markDuplicates(keys, duplicate);
+        }
+
+        int n;
+        n = 0;
+        for (int i = 0; i < m; i += 1) {
+            if (!duplicate[i]) {
+                n += 1;
+            }
+        }
+        int[] edgeU = new int[n], edgeV = new int[n];
+        n = 0;
+        for (int i = 0; i < m; i += 1) {
+            if (!duplicate[i]) {
+                edgeU[n] = (int) (keys[i] >>> 32);
+                edgeV[n] = (int) keys[i];
+                n += 1;
+            }
+        }
+        return new int[][] { edgeU, edgeV };
+    }
+
+    /** Set DUPLICATE[i] iff KEYS[i] equals KEYS[j] for some j < i.  Each
+     *  key is packed together with its index into a single long, using
+     *  VERTEXBITS bits for each end point and INDEXBITS for the index, so
+     *  that a parallel sort of primitive longs orders the edges by key and
+     *  then by index. */
+    static void markDuplicates(long[] keys, boolean[] duplicate,
+                               int vertexBits, int indexBits) {
+        int m = keys.length;
+        long[] packed = new long[m];
+        for (int i = 0; i < m; i += 1) {
+            long u = keys[i] >>> 32, v = keys[i] & 0xffffffffL;
+            packed[i] = (((u << vertexBits) | v) << indexBits) | i;
+        }
+        Arrays.parallelSort(packed);
+        long indexMask = (1L << indexBits) - 1;
+        IntStream.range(1, m).parallel().forEach(k -> {
+            if ((packed[k] >>> indexBits) == (packed[k - 1] >>> indexBits)) {
+                duplicate[(int) (packed[k] & indexMask)] = true;
+            }
+        });
+    }
+
+    /** Set DUPLICATE[i] iff KEYS[i] equals KEYS[j] for some j < i, using
+     *  a stable parallel sort of the indices of KEYS.  Used when the keys
+     *  and indices are too large to pack into single longs. */
+    static void markDuplicates(long[] keys, boolean[] duplicate) {
+        int m = keys.length;
+        int[] order = new int[m];
+        for (int i = 0; i < m; i += 1) {
+            order[i] = i;
+        }
+        ForkJoinPool.commonPool()
+            .invoke(new MergeSort(keys, order, new int[m], 0, m));
+        IntStream.range(1, m).parallel().forEach(k -> {
+            if (keys[order[k]] == keys[order[k - 1]]) {
+                duplicate[order[k]] = true;
+            }
+        });
+    }
+
+    /** Returns the number of bits needed to represent the non-negative
+     *  value N. */
+    private static int bits(int n) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(n);
+    }
+
+    /** A stable merge sort of a range of indices by the keys they index,
+     *  whose halves are sorted in parallel when large enough.  Since the
+     *  indices start out in increasing order, equal keys end up ordered
+     *  by index, so the first index in each run of equal keys is that of
+     *  the first occurrence. */
+    private static class MergeSort extends RecursiveAction {
+
+        /** A task to sort ORDER[LO .. HI-1] by KEYS, using the same range
+         *  of BUFFER as scratch space. */
+        MergeSort(long[] keys, int[] order, int[] buffer, int lo, int hi) {
+            _keys = keys;
+            _order = order;
+            _buffer = buffer;
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo <= PARALLEL_THRESHOLD) {
+                sort(_lo, _hi);
+            } else {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new MergeSort(_keys, _order, _buffer, _lo, mid),
+                          new MergeSort(_keys, _order, _buffer, mid, _hi));
+                merge(_lo, mid, _hi);
+            }
+        }
+
+        /** Sort _order[LO .. HI-1] sequentially. */
+        private void sort(int lo, int hi) {
+            if (hi - lo <= INSERTION_THRESHOLD) {
+                for (int i = lo + 1; i < hi; i += 1) {
+                    int x = _order[i];
+                    int j;
+                    for (j = i; j > lo && _keys[_order[j - 1]] > _keys[x];
+                         j -= 1) {
+                        _order[j] = _order[j - 1];
+                    }
+                    _order[j] = x;
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+                sort(lo, mid);
+                sort(mid, hi);
+                merge(lo, mid, hi);
+            }
+        }
+
+        /** Merge the sorted ranges _order[LO .. MID-1] and
+         *  _order[MID .. HI-1], favoring the first on ties. */
+        private void merge(int lo, int mid, int hi) {
+            if (_keys[_order[mid - 1]] <= _keys[_order[mid]]) {
+                return;
+            }
+            System.arraycopy(_order, lo, _buffer, lo, hi - lo);
+            int i = lo, j = mid;
+            for (int k = lo; k < hi; k += 1) {
+                if (j >= hi
+                    || (i < mid && _keys[_buffer[i]] <= _keys[_buffer[j]])) {
+                    _order[k] = _buffer[i];
+                    i += 1;
+                } else {
+                    _order[k] = _buffer[j];
+                    j += 1;
+                }
+            }
+        }
+
+        /** Ranges no longer than this are sorted without forking. */
+        private static final int PARALLEL_THRESHOLD = 1 << 13;
+        /** Ranges no longer than this are sorted by insertion. */
+        private static final int INSERTION_THRESHOLD = 24;
+
+        /** The keys being compared. */
+        private final long[] _keys;
+        /** The indices being sorted. */
+        private final int[] _order;
+        /** Scratch space for merging. */
+        private final int[] _buffer;
+        /** The bounds of my range. */
+        private final int _lo, _hi;
+    }
+
+    /** Smallest capacity of the edge buffers. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** True iff I build a directed graph. */
+    private final boolean _directed;
+    /** Number of vertices added. */
+    private int _vertexSize;
+    /** Number of edges added. */
+    private int _edgeCount;
+    /** First end points of the edges added, in order. */
+    private int[] _u;
+    /** Second end points corresponding to _u. */
+    private int[] _v;
+}
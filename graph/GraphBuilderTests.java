@@ -0,0 +1,92 @@
+package graph;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static graph.FrozenGraphTests.assertSameGraph;
+
+/** Unit tests for the GraphBuilder class.
+ *  @author Florence Lau
+ */
+public class GraphBuilderTests {
+
+    /** Add N vertices and M random edges, many of them duplicates or
+     *  self edges, to both B and G, in the same order. */
+    static void fill(GraphBuilder b, Graph g, int n, int m, long seed) {
+        Random r = new Random(seed);
+        for (int i = 0; i < n; i += 1) {
+            assertEquals(g.add(), b.add());
+        }
+        for (int i = 0; i < m; i += 1) {
+            int u = r.nextInt(n) + 1, v = r.nextInt(n) + 1;
+            b.add(u, v);
+            g.add(u, v);
+        }
+    }
+
+    @Test
+    public void testDirected() {
+        for (int m : new int[] { 0, 1, 300, 40000 }) {
+            GraphBuilder b = new GraphBuilder(true, m);
+            Graph g = new DirectedGraph();
+            fill(b, g, 150, m, m);
+            assertEquals(m, b.edgeCount());
+            assertSameGraph(g, b.build());
+            assertSameGraph(g, b.buildFrozen());
+        }
+    }
+
+    @Test
+    public void testUndirected() {
+        for (int m : new int[] { 0, 1, 300, 40000 }) {
+            GraphBuilder b = new GraphBuilder(false);
+            Graph g = new UndirectedGraph();
+            fill(b, g, 150, m, m + 1);
+            assertSameGraph(g, b.build());
+            assertSameGraph(g, b.buildFrozen());
+        }
+    }
+
+    @Test
+    public void testBuiltGraphIsMutable() {
+        GraphBuilder b = new GraphBuilder(true);
+        Graph g = new DirectedGraph();
+        fill(b, g, 30, 200, 3);
+        Graph h = b.build();
+        for (Graph x : new Graph[] { g, h }) {
+            x.remove(7);
+            x.remove(1, 2);
+            x.add(x.add(), 3);
+            x.add(4, 5);
+        }
+        assertSameGraph(g, h);
+    }
+
+    @Test
+    public void testMergeSortDuplicates() {
+        Random r = new Random(4);
+        long[] keys = new long[30000];
+        for (int i = 0; i < keys.length; i += 1) {
+            keys[i] = EdgeIndex.key(r.nextInt(100) + 1, r.nextInt(100) + 1);
+        }
+        boolean[] packed = new boolean[keys.length],
+            merged = new boolean[keys.length];
+        GraphBuilder.markDuplicates(keys, packed, 7, 15);
+        GraphBuilder.markDuplicates(keys, merged);
+        assertArrayEquals(packed, merged);
+        HashSet<Long> seen = new HashSet<>();
+        for (int i = 0; i < keys.length; i += 1) {
+            assertEquals(!seen.add(keys[i]), merged[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadVertex() {
+        GraphBuilder b = new GraphBuilder(false);
+        b.addVertices(3);
+        b.add(1, 4);
+    }
+}
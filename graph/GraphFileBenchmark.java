@@ -0,0 +1,116 @@
+package graph;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/** Compares the times needed to bring a graph into memory by replaying a
+ *  text description of it, by reading a graph file into a FrozenGraph,
+ *  and by mapping the graph file as a MappedGraph.  Usage:
+ *      java graph.GraphFileBenchmark [VERTICES [EDGES [TRIALS]]]
+ *  The text description has a line "V N" giving the number of vertices
+ *  followed by one line "E U V" per edge, as a program such as trip or
+ *  make would read it.  Each load is followed by a pass over all
+ *  successor lists, so that lazily loaded data are counted as well.
+ *  @author Florence Lau
+ */
+public class GraphFileBenchmark {
+
+    /** Run the benchmark with the sizes given in ARGS. */
+    public static void main(String... args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int trials = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Graph G = new DirectedGraph();
+        Random r = new Random(61);
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        for (int i = 0; i < m; i += 1) {
+            G.add(r.nextInt(n) + 1, r.nextInt(n) + 1);
+        }
+
+        File text = File.createTempFile("graph", ".txt");
+        File binary = File.createTempFile("graph", ".bin");
+        text.deleteOnExit();
+        binary.deleteOnExit();
+        try (PrintWriter out =
+             new PrintWriter(new BufferedWriter(new FileWriter(text)))) {
+            out.printf("V %d%n", n);
+            for (int[] e : G.edges()) {
+                out.printf("E %d %d%n", e[0], e[1]);
+            }
+        }
+        MappedGraph.write(G, binary);
+        System.out.printf("%d vertices, %d edges; text %d bytes, "
+                          + "binary %d bytes%n", G.vertexSize(),
+                          G.edgeSize(), text.length(), binary.length());
+
+        long check = scan(G);
+        long replay, frozen, mapped;
+        replay = frozen = mapped = Long.MAX_VALUE;
+        for (int t = 0; t < trials; t += 1) {
+            long start = System.nanoTime();
+            check(check, scan(replay(text)));
+            replay = Math.min(replay, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            check(check, scan(FrozenGraph.read(binary)));
+            frozen = Math.min(frozen, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            check(check, scan(new MappedGraph(binary)));
+            mapped = Math.min(mapped, System.nanoTime() - start);
+        }
+        System.out.printf("best of %d trials:%n", trials);
+        System.out.printf("  replay text:        %8.1f ms%n", replay / 1e6);
+        System.out.printf("  FrozenGraph.read:   %8.1f ms%n", frozen / 1e6);
+        System.out.printf("  MappedGraph:        %8.1f ms%n", mapped / 1e6);
+    }
+
+    /** Returns the graph described by the text in FILE. */
+    static Graph replay(File file) throws IOException {
+        Graph G = new DirectedGraph();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            for (String line = in.readLine(); line != null;
+                 line = in.readLine()) {
+                String[] fields = line.split(" ");
+                if (fields[0].equals("V")) {
+                    for (int i = Integer.parseInt(fields[1]); i > 0; i -= 1) {
+                        G.add();
+                    }
+                } else {
+                    G.add(Integer.parseInt(fields[1]),
+                          Integer.parseInt(fields[2]));
+                }
+            }
+        }
+        return G;
+    }
+
+    /** Returns a checksum of the successor lists of G. */
+    static long scan(Graph G) {
+        long sum;
+        sum = 0;
+        for (IntIteration vs = G.intVertices(); vs.hasNext(); ) {
+            int v = vs.nextInt();
+            for (IntIteration ws = G.intSuccessors(v); ws.hasNext(); ) {
+                sum = 31 * sum + v * 7 + ws.nextInt();
+            }
+        }
+        return sum;
+    }
+
+    /** Check that checksum GOT equals EXPECTED. */
+    private static void check(long expected, long got) {
+        if (expected != got) {
+            throw new IllegalStateException("loaded graph differs");
+        }
+    }
+}
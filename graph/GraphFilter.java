@@ -3,6 +3,14 @@ package graph;
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
  *  overridden, as needed.
+ *
+ *  Searches of a GraphFilter read it through its own methods, and do not
+ *  pin a snapshot of the underlying graph (see VersionedGraph), except
+ *  that a LabeledGraph, which never hides or adds edges, pins its
+ *  underlying graph.  Traversals use successors(v); ShortestPaths uses
+ *  outDegree(v), successor(v, k), inDegree(v) and predecessor(v, k), and
+ *  finds the id of each edge it follows by edgeId.  A filter that hides
+ *  or adds edges must override all of these consistently.
  *  @author P. N. Hilfinger */
 public class GraphFilter extends Graph {
 
@@ -111,6 +119,16 @@ public class GraphFilter extends Graph {
         _G.checkMyVertex(v);
     }
 
+    @Override
+    long modCount() {
+        return _G.modCount();
+    }
+
+    /** Returns my underlying graph. */
+    final Graph underlying() {
+        return _G;
+    }
+
     /** My underlying graph. */
     private final Graph _G;
 }
@@ -0,0 +1,223 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/** Describes the layout of a graph file.  A graph file consists of a
+ *  header of HEADER_SIZE bytes followed by a sequence of sections, each an
+ *  array of little-endian ints starting on an 8-byte boundary:
+ *      BITS:            vertex presence bitmap; bit V of word V/32 is set
+ *                       iff V is a vertex.
+ *      OUT_START:       maxVertex + 2 offsets; the successors of V are
+ *                       entries OUT_START[V] .. OUT_START[V+1]-1 of
+ *      OUT_TARGETS:     the successor lists, in edge insertion order.
+ *      OUT_IDS:         the edge ids corresponding to OUT_TARGETS.
+ *      SORTED_TARGETS:  OUT_TARGETS, with each vertex's list sorted.
+ *      SORTED_IDS:      the edge ids corresponding to SORTED_TARGETS.
+ *      IN_START:        as for OUT_START, for predecessors (empty if the
+ *                       graph is undirected).
+ *      IN_SOURCES:      the predecessor lists (empty if undirected).
+ *      EDGE_U, EDGE_V:  end points of all edges in insertion order.
+ *  The header contains a magic number, the format version, a flags word
+ *  (bit 0 set iff the graph is directed), vertexSize, maxVertex,
+ *  edgeSize, the lengths of the successor and predecessor lists, and
+ *  (since version 2) the length in bytes of an optional label section
+ *  following the last int section (see LabelSection).  Version 1 files
+ *  have no label section.
+ *  @author Florence Lau
+ */
+final class GraphFormat {
+
+    /** Section numbers. */
+    static final int
+        BITS = 0, OUT_START = 1, OUT_TARGETS = 2, OUT_IDS = 3,
+        SORTED_TARGETS = 4, SORTED_IDS = 5, IN_START = 6, IN_SOURCES = 7,
+        EDGE_U = 8, EDGE_V = 9, SECTIONS = 10;
+
+    /** Identifies graph files ("GRPH"). */
+    static final int MAGIC = 0x47525048;
+    /** The format version written by this class. */
+    static final int VERSION = 2;
+    /** The oldest format version that can be read. */
+    static final int MIN_VERSION = 1;
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 64;
+    /** Byte order of all values in a graph file. */
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** The layout for a graph that is directed iff DIRECTED, with the given
+     *  VERTEXSIZE, MAXVERTEX and EDGESIZE, and with OUTCOUNT successor
+     *  entries and INCOUNT predecessor entries in all. */
+    GraphFormat(boolean directed, int vertexSize, int maxVertex,
+                int edgeSize, long outCount, long inCount) {
+        this(directed, vertexSize, maxVertex, edgeSize, outCount, inCount,
+             0);
+    }
+
+    /** As for GraphFormat(DIRECTED, VERTEXSIZE, MAXVERTEX, EDGESIZE,
+     *  OUTCOUNT, INCOUNT), with a label section of LABELSLENGTH bytes. */
+    GraphFormat(boolean directed, int vertexSize, int maxVertex,
+                int edgeSize, long outCount, long inCount,
+                long labelsLength) {
+        if (vertexSize < 0 || maxVertex < vertexSize || edgeSize < 0
+            || outCount < 0 || inCount < 0 || labelsLength < 0) {
+            throw new IllegalArgumentException("bad graph dimensions");
+        }
+        _labelsLength = labelsLength;
+        _directed = directed;
+        _vertexSize = vertexSize;
+        _maxVertex = maxVertex;
+        _edgeSize = edgeSize;
+        _lengths = new long[] {
+            (maxVertex >>> 5) + 1, maxVertex + 2, outCount, outCount,
+            outCount, outCount, directed ? maxVertex + 2 : 0,
+            directed ? inCount : 0, edgeSize, edgeSize
+        };
+        _offsets = new long[SECTIONS + 1];
+        _offsets[0] = HEADER_SIZE;
+        for (int s = 0; s < SECTIONS; s += 1) {
+            _offsets[s + 1] = align(_offsets[s] + 4 * _lengths[s]);
+        }
+    }
+
+    /** Returns the layout described by HEADER, which holds the first
+     *  HEADER_SIZE bytes of a graph file. */
+    static GraphFormat read(ByteBuffer header) throws IOException {
+        header.order(ORDER);
+        if (header.remaining() < HEADER_SIZE
+            || header.getInt(0) != MAGIC) {
+            throw new IOException("not a graph file");
+        }
+        int version = header.getInt(4);
+        if (version < MIN_VERSION || version > VERSION) {
+            throw new IOException(String.format("unsupported graph file "
+                                                + "version %d", version));
+        }
+        try {
+            return new GraphFormat((header.getInt(8) & 1) != 0,
+                                   header.getInt(12), header.getInt(16),
+                                   header.getInt(20), header.getLong(24),
+                                   header.getLong(32),
+                                   version < 2 ? 0 : header.getLong(40));
+        } catch (IllegalArgumentException excp) {
+            throw new IOException("corrupt graph file header");
+        }
+    }
+
+    /** Returns the layout of the graph file open on IN, checking that the
+     *  file is long enough to hold it. */
+    static GraphFormat read(FileChannel in) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && in.read(header, header.position())
+               >= 0) {
+            continue;
+        }
+        header.flip();
+        GraphFormat format = read(header);
+        if (in.size() < format.size() + format.labelsLength()) {
+            throw new IOException("graph file is truncated");
+        }
+        return format;
+    }
+
+    /** Returns the contents of section S of the graph file open on IN,
+     *  read in bulk into an array. */
+    int[] readSection(FileChannel in, int s) throws IOException {
+        if (length(s) > Integer.MAX_VALUE - 8) {
+            throw new IOException("graph too large to load into memory");
+        }
+        int[] result = new int[(int) length(s)];
+        for (int k = 0; k < result.length; k += READ_CHUNK) {
+            int n = Math.min(READ_CHUNK, result.length - k);
+            in.map(FileChannel.MapMode.READ_ONLY, offset(s) + 4L * k, 4L * n)
+                .order(ORDER).asIntBuffer().get(result, k, n);
+        }
+        return result;
+    }
+
+    /** Returns my header, ready to be written. */
+    ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+        header.putInt(0, MAGIC).putInt(4, VERSION)
+            .putInt(8, _directed ? 1 : 0).putInt(12, _vertexSize)
+            .putInt(16, _maxVertex).putInt(20, _edgeSize)
+            .putLong(24, _lengths[OUT_TARGETS])
+            .putLong(32, _lengths[IN_SOURCES]).putLong(40, _labelsLength);
+        return header;
+    }
+
+    /** Returns the length in bytes of the label section, which starts at
+     *  size(), or 0 if there is none. */
+    long labelsLength() {
+        return _labelsLength;
+    }
+
+    /** Returns my layout, but with a label section of LENGTH bytes. */
+    GraphFormat withLabels(long length) {
+        return new GraphFormat(_directed, _vertexSize, _maxVertex, _edgeSize,
+                               _lengths[OUT_TARGETS], _lengths[IN_SOURCES],
+                               length);
+    }
+
+    /** Returns true iff the graph is directed. */
+    boolean directed() {
+        return _directed;
+    }
+
+    /** Returns the number of vertices. */
+    int vertexSize() {
+        return _vertexSize;
+    }
+
+    /** Returns the largest vertex number. */
+    int maxVertex() {
+        return _maxVertex;
+    }
+
+    /** Returns the number of edges. */
+    int edgeSize() {
+        return _edgeSize;
+    }
+
+    /** Returns the byte offset of section S. */
+    long offset(int s) {
+        return _offsets[s];
+    }
+
+    /** Returns the number of ints in section S. */
+    long length(int s) {
+        return _lengths[s];
+    }
+
+    /** Returns the total size in bytes of the header and int sections. */
+    long size() {
+        return _offsets[SECTIONS];
+    }
+
+    /** Largest number of ints read from one mapping by readSection. */
+    private static final int READ_CHUNK = 1 << 28;
+
+    /** Returns N rounded up to a multiple of 8. */
+    private static long align(long n) {
+        return (n + 7) & ~7L;
+    }
+
+    /** True iff the graph is directed. */
+    private final boolean _directed;
+    /** The number of vertices. */
+    private final int _vertexSize;
+    /** The largest vertex number. */
+    private final int _maxVertex;
+    /** The number of edges. */
+    private final int _edgeSize;
+    /** Length of the label section in bytes. */
+    private final long _labelsLength;
+    /** Number of ints in each section. */
+    private final long[] _lengths;
+    /** Byte offset of each section, followed by the file size. */
+    private final long[] _offsets;
+}
@@ -2,27 +2,33 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
 
 /** A partial implementation of Graph containing elements common to
- *  directed and undirected graphs.
- * Note: Used Cantor's pairing function for edgeID's. Idea from
- * Piazza.
+ *  directed and undirected graphs: the vertex set, and the edges
+ *  themselves.  Each edge is recorded once, in a table of end points
+ *  indexed by edge id; the order of edges and the index for finding an
+ *  edge by its end points hold only ids.  How the edges incident on each
+ *  vertex are listed is left to DirectedGraph and UndirectedGraph.
+ *  Edge ids are allocated densely: an edge receives the smallest id not
+ *  used by any other current edge, so ids never exceed the largest number
+ *  of edges the graph has held at once.
  *  @author Florence Lau
  */
 abstract class GraphObj extends Graph {
 
     /** A new, empty Graph. */
     GraphObj() {
-        vertices = new ArrayList<>();
-        outgoingEdges = new ArrayList<>();
-        incomingEdges = new ArrayList<>();
-        orderedEdges = new ArrayList<>();
-        deletedVertices = new ArrayList<>();
+        vertices = new BitSet();
+        edgeEnds = new int[2 * INITIAL_EDGE_IDS];
+        edgePositions = new int[INITIAL_EDGE_IDS];
+        freeEdgeIds = new IntHeap();
+        edgeIndex = new EdgeIndex();
+        orderedEdges = new EdgeLog();
+        deletedVertices = new IntHeap();
         numVertices = 0;
-        _maxVertex = 0;
-        _prevMaxVertex = 0;
         numEdges = 0;
     }
 
@@ -33,10 +39,7 @@ abstract class GraphObj extends Graph {
 
     @Override
     public int maxVertex() {
-        if (vertices.isEmpty()) {
-            return 0;
-        }
-        return _maxVertex;
+        return Math.max(vertices.length() - 1, 0);
     }
 
     @Override
@@ -48,179 +51,103 @@ abstract class GraphObj extends Graph {
     public abstract boolean isDirected();
 
     @Override
-    public int outDegree(int v) {
-        if (vertices.contains(v)) {
-            return outgoingEdges.get(v).size();
-        }
-        return 0;
-    }
+    public abstract int outDegree(int v);
 
     @Override
     public abstract int inDegree(int v);
 
     @Override
     public boolean contains(int u) {
-        return vertices.contains(u);
+        return u > 0 && vertices.get(u);
     }
 
     @Override
     public boolean contains(int u, int v) {
-        if (vertices.contains(u) && vertices.contains(v)) {
-            if (!isDirected()) {
-                if (outgoingEdges.get(u).contains(v)
-                    || outgoingEdges.get(v).contains(u)) {
-                    return true;
-                }
-                return false;
-            } else {
-                if (outgoingEdges.get(u).contains(v)) {
-                    return true;
-                }
-                return false;
-            }
-        }
-        return false;
+        return contains(u) && contains(v) && indexed(u, v) != 0;
     }
 
     @Override
     public int add() {
         int newVertex;
         if (!deletedVertices.isEmpty()) {
-            newVertex = Collections.min(deletedVertices);
-            deletedVertices.remove(Collections.min(deletedVertices));
+            newVertex = deletedVertices.removeMin();
         } else {
-            newVertex = vertexSize() + 1;
-        }
-        vertices.add(newVertex);
-        while (newVertex > outgoingEdges.size() - 1) {
-            outgoingEdges.add(new ArrayList<>());
-        }
-        outgoingEdges.add(newVertex, new ArrayList<>());
-        while (newVertex > incomingEdges.size() - 1) {
-            incomingEdges.add(new ArrayList<>());
-        }
-        incomingEdges.add(newVertex, new ArrayList<>());
-        if (newVertex > _maxVertex) {
-            _prevMaxVertex = _maxVertex;
-            _maxVertex = newVertex;
+            highestVertex += 1;
+            newVertex = highestVertex;
         }
+        vertices.set(newVertex);
         numVertices += 1;
+        modifications += 1;
         return newVertex;
     }
 
     @Override
     public int add(int u, int v) {
-        if (vertices.contains(u) && vertices.contains(v)) {
-            if (!isDirected()) {
-                int[] d = new int[2];
-                d[0] = Math.min(u, v);
-                d[1] = Math.max(u, v);
-                if (!orderedEdges.contains(d)) {
-                    orderedEdges.add(d);
-                }
-            } else {
-                int[] a = new int[2];
-                a[0] = u;
-                a[1] = v;
-                if (!orderedEdges.contains(a)) {
-                    orderedEdges.add(a);
-                }
+        if (contains(u) && contains(v)) {
+            int e = indexed(u, v);
+            if (e != 0) {
+                return e;
             }
-            if (!outgoingEdges.get(u).contains(v)) {
-                outgoingEdges.get(u).add(v);
-                numEdges += 1;
-                if (isDirected()) {
-                    if (!incomingEdges.get(v).contains(u)) {
-                        incomingEdges.get(v).add(u);
-                    }
-                } else {
-                    if (!outgoingEdges.get(v).contains(u)) {
-                        outgoingEdges.get(v).add(u);
-                    }
-                }
+            e = newEdgeId();
+            if (isDirected() || u <= v) {
+                edgeEnds[2 * e] = u;
+                edgeEnds[2 * e + 1] = v;
+            } else {
+                edgeEnds[2 * e] = v;
+                edgeEnds[2 * e + 1] = u;
             }
-            return edgeId(u, v);
+            edgeIndex.put(e, edgeEnds);
+            edgePositions[e] = orderedEdges.append(e);
+            link(u, v, e);
+            numEdges += 1;
+            modifications += 1;
+            return e;
         }
         return 0;
     }
 
     @Override
     public void remove(int v) {
-        if (vertices.contains(v)) {
-            ArrayList<Integer> indices = new ArrayList<>();
-            for (int o : outgoingEdges.get(v)) {
-                indices.add(o);
-            }
-            for (int i : indices) {
-                remove(v, i);
-            }
-            indices.clear();
-            for (int i : incomingEdges.get(v)) {
-                indices.add(i);
-            }
-            for (int j : indices) {
-                remove(j, v);
-            }
-            ArrayList<int[]> toRemove = new ArrayList<>();
-            for (int[] a : orderedEdges) {
-                if (a[0] == v || a[1] == v) {
-                    toRemove.add(a);
-                }
-            }
-            orderedEdges.removeAll(toRemove);
-            vertices.remove((Object) v);
-            if (v == _maxVertex) {
-                _maxVertex = _prevMaxVertex;
-            }
+        if (contains(v)) {
+            int[] edges = incidentEdges(v);
+            removeEdgeIds(edges, edges.length);
+            clearVertex(v);
+            vertices.clear(v);
             deletedVertices.add(v);
             numVertices -= 1;
+            modifications += 1;
         }
     }
 
     @Override
     public void remove(int u, int v) {
-        if (vertices.contains(u) && vertices.contains(v)) {
-            if (outgoingEdges.get(u).contains(v)) {
-                outgoingEdges.get(u).remove((Object) v);
-                numEdges -= 1;
-                if (isDirected()) {
-                    incomingEdges.get(v).remove((Object) u);
-                } else {
-                    outgoingEdges.get(v).remove((Object) u);
-                }
+        if (contains(u) && contains(v)) {
+            int e = indexed(u, v);
+            if (e != 0) {
+                removeEdge(e);
             }
         }
     }
 
     @Override
     public Iteration<Integer> vertices() {
-        return Iteration.iteration(vertices);
+        return intVertices();
     }
 
     @Override
-    public int successor(int v, int k) {
-        int temp = 0;
-        for (int counter = 0; counter < k; k++) {
-            if (successors(v).hasNext()) {
-                temp = successors(v).next();
-            } else {
-                return 0;
-            }
-        }
-        return temp;
+    public IntIteration intVertices() {
+        return IntIteration.bits(vertices, 1);
     }
 
     @Override
-    public abstract int predecessor(int v, int k);
+    public abstract int successor(int v, int k);
 
-    /** Returns predecessors of vertex V. */
-    protected ArrayList<Integer> getPredecessors(int v) {
-        return incomingEdges.get(v);
-    }
+    @Override
+    public abstract int predecessor(int v, int k);
 
     @Override
     public Iteration<Integer> successors(int v) {
-        return Iteration.iteration(outgoingEdges.get(v));
+        return intSuccessors(v);
     }
 
     @Override
@@ -228,55 +155,330 @@ abstract class GraphObj extends Graph {
 
     @Override
     public Iteration<int[]> edges() {
-        return Iteration.iteration(orderedEdges);
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_pos < orderedEdges.end()
+                       && !orderedEdges.live(_pos)) {
+                    _pos += 1;
+                }
+                return _pos < orderedEdges.end();
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int e = orderedEdges.id(_pos);
+                _edge[0] = edgeEnds[2 * e];
+                _edge[1] = edgeEnds[2 * e + 1];
+                _pos += 1;
+                return _edge;
+            }
+
+            /** Next position of orderedEdges to examine. */
+            private int _pos;
+            /** The array used to return each edge. */
+            private final int[] _edge = new int[2];
+        };
     }
 
     @Override
     protected void checkMyVertex(int v) {
-        if (!vertices.contains(v)) {
+        if (!contains(v)) {
             throw new IllegalArgumentException("vertex not from Graph");
         }
     }
 
     @Override
     protected int edgeId(int u, int v) {
-        int first = Math.min(u, v);
-        int second = Math.max(u, v);
-        if (!isDirected()) {
-            if (!outgoingEdges.get(first).contains(second)) {
-                return 0;
-            } else {
-                return (((first + second)
-                        * (first + second + 1)) / 2) + second;
+        return indexed(u, v);
+    }
+
+    @Override
+    long modCount() {
+        return modifications;
+    }
+
+    /** Returns a batch of edge additions and removals to be made to me
+     *  all at once by its commit method (see GraphBatch). */
+    public GraphBatch<Void> batch() {
+        return new GraphBatch<>(this, null);
+    }
+
+    @Override
+    void removeEdges(int[] us, int[] vs, int n) {
+        int[] ids = new int[n];
+        int m;
+        m = 0;
+        for (int i = 0; i < n; i += 1) {
+            if (contains(us[i]) && contains(vs[i])) {
+                int e = indexed(us[i], vs[i]);
+                if (e != 0) {
+                    ids[m] = e;
+                    m += 1;
+                }
             }
-        } else {
-            if (!outgoingEdges.get(u).contains(v)) {
-                return 0;
+        }
+        removeEdgeIds(ids, m);
+    }
+
+    @Override
+    void reserveEdges(int n) {
+        int needed = highestEdgeId + n + 1 - freeEdgeIds.size();
+        if (needed > edgePositions.length) {
+            int size = Math.max(needed, 2 * edgePositions.length);
+            edgePositions = Arrays.copyOf(edgePositions, size);
+            edgeEnds = Arrays.copyOf(edgeEnds, 2 * size);
+        }
+        edgeIndex.reserve(numEdges + n, edgeEnds);
+    }
+
+    /** Replace my contents, which must be empty, with the vertices 1 .. N
+     *  and the edges (EDGEU[i], EDGEV[i]), which receive ids i + 1.  The
+     *  edges must be distinct, their end points must be among the
+     *  vertices, and if I am undirected, EDGEU[i] <= EDGEV[i].  The
+     *  result is as if the vertices and then the edges had been added one
+     *  at a time, but the tables are allocated at their final sizes and
+     *  no edge is looked up before it is added. */
+    void load(int n, int[] edgeU, int[] edgeV) {
+        int m = edgeU.length;
+        edgeEnds = new int[2 * Math.max(INITIAL_EDGE_IDS, m + 1)];
+        edgePositions = new int[edgeEnds.length / 2];
+        edgeIndex = new EdgeIndex(m);
+        orderedEdges = new EdgeLog(m);
+        for (int i = 0; i < m; i += 1) {
+            int e = i + 1;
+            edgeEnds[2 * e] = edgeU[i];
+            edgeEnds[2 * e + 1] = edgeV[i];
+            edgeIndex.put(e, edgeEnds);
+            edgePositions[e] = orderedEdges.append(e);
+        }
+        loadAdjacency(n, edgeU, edgeV);
+        vertices.set(1, n + 1);
+        numVertices = highestVertex = n;
+        numEdges = highestEdgeId = m;
+        modifications += 1;
+    }
+
+    /** Add edge E, which leaves U and enters V if I am directed, to the
+     *  adjacency lists of U and V. */
+    abstract void link(int u, int v, int e);
+
+    /** Remove edge E, whose end points are U and V as recorded in the
+     *  edge table, from the adjacency lists of U and V. */
+    abstract void unlink(int u, int v, int e);
+
+    /** Remove every edge whose id is in DEAD from the adjacency lists of
+     *  V, preserving the order of the rest. */
+    abstract void unlinkAll(int v, BitSet dead);
+
+    /** Returns the ids of all edges incident on V, possibly with
+     *  repetitions. */
+    abstract int[] incidentEdges(int v);
+
+    /** Release the adjacency lists of V, which has no incident edges. */
+    abstract void clearVertex(int v);
+
+    /** Fill in the adjacency lists of vertices 1 .. N, which are empty,
+     *  for the edges (EDGEU[i], EDGEV[i]) with ids i + 1, as for
+     *  load(N, EDGEU, EDGEV). */
+    abstract void loadAdjacency(int n, int[] edgeU, int[] edgeV);
+
+    /** Returns the end point of edge E other than V, which must be one of
+     *  its end points (so V itself for a self edge). */
+    int otherEnd(int e, int v) {
+        return edgeEnds[2 * e] ^ edgeEnds[2 * e + 1] ^ v;
+    }
+
+    /** Returns element K of list V of LISTS if V is one of my vertices
+     *  and the element exists, and otherwise 0. */
+    int element(IntLists lists, int v, int k) {
+        if (k < 0 || k >= lists.size(v) || !contains(v)) {
+            return 0;
+        }
+        return lists.get(v, k);
+    }
+
+    /** Copy as much of list V of LISTS as fits into DST, and return the
+     *  length of the list (0 if V is not one of my vertices). */
+    int copy(IntLists lists, int v, int[] dst) {
+        if (!contains(v)) {
+            return 0;
+        }
+        int n = lists.size(v);
+        if (n > 0) {
+            System.arraycopy(lists.row(v), 0, dst, 0, Math.min(n, dst.length));
+        }
+        return n;
+    }
+
+    /** Remove from list V of IDS every edge id in DEAD, together with
+     *  the corresponding elements of list V of VALUES, if VALUES is not
+     *  null, preserving the order of the rest. */
+    static void removeIds(IntLists ids, IntLists values, int v,
+                          BitSet dead) {
+        int n = ids.size(v);
+        if (n == 0) {
+            return;
+        }
+        int[] idRow = ids.row(v),
+            valueRow = values == null ? null : values.row(v);
+        int j;
+        j = 0;
+        for (int k = 0; k < n; k += 1) {
+            if (!dead.get(idRow[k])) {
+                idRow[j] = idRow[k];
+                if (valueRow != null) {
+                    valueRow[j] = valueRow[k];
+                }
+                j += 1;
             }
         }
-        return (((u + v) * (u + v + 1)) / 2) + v;
+        ids.set(v, idRow, j);
+        if (values != null) {
+            values.set(v, valueRow, j);
+        }
     }
 
-    /** List of vertices in this graph. */
-    private ArrayList<Integer> vertices;
+    /** Returns an array of rows, with row V of length SIZES[V], or null
+     *  if that is 0. */
+    static int[][] rows(int[] sizes) {
+        int[][] result = new int[sizes.length][];
+        for (int v = 0; v < sizes.length; v += 1) {
+            if (sizes[v] > 0) {
+                result[v] = new int[sizes[v]];
+            }
+        }
+        return result;
+    }
 
-    /** List containing outgoing edges. */
-    private ArrayList<ArrayList<Integer>> outgoingEdges;
+    /** Remove the edges whose ids are IDS[0 .. N-1], skipping repeated
+     *  and already removed ones.  Each end point's adjacency lists are
+     *  filtered in a single pass, however many of its edges go, and the
+     *  edge log is compacted at most once. */
+    private void removeEdgeIds(int[] ids, int n) {
+        if (n <= 1) {
+            if (n == 1) {
+                removeEdge(ids[0]);
+            }
+            return;
+        }
+        BitSet dead = new BitSet();
+        int[] touched = new int[2 * n];
+        int m;
+        m = 0;
+        for (int i = 0; i < n; i += 1) {
+            int e = ids[i];
+            if (edgeEnds[2 * e] != 0 && !dead.get(e)) {
+                dead.set(e);
+                edgeIndex.remove(e, edgeEnds);
+                orderedEdges.kill(edgePositions[e]);
+                touched[m] = edgeEnds[2 * e];
+                touched[m + 1] = edgeEnds[2 * e + 1];
+                m += 2;
+            }
+        }
+        Arrays.sort(touched, 0, m);
+        for (int i = 0; i < m; i += 1) {
+            if (i == 0 || touched[i] != touched[i - 1]) {
+                unlinkAll(touched[i], dead);
+            }
+        }
+        for (int e = dead.nextSetBit(0); e >= 0; e = dead.nextSetBit(e + 1)) {
+            edgeEnds[2 * e] = edgeEnds[2 * e + 1] = 0;
+            freeEdgeIds.add(e);
+            numEdges -= 1;
+        }
+        modifications += 1;
+        if (orderedEdges.shouldCompact()) {
+            compactEdges();
+        }
+    }
+
+    /** Remove edge E, if it has not already been removed. */
+    private void removeEdge(int e) {
+        int u = edgeEnds[2 * e], v = edgeEnds[2 * e + 1];
+        if (u == 0) {
+            return;
+        }
+        edgeIndex.remove(e, edgeEnds);
+        unlink(u, v, e);
+        orderedEdges.kill(edgePositions[e]);
+        edgeEnds[2 * e] = edgeEnds[2 * e + 1] = 0;
+        freeEdgeIds.add(e);
+        numEdges -= 1;
+        modifications += 1;
+        if (orderedEdges.shouldCompact()) {
+            compactEdges();
+        }
+    }
+
+    /** Returns an unused edge id, reusing the smallest released one if
+     *  possible, and making sure edgeEnds and edgePositions can hold
+     *  it. */
+    private int newEdgeId() {
+        if (!freeEdgeIds.isEmpty()) {
+            return freeEdgeIds.removeMin();
+        }
+        highestEdgeId += 1;
+        if (highestEdgeId == edgePositions.length) {
+            edgePositions = Arrays.copyOf(edgePositions,
+                                          2 * edgePositions.length);
+            edgeEnds = Arrays.copyOf(edgeEnds, 2 * edgePositions.length);
+        }
+        return highestEdgeId;
+    }
+
+    /** Squeeze the removed edges out of orderedEdges, and record the new
+     *  positions of the remaining ones in edgePositions. */
+    private void compactEdges() {
+        orderedEdges.compact();
+        for (int pos = 0; pos < orderedEdges.end(); pos += 1) {
+            edgePositions[orderedEdges.id(pos)] = pos;
+        }
+    }
+
+    /** Returns the id of edge (U, V), or 0 if there is no such edge. */
+    private int indexed(int u, int v) {
+        if (isDirected() || u <= v) {
+            return edgeIndex.get(u, v, edgeEnds);
+        } else {
+            return edgeIndex.get(v, u, edgeEnds);
+        }
+    }
 
-    /** List containing incoming edges. */
-    private ArrayList<ArrayList<Integer>> incomingEdges;
 
-    /** List containing all edges. */
-    private ArrayList<int[]> orderedEdges;
+    /** Set of vertex numbers in this graph: bit V is set iff V is one of
+     *  my vertices. */
+    private BitSet vertices;
 
-    /** List containing deleted vertices. */
-    private ArrayList<Integer> deletedVertices;
+    /** End points of each edge, indexed by edge id: those of edge E are
+     *  edgeEnds[2E] and edgeEnds[2E + 1], with the smaller first if I am
+     *  undirected.  Both are 0 for unused ids. */
+    private int[] edgeEnds;
 
-    /** Highest vertex number. */
-    private int _maxVertex;
+    /** Finds the id of each edge from its end points. */
+    private EdgeIndex edgeIndex;
 
-    /** Previous highest vertex number. */
-    private int _prevMaxVertex;
+    /** Position in orderedEdges of each edge, indexed by edge id. */
+    private int[] edgePositions;
+
+    /** Released edge ids less than highestEdgeId. */
+    private IntHeap freeEdgeIds;
+
+    /** Largest edge id ever allocated. */
+    private int highestEdgeId;
+
+    /** Ids of all edges, in the order they were added. */
+    private EdgeLog orderedEdges;
+
+    /** The unused vertex numbers less than highestVertex. */
+    private IntHeap deletedVertices;
+
+    /** Largest vertex number ever allocated. */
+    private int highestVertex;
 
     /** Number of vertices in this graph. */
     private int numVertices;
@@ -284,4 +486,10 @@ abstract class GraphObj extends Graph {
     /** Number of edges in this graph. */
     private int numEdges;
 
+    /** Number of changes made to this graph's vertices and edges. */
+    private long modifications;
+
+    /** Initial size of edgePositions. */
+    private static final int INITIAL_EDGE_IDS = 16;
+
 }
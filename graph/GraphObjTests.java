@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -84,4 +86,329 @@ public class GraphObjTests {
         d.add();
         assertEquals(d.contains(4), true);
     }
+
+    @Test
+    public void testSuccessorOrder() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 6; i += 1) {
+            d.add();
+        }
+        d.add(1, 5);
+        d.add(1, 2);
+        d.add(1, 4);
+        d.add(1, 3);
+        d.add(6, 4);
+        d.remove(1, 2);
+        d.add(1, 6);
+        int[] expected = { 5, 4, 3, 6 };
+        int k = 0;
+        for (int s : d.successors(1)) {
+            assertEquals(expected[k], s);
+            k += 1;
+        }
+        assertEquals(4, k);
+        d.remove(4);
+        assertEquals(3, d.outDegree(1));
+        assertEquals(0, d.outDegree(6));
+        d.add();
+        assertEquals(0, d.inDegree(4));
+        assertFalse(d.successors(4).hasNext());
+    }
+
+    @Test
+    public void testMaxVertexAfterRemovals() {
+        UndirectedGraph u = new UndirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            u.add();
+        }
+        u.remove(5);
+        u.remove(4);
+        assertEquals(3, u.maxVertex());
+        u.remove(2);
+        u.remove(3);
+        assertEquals(1, u.maxVertex());
+        u.remove(1);
+        assertEquals(0, u.maxVertex());
+        assertFalse(u.contains(0));
+        assertFalse(u.contains(-1));
+        for (int i = 0; i < 3; i += 1) {
+            u.add();
+        }
+        u.remove(2);
+        int[] expected = { 1, 3 };
+        int k = 0;
+        for (int v : u.vertices()) {
+            assertEquals(expected[k], v);
+            k += 1;
+        }
+        assertEquals(2, k);
+    }
+
+    @Test
+    public void testEdgeDedup() {
+        UndirectedGraph u = new UndirectedGraph();
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 3; i += 1) {
+            u.add();
+            d.add();
+        }
+        int e = u.add(1, 2);
+        assertEquals(e, u.add(2, 1));
+        assertEquals(1, u.edgeSize());
+        assertEquals(1, u.degree(1));
+        u.add(3, 3);
+        assertEquals(1, u.degree(3));
+        assertTrue(u.contains(3, 3));
+        u.remove(2, 1);
+        assertFalse(u.contains(1, 2));
+        assertEquals(0, u.edgeId(1, 2));
+        assertEquals(1, u.edgeSize());
+        d.add(1, 2);
+        d.add(2, 1);
+        d.add(1, 2);
+        assertEquals(2, d.edgeSize());
+        d.remove(2, 1);
+        assertTrue(d.contains(1, 2));
+        assertFalse(d.contains(2, 1));
+        assertEquals(0, d.inDegree(1));
+    }
+
+    @Test
+    public void testEdgeOrderAfterRemovals() {
+        DirectedGraph d = new DirectedGraph();
+        final int n = 20;
+        for (int i = 0; i < n; i += 1) {
+            d.add();
+        }
+        for (int u = 1; u <= n; u += 1) {
+            for (int v = 1; v <= n; v += 1) {
+                d.add(u, v);
+            }
+        }
+        for (int u = 1; u <= n; u += 1) {
+            for (int v = 1; v <= n; v += 1) {
+                if ((u + v) % 3 != 0) {
+                    d.remove(u, v);
+                }
+            }
+        }
+        d.remove(n);
+        d.add(2, 2);
+        int count = 0, prev = 0;
+        for (int[] e : d.edges()) {
+            int rank = e[0] == 2 && e[1] == 2 ? Integer.MAX_VALUE
+                : e[0] * (n + 1) + e[1];
+            assertTrue(rank > prev);
+            assertTrue(d.contains(e[0], e[1]));
+            prev = rank;
+            count += 1;
+        }
+        assertEquals(d.edgeSize(), count);
+    }
+
+    @Test
+    public void testVertexReuse() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 10; i += 1) {
+            d.add();
+        }
+        d.remove(7);
+        d.remove(3);
+        d.remove(10);
+        d.remove(5);
+        assertEquals(3, d.add());
+        assertEquals(5, d.add());
+        assertEquals(7, d.add());
+        assertEquals(10, d.add());
+        assertEquals(11, d.add());
+        d.remove(11);
+        d.remove(10);
+        assertEquals(10, d.add());
+    }
+
+    @Test
+    public void testDenseEdgeIds() {
+        DirectedGraph d = new DirectedGraph();
+        final int n = 100000;
+        d.add();
+        d.add();
+        for (int i = 2; i < n; i += 1) {
+            d.add();
+        }
+        int e1 = d.add(n - 1, n);
+        int e2 = d.add(n, n - 1);
+        assertTrue(e1 > 0 && e1 <= 2);
+        assertTrue(e2 > 0 && e2 <= 2 && e1 != e2);
+        d.remove(n - 1, n);
+        int e3 = d.add(1, 2);
+        assertEquals(e1, e3);
+        assertEquals(e3, d.edgeId(1, 2));
+        assertEquals(0, d.edgeId(n - 1, n));
+    }
+
+    @Test
+    public void testEdgeLabelsNotInherited() {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new UndirectedGraph());
+        g.add("a");
+        g.add("b");
+        g.add("c");
+        g.add(1, 2, "ab");
+        g.remove(2);
+        g.add(1, 3);
+        assertNull(g.getLabel(1, 3));
+    }
+
+    @Test
+    public void testIndexedNeighbors() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            d.add();
+        }
+        d.add(1, 4);
+        d.add(1, 2);
+        d.add(1, 5);
+        d.add(3, 2);
+        assertEquals(4, d.successor(1, 0));
+        assertEquals(2, d.successor(1, 1));
+        assertEquals(5, d.successor(1, 2));
+        assertEquals(0, d.successor(1, 3));
+        assertEquals(0, d.successor(9, 0));
+        assertEquals(1, d.predecessor(2, 0));
+        assertEquals(3, d.predecessor(2, 1));
+        assertEquals(0, d.predecessor(2, 2));
+        int[] buf = new int[2];
+        assertEquals(3, d.copySuccessors(1, buf));
+        assertArrayEquals(new int[] { 4, 2 }, buf);
+        assertEquals(2, d.copyPredecessors(2, buf));
+        assertArrayEquals(new int[] { 1, 3 }, buf);
+        Graph f = new GraphFilter(d);
+        assertEquals(5, f.neighbor(1, 2));
+        assertEquals(0, f.copySuccessors(5, buf));
+    }
+
+    @Test
+    public void testIntIterations() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            d.add();
+        }
+        d.remove(2);
+        d.add(1, 4);
+        d.add(1, 3);
+        d.add(3, 4);
+        IntIteration s = d.intSuccessors(1);
+        assertEquals(4, s.nextInt());
+        assertEquals(3, s.nextInt());
+        assertFalse(s.hasNext());
+        IntIteration p = new GraphFilter(d).intPredecessors(4);
+        assertEquals(1, p.nextInt());
+        assertEquals(Integer.valueOf(3), p.next());
+        assertFalse(p.hasNext());
+        IntIteration v = d.intVertices();
+        assertEquals(1, v.nextInt());
+        assertEquals(3, v.nextInt());
+        assertEquals(4, v.nextInt());
+        assertFalse(v.hasNext());
+    }
+
+    @Test
+    public void testUndirectedSelfEdges() {
+        UndirectedGraph u = new UndirectedGraph();
+        for (int i = 0; i < 3; i += 1) {
+            u.add();
+        }
+        u.add(1, 2);
+        int s = u.add(2, 2);
+        u.add(3, 2);
+        assertEquals(s, u.add(2, 2));
+        assertEquals(3, u.degree(2));
+        assertEquals(3, u.inDegree(2));
+        assertEquals(Arrays.asList(1, 2, 3),
+                     FrozenGraphTests.list(u.successors(2)));
+        assertEquals(Arrays.asList(1, 2, 3),
+                     FrozenGraphTests.list(u.predecessors(2)));
+        assertEquals(2, u.successor(2, 1));
+        assertEquals(s, u.successorEdge(2, 1));
+        assertEquals(0, u.successor(2, 3));
+        int[] buf = new int[4];
+        assertEquals(3, u.copySuccessors(2, buf));
+        assertArrayEquals(new int[] { 1, 2, 3, 0 }, buf);
+        assertEquals(3, u.edgeSize());
+        int count = 0;
+        for (int[] e : u.edges()) {
+            if (e[0] == 2 && e[1] == 2) {
+                count += 1;
+            }
+        }
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testUndirectedOtherEnd() {
+        UndirectedGraph u = new UndirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            u.add();
+        }
+        int e = u.add(4, 1), s = u.add(3, 3);
+        assertEquals(1, u.otherEnd(e, 4));
+        assertEquals(4, u.otherEnd(e, 1));
+        assertEquals(3, u.otherEnd(s, 3));
+        assertEquals(e, u.successorEdge(1, 0));
+        assertEquals(e, u.predecessorEdge(4, 0));
+        assertEquals(4, u.successor(1, 0));
+        assertEquals(1, u.predecessor(4, 0));
+    }
+
+    @Test
+    public void testUndirectedRemoveSelfEdgeVertex() {
+        UndirectedGraph u = new UndirectedGraph();
+        for (int i = 0; i < 3; i += 1) {
+            u.add();
+        }
+        u.add(1, 2);
+        u.add(2, 2);
+        u.add(2, 3);
+        u.add(1, 3);
+        u.remove(2);
+        assertFalse(u.contains(2));
+        assertEquals(1, u.edgeSize());
+        assertFalse(u.contains(2, 2));
+        assertEquals(Arrays.asList(3),
+                     FrozenGraphTests.list(u.successors(1)));
+        assertEquals(Arrays.asList(1),
+                     FrozenGraphTests.list(u.successors(3)));
+        assertEquals(2, u.add());
+        assertEquals(0, u.degree(2));
+        u.remove(1, 3);
+        assertEquals(0, u.edgeSize());
+        assertEquals(0, u.degree(1));
+    }
+
+    @Test
+    public void testUndirectedEdgeIdsAfterRemoval() {
+        UndirectedGraph u = new UndirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            u.add();
+        }
+        int a = u.add(1, 2), b = u.add(2, 3), c = u.add(3, 3),
+            d = u.add(3, 4);
+        u.remove(3, 2);
+        assertEquals(0, u.edgeId(2, 3));
+        assertEquals(c, u.edgeId(3, 3));
+        assertEquals(d, u.edgeId(4, 3));
+        u.remove(3);
+        assertEquals(a, u.edgeId(2, 1));
+        assertEquals(1, u.edgeSize());
+        int e = u.add(4, 2);
+        assertTrue(e == b || e == c || e == d);
+        assertEquals(e, u.edgeId(2, 4));
+        assertEquals(e, u.successorEdge(4, 0));
+        assertEquals(e, u.successorEdge(2, 1));
+        assertEquals(Arrays.asList(1, 4),
+                     FrozenGraphTests.list(u.successors(2)));
+        int f = u.add(1, 1);
+        assertTrue(f != a && f != e && f <= 4);
+        assertEquals(3, u.edgeSize());
+    }
 }
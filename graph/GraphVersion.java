@@ -0,0 +1,390 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** One published version of a VersionedGraph: an immutable graph.
+ *  Vertices are held in a radix tree of fan-out FANOUT whose leaves hold
+ *  FANOUT consecutive vertex numbers, each leaf recording which of its
+ *  vertices are present and, for each of them, its successors and
+ *  predecessors with the corresponding edge ids as exact-length arrays
+ *  (an undirected graph keeps only one list per vertex).  Each successor
+ *  also carries the sequence number of its edge, which orders edges by
+ *  when they were added.  A new version
+ *  shares with its predecessor every node and list it did not change, so
+ *  publishing a change copies only the path from the root to the leaves
+ *  involved and the lists that changed (see VersionedGraph).  Nothing
+ *  refers from one version to another, so a version that is no longer
+ *  current nor pinned by a snapshot is reclaimed by the garbage
+ *  collector.  An edge (U, V) is found by scanning the successors of U
+ *  (or the shorter list of U and V, if undirected).
+ *  @author Florence Lau
+ */
+final class GraphVersion {
+
+    /** A version, directed iff DIRECTED, with the tree ROOT of height
+     *  HEIGHT, holding NUMVERTICES vertices, none numbered above
+     *  HIGHESTVERTEX, and NUMEDGES edges, whose sequence number is
+     *  STAMP. */
+    GraphVersion(boolean directed, Node root, int height, int numVertices,
+                 int highestVertex, int numEdges, long stamp) {
+        _directed = directed;
+        _root = root;
+        _height = height;
+        _numVertices = numVertices;
+        _highestVertex = highestVertex;
+        _numEdges = numEdges;
+        _stamp = stamp;
+    }
+
+    /** Returns true iff I am directed. */
+    boolean isDirected() {
+        return _directed;
+    }
+
+    /** Returns my number of vertices. */
+    int vertexSize() {
+        return _numVertices;
+    }
+
+    /** Returns my number of edges. */
+    int edgeSize() {
+        return _numEdges;
+    }
+
+    /** Returns my sequence number, which increases with each version. */
+    long stamp() {
+        return _stamp;
+    }
+
+    /** Returns my largest vertex number, or 0 if I have no vertices. */
+    int maxVertex() {
+        for (int v = _highestVertex; v > 0; v = (v & ~MASK) - 1) {
+            Leaf leaf = leaf(v);
+            if (leaf != null) {
+                long bits = leaf.present & (-1L >>> (MASK - (v & MASK)));
+                if (bits != 0) {
+                    return (v & ~MASK) + 63 - Long.numberOfLeadingZeros(bits);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** Returns true iff V is one of my vertices. */
+    boolean contains(int v) {
+        Leaf leaf = leaf(v);
+        return leaf != null && (leaf.present & (1L << v)) != 0;
+    }
+
+    /** Returns the successors of V, or null if V is not one of my
+     *  vertices.  The result must not be modified. */
+    int[] successors(int v) {
+        Leaf leaf = leaf(v);
+        return leaf == null ? null : leaf.out[v & MASK];
+    }
+
+    /** Returns the predecessors of V, or null if V is not one of my
+     *  vertices.  The result must not be modified. */
+    int[] predecessors(int v) {
+        Leaf leaf = leaf(v);
+        return leaf == null ? null
+            : _directed ? leaf.in[v & MASK] : leaf.out[v & MASK];
+    }
+
+    /** Returns the length of ROW, or 0 if it is null. */
+    static int length(int[] row) {
+        return row == null ? 0 : row.length;
+    }
+
+    /** Returns ROW[K], or 0 if there is no such element. */
+    static int element(int[] row, int k) {
+        return row == null || k < 0 || k >= row.length ? 0 : row[k];
+    }
+
+    /** Copy as much of ROW as fits into DST, and return the length of
+     *  ROW. */
+    static int copy(int[] row, int[] dst) {
+        int n = length(row);
+        if (n > 0) {
+            System.arraycopy(row, 0, dst, 0, Math.min(n, dst.length));
+        }
+        return n;
+    }
+
+    /** Returns an IntIteration over ROW, which may be null. */
+    static IntIteration iteration(int[] row) {
+        return IntIteration.range(row == null ? EMPTY : row, 0, length(row));
+    }
+
+    /** Returns the id of the edge to successor K of V, or 0 if there is
+     *  none. */
+    int successorEdge(int v, int k) {
+        Leaf leaf = leaf(v);
+        return leaf == null ? 0 : element(leaf.outIds[v & MASK], k);
+    }
+
+    /** Returns the id of edge (U, V), or 0 if there is none. */
+    int edgeId(int u, int v) {
+        Leaf lu = leaf(u), lv = leaf(v);
+        if (lu == null || lv == null) {
+            return 0;
+        }
+        int[] row = lu.out[u & MASK];
+        if (row == null) {
+            return 0;
+        }
+        if (!_directed) {
+            int[] other = lv.out[v & MASK];
+            if (other == null) {
+                return 0;
+            }
+            if (other.length < row.length) {
+                int k = indexOf(other, u);
+                return k < 0 ? 0 : lv.outIds[v & MASK][k];
+            }
+        }
+        int k = indexOf(row, v);
+        return k < 0 ? 0 : lu.outIds[u & MASK][k];
+    }
+
+    /** Returns the smallest vertex >= V, or 0 if there is none. */
+    int nextVertex(int v) {
+        while (v <= _highestVertex) {
+            Leaf leaf = leaf(v);
+            if (leaf != null) {
+                long bits = leaf.present & (-1L << v);
+                if (bits != 0) {
+                    return (v & ~MASK) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            v = (v | MASK) + 1;
+        }
+        return 0;
+    }
+
+    /** Returns an iteration over my vertices, in increasing order. */
+    IntIteration vertices() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_next == 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v + 1);
+                return v;
+            }
+
+            /** The next vertex to deliver, or 0 if there is none. */
+            private int _next = nextVertex(1);
+        };
+    }
+
+    /** Returns an iteration over my edges, as for Graph.edges, in the
+     *  order they were added.  As in UndirectedGraph, an undirected edge
+     *  is delivered with its smaller end point first. */
+    Iteration<int[]> edges() {
+        long[] seqs = new long[_numEdges];
+        int[] ends = new int[2 * _numEdges];
+        int n;
+        n = 0;
+        for (int u = nextVertex(1); u != 0; u = nextVertex(u + 1)) {
+            Leaf leaf = leaf(u);
+            int[] row = leaf.out[u & MASK];
+            long[] rowSeqs = leaf.outSeqs[u & MASK];
+            for (int k = 0; k < row.length; k += 1) {
+                if (_directed || row[k] >= u) {
+                    seqs[n] = rowSeqs[k];
+                    ends[2 * n] = u;
+                    ends[2 * n + 1] = row[k];
+                    n += 1;
+                }
+            }
+        }
+        long[] sorted = seqs.clone();
+        Arrays.sort(sorted);
+        int[] ordered = new int[2 * n];
+        for (int i = 0; i < n; i += 1) {
+            int pos = Arrays.binarySearch(sorted, seqs[i]);
+            ordered[2 * pos] = ends[2 * i];
+            ordered[2 * pos + 1] = ends[2 * i + 1];
+        }
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _pos < ordered.length;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = ordered[_pos];
+                _edge[1] = ordered[_pos + 1];
+                _pos += 2;
+                return _edge;
+            }
+
+            /** Position in ordered of the next edge. */
+            private int _pos;
+            /** The array used to return each edge. */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    /** Returns the tree's root. */
+    Node root() {
+        return _root;
+    }
+
+    /** Returns the tree's height: the number of levels of Inner nodes
+     *  above the leaves. */
+    int height() {
+        return _height;
+    }
+
+    /** Returns the largest vertex number that might be present. */
+    int highestVertex() {
+        return _highestVertex;
+    }
+
+    /** Returns the leaf holding vertex V, or null if there is none. */
+    Leaf leaf(int v) {
+        if (v <= 0 || v >= capacity(_height)) {
+            return null;
+        }
+        Node node = _root;
+        for (int level = _height; level > 0 && node != null; level -= 1) {
+            node = ((Inner) node).children[(v >>> (BITS * level)) & MASK];
+        }
+        return (Leaf) node;
+    }
+
+    /** Returns the number of vertex numbers covered by a tree of height
+     *  HEIGHT. */
+    static long capacity(int height) {
+        return 1L << (BITS * (height + 1));
+    }
+
+    /** Returns the index of X in ROW, or -1 if absent. */
+    static int indexOf(int[] row, int x) {
+        for (int k = 0; k < row.length; k += 1) {
+            if (row[k] == x) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /** A node of the tree.  A node may be changed in place only by the
+     *  edit whose token is its owner, before the edit is published. */
+    abstract static class Node {
+        /** A node owned by OWNER. */
+        Node(Object owner) {
+            this.owner = owner;
+        }
+
+        /** Returns a copy of me owned by OWNER. */
+        abstract Node copy(Object owner);
+
+        /** The token of the edit that created me. */
+        final Object owner;
+    }
+
+    /** An interior node. */
+    static final class Inner extends Node {
+        /** An empty node owned by OWNER. */
+        Inner(Object owner) {
+            super(owner);
+            children = new Node[FANOUT];
+        }
+
+        @Override
+        Inner copy(Object owner) {
+            Inner result = new Inner(owner);
+            System.arraycopy(children, 0, result.children, 0, FANOUT);
+            return result;
+        }
+
+        /** My children, indexed by the corresponding digit of the
+         *  vertex number. */
+        final Node[] children;
+    }
+
+    /** A leaf, holding FANOUT consecutive vertex numbers. */
+    static final class Leaf extends Node {
+        /** An empty leaf owned by OWNER, directed iff DIRECTED. */
+        Leaf(Object owner, boolean directed) {
+            super(owner);
+            out = new int[FANOUT][];
+            outIds = new int[FANOUT][];
+            outSeqs = new long[FANOUT][];
+            in = directed ? new int[FANOUT][] : null;
+            inIds = directed ? new int[FANOUT][] : null;
+        }
+
+        @Override
+        Leaf copy(Object owner) {
+            Leaf result = new Leaf(owner, in != null);
+            result.present = present;
+            System.arraycopy(out, 0, result.out, 0, FANOUT);
+            System.arraycopy(outIds, 0, result.outIds, 0, FANOUT);
+            System.arraycopy(outSeqs, 0, result.outSeqs, 0, FANOUT);
+            if (in != null) {
+                System.arraycopy(in, 0, result.in, 0, FANOUT);
+                System.arraycopy(inIds, 0, result.inIds, 0, FANOUT);
+            }
+            return result;
+        }
+
+        /** Bit V is set iff vertex V (modulo FANOUT) is present. */
+        long present;
+        /** Successors (all neighbors, if undirected) of each vertex, or
+         *  null if absent. */
+        final int[][] out;
+        /** Edge ids parallel to out. */
+        final int[][] outIds;
+        /** Edge sequence numbers parallel to out. */
+        final long[][] outSeqs;
+        /** Predecessors of each vertex if directed, else null. */
+        final int[][] in;
+        /** Edge ids parallel to in. */
+        final int[][] inIds;
+    }
+
+    /** Log base 2 of FANOUT. */
+    static final int BITS = 6;
+    /** Number of children of an Inner node, and of vertices in a
+     *  Leaf. */
+    static final int FANOUT = 1 << BITS;
+    /** Selects a digit of a vertex number. */
+    static final int MASK = FANOUT - 1;
+    /** An empty list. */
+    static final int[] EMPTY = new int[0];
+    /** An empty list of sequence numbers. */
+    static final long[] NO_SEQS = new long[0];
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** The root of my tree. */
+    private final Node _root;
+    /** The number of levels of Inner nodes in my tree. */
+    private final int _height;
+    /** Number of vertices. */
+    private final int _numVertices;
+    /** No vertex number exceeds this. */
+    private final int _highestVertex;
+    /** Number of edges. */
+    private final int _numEdges;
+    /** My sequence number. */
+    private final long _stamp;
+}
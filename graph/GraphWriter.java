@@ -0,0 +1,213 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static graph.GraphFormat.*;
+
+/** Writes graphs in the format described by GraphFormat.  The graph is
+ *  streamed to the file one vertex at a time, so that apart from the
+ *  graph itself, only O(maxVertex) memory is needed.
+ *  @author Florence Lau
+ */
+final class GraphWriter {
+
+    /** Size of the output buffer in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** A writer for G. */
+    GraphWriter(Graph G) {
+        _G = G;
+        _maxVertex = G.maxVertex();
+        _outStart = starts(true);
+        _inStart = G.isDirected() ? starts(false) : null;
+        _format = new GraphFormat(G.isDirected(), G.vertexSize(), _maxVertex,
+                                  G.edgeSize(), _outStart[_maxVertex + 1],
+                                  _inStart == null ? 0
+                                  : _inStart[_maxVertex + 1]);
+    }
+
+    /** Returns the layout of the file I write. */
+    GraphFormat format() {
+        return _format;
+    }
+
+    /** Write my graph to FILE, replacing its previous contents. */
+    void write(File file) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(), CREATE,
+                                                TRUNCATE_EXISTING, WRITE)) {
+            write(out);
+        }
+    }
+
+    /** Write my graph to OUT, starting at its current position. */
+    void write(FileChannel out) throws IOException {
+        _out = out;
+        _buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+        _written = 0;
+        ByteBuffer header = _format.header();
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+        _written = HEADER_SIZE;
+
+        seek(BITS);
+        int[] words = new int[(_maxVertex >>> 5) + 1];
+        for (IntIteration vs = _G.intVertices(); vs.hasNext(); ) {
+            int v = vs.nextInt();
+            words[v >>> 5] |= 1 << (v & 31);
+        }
+        putAll(words);
+        seek(OUT_START);
+        putAll(_outStart);
+        seek(OUT_TARGETS);
+        putRows(true, false, false);
+        seek(OUT_IDS);
+        putRows(true, true, false);
+        seek(SORTED_TARGETS);
+        putRows(true, false, true);
+        seek(SORTED_IDS);
+        putRows(true, true, true);
+        if (_inStart != null) {
+            seek(IN_START);
+            putAll(_inStart);
+            seek(IN_SOURCES);
+            putRows(false, false, false);
+        }
+        seek(EDGE_U);
+        for (int[] e : _G.edges()) {
+            put(e[0]);
+        }
+        seek(EDGE_V);
+        for (int[] e : _G.edges()) {
+            put(e[1]);
+        }
+        seek(SECTIONS);
+        flush();
+        _out = null;
+        _buffer = null;
+    }
+
+    /** Record in the header of OUT, to which I have written my graph,
+     *  that the LENGTH bytes following the graph are a label section. */
+    void setLabelsLength(FileChannel out, long length) throws IOException {
+        ByteBuffer header = _format.withLabels(length).header();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += out.write(header, position);
+        }
+    }
+
+    /** Returns the offsets of the successor lists (if SUCCESSORS) or
+     *  predecessor lists of my graph, as described in GraphFormat. */
+    private int[] starts(boolean successors) {
+        int[] start = new int[_maxVertex + 2];
+        long total;
+        total = 0;
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            start[v] = (int) total;
+            total += successors ? _G.outDegree(v) : _G.inDegree(v);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large to write");
+        }
+        start[_maxVertex + 1] = (int) total;
+        return start;
+    }
+
+    /** Write the successor lists (if SUCCESSORS) or predecessor lists of
+     *  all vertices.  Write the ids of the edges to the successors rather
+     *  than the successors themselves if IDS.  Sort each list by vertex
+     *  if SORTED. */
+    private void putRows(boolean successors, boolean ids, boolean sorted)
+        throws IOException {
+        int[] row = new int[0];
+        long[] pairs = new long[0];
+        for (IntIteration vs = _G.intVertices(); vs.hasNext(); ) {
+            int v = vs.nextInt();
+            int n = successors ? _G.outDegree(v) : _G.inDegree(v);
+            if (n > row.length) {
+                row = new int[Math.max(n, 2 * row.length)];
+                pairs = new long[row.length];
+            }
+            if (successors) {
+                _G.copySuccessors(v, row);
+            } else {
+                _G.copyPredecessors(v, row);
+            }
+            for (int k = 0; k < n; k += 1) {
+                int e = ids ? _G.edgeId(v, row[k]) : 0;
+                pairs[k] = ((long) row[k] << 32) | (e & 0xffffffffL);
+            }
+            if (sorted) {
+                Arrays.sort(pairs, 0, n);
+            }
+            for (int k = 0; k < n; k += 1) {
+                put(ids ? (int) pairs[k] : (int) (pairs[k] >>> 32));
+            }
+        }
+    }
+
+    /** Pad the output with zeros up to the start of section S (or the end
+     *  of the file if S is SECTIONS). */
+    private void seek(int s) throws IOException {
+        long target = s == SECTIONS ? _format.size() : _format.offset(s);
+        while (_written < target) {
+            if (!_buffer.hasRemaining()) {
+                flush();
+            }
+            _buffer.put((byte) 0);
+            _written += 1;
+        }
+    }
+
+    /** Write all of VALUES. */
+    private void putAll(int[] values) throws IOException {
+        for (int x : values) {
+            put(x);
+        }
+    }
+
+    /** Write X. */
+    private void put(int x) throws IOException {
+        if (_buffer.remaining() < 4) {
+            flush();
+        }
+        _buffer.putInt(x);
+        _written += 4;
+    }
+
+    /** Write out the contents of the buffer. */
+    private void flush() throws IOException {
+        _buffer.flip();
+        while (_buffer.hasRemaining()) {
+            _out.write(_buffer);
+        }
+        _buffer.clear();
+    }
+
+    /** The graph being written. */
+    private final Graph _G;
+    /** Its largest vertex number. */
+    private final int _maxVertex;
+    /** Offsets of its successor lists. */
+    private final int[] _outStart;
+    /** Offsets of its predecessor lists, or null if it is undirected. */
+    private final int[] _inStart;
+    /** The layout of the output. */
+    private final GraphFormat _format;
+    /** The output channel. */
+    private FileChannel _out;
+    /** Buffered output. */
+    private ByteBuffer _buffer;
+    /** Number of bytes written so far, including those in _buffer. */
+    private long _written;
+}
@@ -0,0 +1,178 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A priority queue of vertex numbers with double priorities, held as a
+ *  4-ary min-heap in an int[] of vertices and a parallel double[] of
+ *  their priorities.  The heap position of each vertex is kept in an
+ *  array indexed by vertex number, so that finding a vertex and changing
+ *  its priority take O(1) and O(log n) time, and no operation creates
+ *  objects beyond occasional growth of the arrays.  A 4-ary heap is
+ *  shallower than a binary one and keeps each node's children adjacent
+ *  in memory, which suits the many priority decreases of a shortest-path
+ *  search.
+ *  @author Florence Lau
+ */
+final class IndexedHeap {
+
+    /** An empty heap. */
+    IndexedHeap() {
+        this(0);
+    }
+
+    /** An empty heap with room for vertices up to MAXVERTEX before it must
+     *  grow. */
+    IndexedHeap(int maxVertex) {
+        _heap = new int[INITIAL_CAPACITY];
+        _keys = new double[INITIAL_CAPACITY];
+        _position = new int[maxVertex + 1];
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Returns true iff vertex V is in me. */
+    boolean contains(int v) {
+        return v < _position.length && _position[v] != 0;
+    }
+
+    /** Returns the priority of vertex V.  Assumes V is in me. */
+    double priority(int v) {
+        return _keys[_position[v] - 1];
+    }
+
+    /** Returns a vertex of smallest priority.  Assumes I am not empty. */
+    int peek() {
+        return _heap[0];
+    }
+
+    /** Returns the smallest priority in me.  Assumes I am not empty. */
+    double minPriority() {
+        return _keys[0];
+    }
+
+    /** Make room for vertices up to MAXVERTEX. */
+    void reserve(int maxVertex) {
+        if (maxVertex >= _position.length) {
+            _position = Arrays.copyOf(_position,
+                                      Math.max(maxVertex + 1,
+                                               2 * _position.length));
+        }
+    }
+
+    /** Add vertex V with priority KEY to me, or, if V is already in me,
+     *  change its priority to KEY. */
+    void put(int v, double key) {
+        reserve(v);
+        int k = _position[v] - 1;
+        if (k < 0) {
+            if (_size == _heap.length) {
+                int n = _size + (_size >> 1) + 1;
+                _heap = Arrays.copyOf(_heap, n);
+                _keys = Arrays.copyOf(_keys, n);
+            }
+            k = _size;
+            _size += 1;
+            siftUp(k, v, key);
+        } else if (key < _keys[k]) {
+            siftUp(k, v, key);
+        } else {
+            siftDown(k, v, key);
+        }
+    }
+
+    /** Remove and return a vertex of smallest priority.  Assumes I am not
+     *  empty. */
+    int removeMin() {
+        int result = _heap[0];
+        _position[result] = 0;
+        _size -= 1;
+        if (_size > 0) {
+            siftDown(0, _heap[_size], _keys[_size]);
+        }
+        return result;
+    }
+
+    /** Remove all my vertices. */
+    void clear() {
+        for (int k = 0; k < _size; k += 1) {
+            _position[_heap[k]] = 0;
+        }
+        _size = 0;
+    }
+
+    /** Place vertex V with priority KEY at position K or above, moving
+     *  down the ancestors of K whose priorities exceed KEY. */
+    private void siftUp(int k, int v, double key) {
+        while (k > 0) {
+            int parent = (k - 1) >> 2;
+            if (_keys[parent] <= key) {
+                break;
+            }
+            move(parent, k);
+            k = parent;
+        }
+        place(k, v, key);
+    }
+
+    /** Place vertex V with priority KEY at position K or below, moving up
+     *  the smallest children whose priorities are below KEY. */
+    private void siftDown(int k, int v, double key) {
+        while (true) {
+            int first = 4 * k + 1;
+            if (first >= _size) {
+                break;
+            }
+            int child = first;
+            int last = Math.min(first + 4, _size);
+            for (int c = first + 1; c < last; c += 1) {
+                if (_keys[c] < _keys[child]) {
+                    child = c;
+                }
+            }
+            if (key <= _keys[child]) {
+                break;
+            }
+            move(child, k);
+            k = child;
+        }
+        place(k, v, key);
+    }
+
+    /** Move the vertex at position FROM to position TO. */
+    private void move(int from, int to) {
+        int v = _heap[from];
+        _heap[to] = v;
+        _keys[to] = _keys[from];
+        _position[v] = to + 1;
+    }
+
+    /** Put vertex V with priority KEY at position K. */
+    private void place(int k, int v, double key) {
+        _heap[k] = v;
+        _keys[k] = key;
+        _position[v] = k + 1;
+    }
+
+    /** Initial size of _heap and _keys. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The vertices, in heap order, in _heap[0 .. _size-1]. */
+    private int[] _heap;
+    /** The priorities of the vertices in _heap, at the same positions. */
+    private double[] _keys;
+    /** _position[V] is 1 + the position of vertex V in _heap, or 0 if V is
+     *  not in me. */
+    private int[] _position;
+    /** Number of vertices in me. */
+    private int _size;
+}
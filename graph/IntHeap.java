@@ -0,0 +1,88 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A priority queue of ints held as a binary min-heap in a single int[].
+ *  Adding an element and removing the smallest one take O(log n) time and
+ *  create no objects beyond occasional growth of the array.
+ *  @author Florence Lau
+ */
+final class IntHeap {
+
+    /** An empty heap. */
+    IntHeap() {
+        _heap = new int[INITIAL_CAPACITY];
+    }
+
+    /** Returns the number of elements in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Returns my smallest element.  Assumes I am not empty. */
+    int peek() {
+        return _heap[0];
+    }
+
+    /** Add X to me. */
+    void add(int x) {
+        if (_size == _heap.length) {
+            _heap = Arrays.copyOf(_heap, _size + (_size >> 1) + 1);
+        }
+        int k = _size;
+        _size += 1;
+        while (k > 0) {
+            int parent = (k - 1) >> 1;
+            if (_heap[parent] <= x) {
+                break;
+            }
+            _heap[k] = _heap[parent];
+            k = parent;
+        }
+        _heap[k] = x;
+    }
+
+    /** Remove and return my smallest element.  Assumes I am not empty. */
+    int removeMin() {
+        int result = _heap[0];
+        _size -= 1;
+        int x = _heap[_size];
+        int k = 0;
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= _size) {
+                break;
+            }
+            if (child + 1 < _size && _heap[child + 1] < _heap[child]) {
+                child += 1;
+            }
+            if (x <= _heap[child]) {
+                break;
+            }
+            _heap[k] = _heap[child];
+            k = child;
+        }
+        _heap[k] = x;
+        return result;
+    }
+
+    /** Remove all my elements. */
+    void clear() {
+        _size = 0;
+    }
+
+    /** Initial size of _heap. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** The heap, in _heap[0 .. _size-1]. */
+    private int[] _heap;
+    /** Number of elements in me. */
+    private int _size;
+}
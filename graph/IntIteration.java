@@ -0,0 +1,131 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** An Iteration<Integer> that can also deliver its values as unboxed ints
+ *  via nextInt().  Loops that use hasNext() and nextInt() directly, as in
+ *      for (IntIteration s = G.intSuccessors(v); s.hasNext(); ) {
+ *          int w = s.nextInt();
+ *          ...
+ *      }
+ *  create no Integer objects.  An IntIteration may still be used in a
+ *  foreach loop, in which case its values are boxed as usual.
+ *  @author Florence Lau
+ */
+public abstract class IntIteration extends Iteration<Integer> {
+
+    /** Returns the next value, as for next(), but without boxing it. */
+    public abstract int nextInt();
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    /** An IntIteration that unboxes the values of another Iterator. */
+    private static class Unboxing extends IntIteration {
+        /** An IntIteration delivering the values of ITER. */
+        Unboxing(Iterator<Integer> iter) {
+            _iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _iter.hasNext();
+        }
+
+        @Override
+        public int nextInt() {
+            return _iter.next();
+        }
+
+        /** The iterator with which I was constructed. */
+        private final Iterator<Integer> _iter;
+    }
+
+    /** An IntIteration over the set bits of a BitSet. */
+    private static class Bits extends IntIteration {
+        /** An IntIteration over the bits of SET whose indices are at
+         *  least FIRST, in increasing order. */
+        Bits(BitSet set, int first) {
+            _set = set;
+            _next = set.nextSetBit(first);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (_next < 0) {
+                throw new NoSuchElementException();
+            }
+            int v = _next;
+            _next = _set.nextSetBit(v + 1);
+            return v;
+        }
+
+        /** The set being iterated over. */
+        private final BitSet _set;
+        /** The next index to deliver, or -1 if there is none. */
+        private int _next;
+    }
+
+    /** An IntIteration over a segment of an int[]. */
+    private static class Range extends IntIteration {
+        /** An IntIteration over DATA[FROM .. TO-1]. */
+        Range(int[] data, int from, int to) {
+            _data = data;
+            _next = from;
+            _end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next < _end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (_next >= _end) {
+                throw new NoSuchElementException();
+            }
+            _next += 1;
+            return _data[_next - 1];
+        }
+
+        /** The array being iterated over. */
+        private final int[] _data;
+        /** Index of the next value to deliver. */
+        private int _next;
+        /** Index just past the last value to deliver. */
+        private final int _end;
+    }
+
+    /** Returns an IntIteration over the indices of the set bits of SET
+     *  that are at least FIRST, in increasing order.  SET should not
+     *  change during the iteration. */
+    static IntIteration bits(BitSet set, int first) {
+        return new Bits(set, first);
+    }
+
+    /** Returns an IntIteration over DATA[FROM .. TO-1]. */
+    static IntIteration range(int[] data, int from, int to) {
+        return new Range(data, from, to);
+    }
+
+    /** Returns an IntIteration that delivers the values of IT. */
+    static IntIteration intIteration(Iterator<Integer> it) {
+        if (it instanceof IntIteration) {
+            return (IntIteration) it;
+        }
+        return new Unboxing(it);
+    }
+
+}
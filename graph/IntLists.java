@@ -0,0 +1,159 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A collection of growable lists of ints, indexed by non-negative
+ *  integers (typically vertex numbers).  Each list keeps its elements in
+ *  the order they were added and is stored as a single int[] row, so that
+ *  an element costs four bytes plus amortized growth slack, rather than a
+ *  boxed Integer and a list node.  Lists that have never been added to
+ *  occupy no space beyond one null reference.
+ *  @author Florence Lau
+ */
+final class IntLists {
+
+    /** An empty collection of lists. */
+    IntLists() {
+        _rows = new int[INITIAL_ROWS][];
+        _sizes = new int[INITIAL_ROWS];
+    }
+
+    /** Returns the number of elements in list V, or 0 if there is no
+     *  such list. */
+    int size(int v) {
+        return v >= 0 && v < _sizes.length ? _sizes[v] : 0;
+    }
+
+    /** Returns element K of list V, numbering from 0.  Assumes
+     *  0 <= K < size(V). */
+    int get(int v, int k) {
+        return _rows[v][k];
+    }
+
+    /** Returns the storage for list V (possibly null, and possibly longer
+     *  than size(V)).  Only the first size(V) elements are meaningful.
+     *  The result is invalidated by any modification of list V. */
+    int[] row(int v) {
+        return v >= 0 && v < _rows.length ? _rows[v] : null;
+    }
+
+    /** Append X to list V. */
+    void add(int v, int x) {
+        ensureIndex(v);
+        int[] row = _rows[v];
+        int n = _sizes[v];
+        if (row == null) {
+            row = _rows[v] = new int[INITIAL_ROW_CAPACITY];
+        } else if (n == row.length) {
+            row = _rows[v] = Arrays.copyOf(row, n + (n >> 1) + 1);
+        }
+        row[n] = x;
+        _sizes[v] = n + 1;
+    }
+
+    /** Make the first N elements of ROW the contents of list V, replacing
+     *  its previous contents.  I take ownership of ROW, which may be null
+     *  if N is 0. */
+    void set(int v, int[] row, int n) {
+        ensureIndex(v);
+        _rows[v] = row;
+        _sizes[v] = n;
+    }
+
+    /** Returns the index of the first occurrence of X in list V, or -1
+     *  if there is none. */
+    int indexOf(int v, int x) {
+        int n = size(v);
+        if (n == 0) {
+            return -1;
+        }
+        int[] row = _rows[v];
+        for (int k = 0; k < n; k += 1) {
+            if (row[k] == x) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /** Remove element K of list V, preserving the order of the
+     *  remaining elements.  Assumes 0 <= K < size(V). */
+    void removeAt(int v, int k) {
+        int[] row = _rows[v];
+        int n = _sizes[v] - 1;
+        System.arraycopy(row, k + 1, row, k, n - k);
+        _sizes[v] = n;
+    }
+
+    /** Remove the first occurrence of X from list V, if present.  Returns
+     *  true iff X was found. */
+    boolean remove(int v, int x) {
+        int k = indexOf(v, x);
+        if (k < 0) {
+            return false;
+        }
+        removeAt(v, k);
+        return true;
+    }
+
+    /** Remove all elements of list V and release its storage. */
+    void clear(int v) {
+        if (v >= 0 && v < _rows.length) {
+            _rows[v] = null;
+            _sizes[v] = 0;
+        }
+    }
+
+    /** Returns a copy of the contents of list V. */
+    int[] toArray(int v) {
+        int n = size(v);
+        return n == 0 ? EMPTY : Arrays.copyOf(_rows[v], n);
+    }
+
+    /** Returns an iteration over the elements of list V, which sees any
+     *  later changes to that list. */
+    IntIteration iteration(int v) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < size(v);
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return _rows[v][_k - 1];
+            }
+
+            /** Index of the next element to deliver. */
+            private int _k;
+        };
+    }
+
+    /** Make sure that list V has an entry in _rows and _sizes. */
+    private void ensureIndex(int v) {
+        if (v >= _rows.length) {
+            int n = Math.max(v + 1, _rows.length + (_rows.length >> 1));
+            _rows = Arrays.copyOf(_rows, n);
+            _sizes = Arrays.copyOf(_sizes, n);
+        }
+    }
+
+    /** Initial number of list slots. */
+    private static final int INITIAL_ROWS = 16;
+    /** Capacity of a list when first added to. */
+    private static final int INITIAL_ROW_CAPACITY = 4;
+    /** An empty array. */
+    private static final int[] EMPTY = new int[0];
+
+    /** Storage for each list, indexed by list number. */
+    private int[][] _rows;
+    /** Number of elements in each list. */
+    private int[] _sizes;
+}
@@ -0,0 +1,62 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/** Converts labels of type T to and from bytes, so that the labels of a
+ *  LabeledGraph may be saved along with its structure (see
+ *  LabeledGraph.write and LabeledGraph.read).  Labels are never null
+ *  when passed to write.
+ *  @author Florence Lau
+ */
+public interface LabelCodec<T> {
+
+    /** Write LABEL to OUT. */
+    void write(T label, DataOutput out) throws IOException;
+
+    /** Returns a label read from IN, which must have been written by
+     *  write. */
+    T read(DataInput in) throws IOException;
+
+    /** Encodes Strings in modified UTF-8 (see DataOutput.writeUTF). */
+    LabelCodec<String> STRINGS = new LabelCodec<String>() {
+        @Override
+        public void write(String label, DataOutput out) throws IOException {
+            out.writeUTF(label);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    /** Encodes Integers in 4 bytes. */
+    LabelCodec<Integer> INTEGERS = new LabelCodec<Integer>() {
+        @Override
+        public void write(Integer label, DataOutput out) throws IOException {
+            out.writeInt(label);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    /** Encodes Doubles in 8 bytes. */
+    LabelCodec<Double> DOUBLES = new LabelCodec<Double>() {
+        @Override
+        public void write(Double label, DataOutput out) throws IOException {
+            out.writeDouble(label);
+        }
+
+        @Override
+        public Double read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+}
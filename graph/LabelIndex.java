@@ -0,0 +1,131 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.function.Function;
+
+/** A hash table from keys extracted from vertex labels to the vertices
+ *  carrying them, for LabeledGraph.find.  As in EdgeIndex, only vertex
+ *  numbers are stored here (with the hash code of each key, so that
+ *  probes rarely need to extract a key): the labels are kept by the owner
+ *  in a LabelMap passed to each operation, and a key is recomputed from
+ *  its label when needed, so that each key (typically a name String
+ *  already held by the label) is stored once.  Uses open addressing with
+ *  linear probing and backward-shift deletion.
+ *  @author Florence Lau
+ */
+final class LabelIndex<VL> {
+
+    /** An empty index of the keys extracted from labels by KEY. */
+    LabelIndex(Function<? super VL, ?> key) {
+        _key = key;
+        _ids = new int[MIN_CAPACITY];
+        _hashes = new int[MIN_CAPACITY];
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns the key of LABEL, or null if LABEL is null. */
+    Object keyOf(VL label) {
+        return label == null ? null : _key.apply(label);
+    }
+
+    /** Returns the vertex whose label in LABELS has key KEY, or 0 if
+     *  there is none. */
+    int get(Object key, LabelMap<? extends VL> labels) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        int mask = _ids.length - 1;
+        for (int i = slot(h, mask); _ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (_hashes[i] == h
+                && key.equals(keyOf(labels.get(_ids[i])))) {
+                return _ids[i];
+            }
+        }
+        return 0;
+    }
+
+    /** Add vertex V, whose label has non-null key KEY, which no vertex in
+     *  me has. */
+    void put(int v, Object key) {
+        if (2 * (_size + 1) > _ids.length) {
+            resize(2 * _ids.length);
+        }
+        insert(v, key.hashCode());
+        _size += 1;
+    }
+
+    /** Remove vertex V, whose label has key KEY, if it is present. */
+    void remove(int v, Object key) {
+        if (key == null) {
+            return;
+        }
+        int mask = _ids.length - 1;
+        int i;
+        for (i = slot(key.hashCode(), mask); _ids[i] != v;
+             i = (i + 1) & mask) {
+            if (_ids[i] == EMPTY) {
+                return;
+            }
+        }
+        int hole = i;
+        for (int j = (i + 1) & mask; _ids[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(_hashes[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                _ids[hole] = _ids[j];
+                _hashes[hole] = _hashes[j];
+                hole = j;
+            }
+        }
+        _ids[hole] = EMPTY;
+        _size -= 1;
+    }
+
+    /** Add V with hash code H to a free slot of the table. */
+    private void insert(int v, int h) {
+        int mask = _ids.length - 1;
+        int i;
+        for (i = slot(h, mask); _ids[i] != EMPTY; i = (i + 1) & mask) {
+            continue;
+        }
+        _ids[i] = v;
+        _hashes[i] = h;
+    }
+
+    /** Rehash my contents into a table of size CAPACITY, a power of 2. */
+    private void resize(int capacity) {
+        int[] ids = _ids, hashes = _hashes;
+        _ids = new int[capacity];
+        _hashes = new int[capacity];
+        for (int j = 0; j < ids.length; j += 1) {
+            if (ids[j] != EMPTY) {
+                insert(ids[j], hashes[j]);
+            }
+        }
+    }
+
+    /** Returns the home slot of hash code H in a table with mask MASK. */
+    private static int slot(int h, int mask) {
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** Marks an unused slot.  Vertex numbers are positive. */
+    private static final int EMPTY = 0;
+    /** Smallest table size.  Must be a power of 2. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Extracts the key from a label. */
+    private final Function<? super VL, ?> _key;
+    /** Vertex numbers, or EMPTY. */
+    private int[] _ids;
+    /** The hash codes of the keys of the vertices in _ids. */
+    private int[] _hashes;
+    /** Number of entries in use. */
+    private int _size;
+}
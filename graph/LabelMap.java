@@ -0,0 +1,213 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A map from positive int keys (vertex numbers or edge ids) to non-null
+ *  values of type T, whose memory is proportional to the number of
+ *  entries rather than to the largest key.  While the keys in use fill
+ *  at least a quarter of their range, the values are kept in a dense
+ *  array indexed by key.  Otherwise they are kept in a hash table using
+ *  open addressing with linear probing on an int[] of keys and a parallel
+ *  array of values.  The representation switches whenever the fill ratio
+ *  crosses these bounds, with enough slack between them that switching
+ *  back and forth takes amortized constant time.
+ *  @author Florence Lau
+ */
+@SuppressWarnings("unchecked")
+final class LabelMap<T> {
+
+    /** An empty map. */
+    LabelMap() {
+        _keys = new int[MIN_CAPACITY];
+        _values = new Object[MIN_CAPACITY];
+    }
+
+    /** Returns the number of entries in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns true iff my values are held in a dense array. */
+    boolean isDense() {
+        return _keys == null;
+    }
+
+    /** Returns the value at KEY, or null if there is none. */
+    T get(int key) {
+        if (isDense()) {
+            return key >= 0 && key < _values.length ? (T) _values[key] : null;
+        }
+        int i = find(key);
+        return i < 0 ? null : (T) _values[i];
+    }
+
+    /** Set the value at KEY, which must be positive, to VALUE, or remove
+     *  any value at KEY if VALUE is null. */
+    void put(int key, T value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("key must be positive");
+        } else if (value == null) {
+            remove(key);
+        } else if (isDense()) {
+            if (key >= _values.length) {
+                if (SPARSE_RATIO * (_size + 1L) < key + 1L) {
+                    toSparse();
+                    put(key, value);
+                    return;
+                }
+                int n = _values.length;
+                _values = Arrays.copyOf(_values,
+                                        Math.max(key + 1, n + (n >> 1)));
+            }
+            if (_values[key] == null) {
+                _size += 1;
+            }
+            _values[key] = value;
+        } else {
+            int i = find(key);
+            if (i >= 0) {
+                _values[i] = value;
+                return;
+            }
+            _maxKey = Math.max(_maxKey, key);
+            if (DENSE_RATIO * (_size + 1L) >= _maxKey + 1L) {
+                toDense();
+                put(key, value);
+                return;
+            }
+            if (2 * (_size + 1) > _keys.length) {
+                rehash(2 * _keys.length);
+            }
+            insert(key, value);
+            _size += 1;
+        }
+    }
+
+    /** Remove any value at KEY. */
+    void remove(int key) {
+        if (isDense()) {
+            if (key >= 0 && key < _values.length && _values[key] != null) {
+                _values[key] = null;
+                _size -= 1;
+                if (SPARSE_RATIO * (long) _size < _values.length
+                    && _values.length > MIN_CAPACITY) {
+                    toSparse();
+                }
+            }
+            return;
+        }
+        int i = find(key);
+        if (i < 0) {
+            return;
+        }
+        int mask = _keys.length - 1;
+        int hole = i;
+        for (int j = (i + 1) & mask; _keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(_keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                _keys[hole] = _keys[j];
+                _values[hole] = _values[j];
+                hole = j;
+            }
+        }
+        _keys[hole] = EMPTY;
+        _values[hole] = null;
+        _size -= 1;
+    }
+
+    /** Returns the slot holding KEY in the hash table, or -1 if there is
+     *  none. */
+    private int find(int key) {
+        int mask = _keys.length - 1;
+        for (int i = slot(key, mask); _keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Add KEY, which is not present, with VALUE to the hash table, which
+     *  has room for it. */
+    private void insert(int key, Object value) {
+        int mask = _keys.length - 1;
+        int i;
+        for (i = slot(key, mask); _keys[i] != EMPTY; i = (i + 1) & mask) {
+            continue;
+        }
+        _keys[i] = key;
+        _values[i] = value;
+    }
+
+    /** Rebuild the hash table with CAPACITY slots, a power of 2. */
+    private void rehash(int capacity) {
+        int[] keys = _keys;
+        Object[] values = _values;
+        _keys = new int[capacity];
+        _values = new Object[capacity];
+        for (int j = 0; j < keys.length; j += 1) {
+            if (keys[j] != EMPTY) {
+                insert(keys[j], values[j]);
+            }
+        }
+    }
+
+    /** Switch from the hash table to a dense array. */
+    private void toDense() {
+        Object[] dense = new Object[_maxKey + 1];
+        for (int j = 0; j < _keys.length; j += 1) {
+            if (_keys[j] != EMPTY) {
+                dense[_keys[j]] = _values[j];
+            }
+        }
+        _keys = null;
+        _values = dense;
+    }
+
+    /** Switch from a dense array to a hash table. */
+    private void toSparse() {
+        Object[] dense = _values;
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * (_size + 1)) {
+            capacity *= 2;
+        }
+        _keys = new int[capacity];
+        _values = new Object[capacity];
+        _maxKey = 0;
+        for (int key = 0; key < dense.length; key += 1) {
+            if (dense[key] != null) {
+                insert(key, dense[key]);
+                _maxKey = key;
+            }
+        }
+    }
+
+    /** Returns the home slot of KEY in a table with mask MASK. */
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** Marks an unused slot of the hash table.  Keys are positive. */
+    private static final int EMPTY = 0;
+    /** Smallest hash table size.  Must be a power of 2. */
+    private static final int MIN_CAPACITY = 8;
+    /** Switch to a dense array when at least one key in DENSE_RATIO of
+     *  the range of keys is in use. */
+    private static final int DENSE_RATIO = 4;
+    /** Switch to a hash table when fewer than one key in SPARSE_RATIO of
+     *  the dense array is in use. */
+    private static final int SPARSE_RATIO = 16;
+
+    /** The keys of the hash table, or null if I am dense. */
+    private int[] _keys;
+    /** The values of the hash table, parallel to _keys, or the dense
+     *  array of values, indexed by key. */
+    private Object[] _values;
+    /** Number of entries. */
+    private int _size;
+    /** The largest key in the hash table (not reduced by removals). */
+    private int _maxKey;
+}
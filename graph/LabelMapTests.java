@@ -0,0 +1,162 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for LabelMap, LabelIndex, and the label storage of
+ *  LabeledGraph.
+ *  @author Florence Lau
+ */
+public class LabelMapTests {
+
+    @Test
+    public void testDenseAndSparse() {
+        LabelMap<String> map = new LabelMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+        assertTrue(map.isDense());
+        map.put(1_000_000, "c");
+        assertFalse(map.isDense());
+        assertEquals(3, map.size());
+        assertEquals("a", map.get(1));
+        assertEquals("b", map.get(2));
+        assertEquals("c", map.get(1_000_000));
+        assertNull(map.get(3));
+        for (int k = 3; k <= 400_000; k += 1) {
+            map.put(k, "x");
+        }
+        assertTrue(map.isDense());
+        assertEquals("c", map.get(1_000_000));
+        for (int k = 1; k <= 400_000; k += 1) {
+            map.remove(k);
+        }
+        assertFalse(map.isDense());
+        assertEquals(1, map.size());
+        assertEquals("c", map.get(1_000_000));
+        assertNull(map.get(7));
+    }
+
+    @Test
+    public void testNullRemoves() {
+        LabelMap<Integer> map = new LabelMap<>();
+        map.put(5, 5);
+        map.put(5, null);
+        assertEquals(0, map.size());
+        assertNull(map.get(5));
+        map.remove(6);
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testRandom() {
+        Random rand = new Random(61);
+        LabelMap<Integer> map = new LabelMap<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i += 1) {
+            int range = (i / 20_000) % 2 == 0 ? 1000 : 10_000_000;
+            int key = 1 + rand.nextInt(range);
+            if (rand.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expected.size(), map.size());
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    public void testHighIdLabels() {
+        LabeledGraph<String, String> G =
+            new LabeledGraph<>(new DirectedGraph());
+        int[] v = new int[1000];
+        for (int i = 0; i < v.length; i += 1) {
+            v[i] = G.add();
+        }
+        for (int i = 1; i < v.length; i += 1) {
+            G.add(v[i - 1], v[i]);
+        }
+        G.setLabel(v[999], "last");
+        G.setLabel(v[998], v[999], "e");
+        assertEquals("last", G.getLabel(v[999]));
+        assertNull(G.getLabel(v[500]));
+        assertEquals("e", G.getLabel(v[998], v[999]));
+        assertNull(G.getLabel(v[0], v[1]));
+        G.remove(v[999]);
+        int w = G.add();
+        assertNull(G.getLabel(w));
+    }
+
+    @Test
+    public void testZeroKey() {
+        LabelMap<String> map = new LabelMap<>();
+        map.put(1_000_000, "a");
+        assertFalse(map.isDense());
+        try {
+            map.put(0, "b");
+            fail("zero key accepted");
+        } catch (IllegalArgumentException excp) {
+            assertEquals(1, map.size());
+        }
+        LabeledGraph<Void, String> G =
+            new LabeledGraph<>(new UndirectedGraph());
+        G.add();
+        G.add();
+        assertEquals(0, G.add(1, 3, "missing"));
+        int e = G.add(1, 2, "e");
+        assertEquals("e", G.getLabel(1, 2));
+        assertEquals(1, G.edgeSize());
+        assertTrue(e > 0);
+    }
+
+    @Test
+    public void testLabelIndex() {
+        LabeledGraph<String, Void> G =
+            new LabeledGraph<>(new UndirectedGraph());
+        int a = G.add("a"), b = G.add("b");
+        G.indexLabels(s -> s.toUpperCase());
+        assertEquals(a, G.find("A"));
+        assertEquals(b, G.find("B"));
+        assertEquals(0, G.find("a"));
+        int[] v = new int[2000];
+        for (int i = 0; i < v.length; i += 1) {
+            v[i] = G.add("v" + i);
+        }
+        for (int i = 0; i < v.length; i += 2) {
+            G.remove(v[i]);
+        }
+        G.setLabel(a, "c");
+        G.setLabel(b, null);
+        assertEquals(0, G.find("A"));
+        assertEquals(0, G.find("B"));
+        assertEquals(a, G.find("C"));
+        for (int i = 0; i < v.length; i += 1) {
+            assertEquals(i % 2 == 0 ? 0 : v[i], G.find("V" + i));
+        }
+        G.setLabel(v[1], "V1");
+        assertEquals(v[1], G.find("V1"));
+        try {
+            G.add("v3");
+            fail("duplicate key accepted");
+        } catch (IllegalArgumentException excp) {
+            assertEquals(v.length / 2 + 2, G.vertexSize());
+        }
+        try {
+            G.setLabel(a, "v3");
+            fail("duplicate key accepted");
+        } catch (IllegalArgumentException excp) {
+            assertEquals("c", G.getLabel(a));
+        }
+    }
+}
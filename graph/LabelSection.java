@@ -0,0 +1,155 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/** Writes and reads the label section of a graph file (see GraphFormat).
+ *  Unlike the rest of the file, the label section is in the big-endian
+ *  order of DataOutput.  It consists of
+ *      two longs:       the lengths in bytes of the vertex and edge parts;
+ *      the vertex part: an int count followed by that many records, each
+ *                       a vertex V followed by its label;
+ *      the edge part:   an int count followed by that many records, each
+ *                       the end points U and V of an edge followed by its
+ *                       label.
+ *  Each label is encoded by a LabelCodec.  Only non-null labels are
+ *  recorded.  The lengths allow a reader to skip either part.
+ *  @author Florence Lau
+ */
+final class LabelSection {
+
+    /** Size of the stream buffers in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Size of the pair of lengths at the start of the section. */
+    private static final int LENGTHS_SIZE = 16;
+
+    /** Write the labels of G to OUT, after the graph written to it by
+     *  WRITER, and record the section in the header.  Encode vertex
+     *  labels with VCODEC and edge labels with ECODEC; if either is null,
+     *  the corresponding labels are omitted. */
+    static <VL, EL> void write(FileChannel out, GraphWriter writer,
+                               LabeledGraph<VL, EL> G,
+                               LabelCodec<? super VL> vcodec,
+                               LabelCodec<? super EL> ecodec)
+        throws IOException {
+        long start = writer.format().size();
+        out.position(start + LENGTHS_SIZE);
+        DataOutputStream data =
+            new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(out), BUFFER_SIZE));
+
+        int count;
+        count = 0;
+        if (vcodec != null) {
+            for (IntIteration vs = G.intVertices(); vs.hasNext(); ) {
+                if (G.getLabel(vs.nextInt()) != null) {
+                    count += 1;
+                }
+            }
+        }
+        data.writeInt(count);
+        for (IntIteration vs = G.intVertices(); count > 0 && vs.hasNext(); ) {
+            int v = vs.nextInt();
+            VL lab = G.getLabel(v);
+            if (lab != null) {
+                data.writeInt(v);
+                vcodec.write(lab, data);
+            }
+        }
+        data.flush();
+        long vertexBytes = out.position() - start - LENGTHS_SIZE;
+
+        count = 0;
+        if (ecodec != null) {
+            for (int[] e : G.edges()) {
+                if (G.getLabel(e[0], e[1]) != null) {
+                    count += 1;
+                }
+            }
+        }
+        data.writeInt(count);
+        if (count > 0) {
+            for (int[] e : G.edges()) {
+                EL lab = G.getLabel(e[0], e[1]);
+                if (lab != null) {
+                    data.writeInt(e[0]);
+                    data.writeInt(e[1]);
+                    ecodec.write(lab, data);
+                }
+            }
+        }
+        data.flush();
+        long edgeBytes = out.position() - start - LENGTHS_SIZE - vertexBytes;
+
+        ByteBuffer lengths = ByteBuffer.allocate(LENGTHS_SIZE);
+        lengths.putLong(vertexBytes).putLong(edgeBytes).flip();
+        long position = start;
+        while (lengths.hasRemaining()) {
+            position += out.write(lengths, position);
+        }
+        writer.setLabelsLength(out, LENGTHS_SIZE + vertexBytes + edgeBytes);
+    }
+
+    /** Set the labels of G, which must have the structure of the graph in
+     *  the file open on IN, from the label section of that file, whose
+     *  layout is FORMAT.  Decode vertex labels with VCODEC and edge labels
+     *  with ECODEC; if either is null, the corresponding labels are
+     *  skipped.  Has no effect if the file has no label section. */
+    static <VL, EL> void read(FileChannel in, GraphFormat format,
+                              LabeledGraph<VL, EL> G,
+                              LabelCodec<? extends VL> vcodec,
+                              LabelCodec<? extends EL> ecodec)
+        throws IOException {
+        if (format.labelsLength() == 0) {
+            return;
+        }
+        long start = format.size();
+        ByteBuffer lengths = ByteBuffer.allocate(LENGTHS_SIZE);
+        while (lengths.hasRemaining()
+               && in.read(lengths, start + lengths.position()) >= 0) {
+            continue;
+        }
+        long vertexBytes = lengths.getLong(0);
+        if (vertexBytes < 0
+            || LENGTHS_SIZE + vertexBytes + lengths.getLong(8)
+               != format.labelsLength()) {
+            throw new IOException("corrupt label section");
+        }
+
+        try {
+            if (vcodec != null) {
+                DataInputStream data = stream(in, start + LENGTHS_SIZE);
+                for (int n = data.readInt(); n > 0; n -= 1) {
+                    int v = data.readInt();
+                    G.setLabel(v, vcodec.read(data));
+                }
+            }
+            if (ecodec != null) {
+                DataInputStream data =
+                    stream(in, start + LENGTHS_SIZE + vertexBytes);
+                for (int n = data.readInt(); n > 0; n -= 1) {
+                    int u = data.readInt(), v = data.readInt();
+                    G.setLabel(u, v, ecodec.read(data));
+                }
+            }
+        } catch (IllegalArgumentException excp) {
+            throw new IOException("label section does not match graph");
+        }
+    }
+
+    /** Returns a buffered stream reading IN from byte POSITION. */
+    private static DataInputStream stream(FileChannel in, long position)
+        throws IOException {
+        in.position(position);
+        return new DataInputStream(new BufferedInputStream(
+            Channels.newInputStream(in), BUFFER_SIZE));
+    }
+}
@@ -2,10 +2,35 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /** A Graph whose vertices are labeled with type VL and whose edges are
  *  labeled with type EL.
+ *
+ *  In addition, vertices and edges may carry any number of named property
+ *  columns (see PropertyColumn), keyed by vertex number and by edge id
+ *  (see edgeKey) respectively.  The values of a removed vertex or edge
+ *  revert to their columns' defaults.  Every edge has a weight, kept in
+ *  the edge column WEIGHT, for use by weighted algorithms such as
+ *  WeightedShortestPaths.
+ *
+ *  Vertices may also be found by their labels, once a way of extracting a
+ *  key from each label has been supplied to indexLabels.
+ *
+ *  Searches of a LabeledGraph pin and read its underlying graph (see
+ *  Graph.pin), so that a search over a VersionedGraph sees one version
+ *  throughout.  To hide edges from searches, wrap the underlying graph in
+ *  a GraphFilter rather than overriding my adjacency methods.
  *  @author P. N. Hilfinger
  */
 public class LabeledGraph<VL, EL> extends GraphFilter {
@@ -16,13 +41,47 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  constructor. */
     public LabeledGraph(Graph G) {
         super(G);
+        addEdgeProperty(_weights);
+    }
+
+    /** Returns the labeled graph saved in FILE by write.  If MAPPED, the
+     *  graph structure is a MappedGraph over FILE; otherwise it is read
+     *  in bulk into a FrozenGraph (see FrozenGraph.read).  Either way, the
+     *  result may be labeled, but not otherwise modified.  Vertex labels
+     *  are decoded by VCODEC and edge labels by ECODEC; if either is null,
+     *  the corresponding labels are left null. */
+    public static <VL, EL> LabeledGraph<VL, EL> read(
+        File file, LabelCodec<? extends VL> vcodec,
+        LabelCodec<? extends EL> ecodec, boolean mapped) throws IOException {
+        Graph G = mapped ? new MappedGraph(file) : FrozenGraph.read(file);
+        LabeledGraph<VL, EL> result = new LabeledGraph<>(G);
+        try (FileChannel in = FileChannel.open(file.toPath(), READ)) {
+            LabelSection.read(in, GraphFormat.read(in), result,
+                              vcodec, ecodec);
+        }
+        return result;
+    }
+
+    /** Save me in FILE, replacing its previous contents, in the format
+     *  read by read and, ignoring labels, by MappedGraph and
+     *  FrozenGraph.read.  Vertex labels are encoded by VCODEC and edge
+     *  labels by ECODEC; if either is null, the corresponding labels are
+     *  not saved. */
+    public void write(File file, LabelCodec<? super VL> vcodec,
+                      LabelCodec<? super EL> ecodec) throws IOException {
+        GraphWriter writer = new GraphWriter(this);
+        try (FileChannel out = FileChannel.open(file.toPath(), CREATE,
+                                                TRUNCATE_EXISTING, WRITE)) {
+            writer.write(out);
+            LabelSection.write(out, writer, this, vcodec, ecodec);
+        }
     }
 
     /** Returns the label on vertex V, which must be one of my
      *  vertices. */
     public VL getLabel(int v) {
         checkMyVertex(v);
-        return v < _vlabel.size() ? _vlabel.get(v) : null;
+        return _vlabel.get(v);
     }
 
     /** Returns the label on the edge (U, V), which must be one of
@@ -32,33 +91,132 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        return e < _elabel.size() ? _elabel.get(e) : null;
+        return _elabel.get(e);
     }
 
-    /** Set getVertexLabel(V) to LAB.  V must be one of my vertices. */
+    /** Set getVertexLabel(V) to LAB.  V must be one of my vertices.  If
+     *  my labels are indexed, no other vertex may have a label with the
+     *  same key as LAB. */
     public void setLabel(int v, VL lab) {
         checkMyVertex(v);
-        if (lab != null || v < _vlabel.size()) {
-            expand(_vlabel, v + 1);
-            _vlabel.set(v, lab);
+        if (_index == null) {
+            _vlabel.put(v, lab);
+        } else {
+            Object key = checkUniqueKey(v, lab);
+            _index.remove(v, _index.keyOf(_vlabel.get(v)));
+            _vlabel.put(v, lab);
+            if (key != null) {
+                _index.put(v, key);
+            }
         }
     }
 
+    /** Index my vertices by the keys KEY extracts from their labels, so
+     *  that they may be found with find, replacing any previous index.
+     *  Keys are compared with equals; a null key, or a null label, is not
+     *  indexed.  From now on, no two vertices may have labels with equal
+     *  keys, including those currently labeled.  If KEY is null, removes
+     *  the index. */
+    public void indexLabels(Function<? super VL, ?> key) {
+        _index = null;
+        if (key != null) {
+            LabelIndex<VL> index = new LabelIndex<>(key);
+            for (int v : intVertices()) {
+                Object k = index.keyOf(_vlabel.get(v));
+                if (k != null) {
+                    if (index.get(k, _vlabel) != 0) {
+                        throw new IllegalArgumentException(
+                            "duplicate label key: " + k);
+                    }
+                    index.put(v, k);
+                }
+            }
+            _index = index;
+        }
+    }
+
+    /** Returns the vertex whose label has key KEY, as extracted by the
+     *  function given to indexLabels, or 0 if there is none.  My labels
+     *  must be indexed. */
+    public int find(Object key) {
+        if (_index == null) {
+            throw new IllegalStateException("labels not indexed");
+        }
+        return _index.get(key, _vlabel);
+    }
+
     /** Set getEdgeLabel(U, V) to LAB. (U, V) must be one of my edges. */
     public void setLabel(int u, int v, EL lab) {
         int e = edgeId(u, v);
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
+        _elabel.put(e, lab);
+    }
+
+    /** Returns the weight of the edge (U, V), or positive infinity if
+     *  there is no such edge.  The weight of an edge is DEFAULT_WEIGHT
+     *  until set. */
+    public double getWeight(int u, int v) {
+        int e = edgeId(u, v);
+        return e == 0 ? Double.POSITIVE_INFINITY : edgeWeight(e);
+    }
+
+    /** Set the weight of the edge (U, V) to W.  (U, V) must be one of my
+     *  edges. */
+    public void setWeight(int u, int v, double w) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
         }
+        _weights.set(e, w);
+    }
+
+    /** Returns the weight of the edge whose id is E. */
+    double edgeWeight(int e) {
+        return _weights.get(e);
+    }
+
+    /** Returns the key of edge (U, V) in my edge property columns (the
+     *  value returned by add(U, V)), or 0 if there is no such edge. */
+    public int edgeKey(int u, int v) {
+        return edgeId(u, v);
+    }
+
+    /** Add COLUMN as a vertex property, keyed by vertex number, and
+     *  return it.  There must not already be a vertex property with the
+     *  same name. */
+    public <C extends PropertyColumn> C addVertexProperty(C column) {
+        return addProperty(_vertexColumns, column);
+    }
+
+    /** Add COLUMN as an edge property, keyed by edge id (see edgeKey),
+     *  and return it.  There must not already be an edge property with
+     *  the same name. */
+    public <C extends PropertyColumn> C addEdgeProperty(C column) {
+        return addProperty(_edgeColumns, column);
+    }
+
+    /** Returns my vertex property named NAME, which must be of class
+     *  KIND, or null if there is none. */
+    public <C extends PropertyColumn> C vertexProperty(String name,
+                                                      Class<C> kind) {
+        return kind.cast(_vertexColumns.get(name));
+    }
+
+    /** Returns my edge property named NAME, which must be of class KIND,
+     *  or null if there is none. */
+    public <C extends PropertyColumn> C edgeProperty(String name,
+                                                    Class<C> kind) {
+        return kind.cast(_edgeColumns.get(name));
     }
 
     /** Returns a new vertex labeled LAB, and adds it to me with no
      *  incident edges. */
     public int add(VL lab) {
+        if (_index != null) {
+            checkUniqueKey(0, lab);
+        }
         int v = add();
         setLabel(v, lab);
         return v;
@@ -70,19 +228,88 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  an edge (U, V), sets its label to EL. */
     public int add(int u, int v, EL lab) {
         int e = add(u, v);
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
+        if (e != 0) {
+            _elabel.put(e, lab);
         }
         return e;
     }
 
     @Override
     public void remove(int v) {
+        if (contains(v)) {
+            for (int w : successors(v)) {
+                clearEdgeLabel(edgeId(v, w));
+            }
+            for (int w : predecessors(v)) {
+                clearEdgeLabel(edgeId(w, v));
+            }
+        }
         super.remove(v);
-        if (v < _vlabel.size()) {
-            _vlabel.set(v, null);
+        if (_index != null) {
+            _index.remove(v, _index.keyOf(_vlabel.get(v)));
+        }
+        _vlabel.remove(v);
+        for (PropertyColumn column : _vertexColumns.values()) {
+            column.clear(v);
+        }
+    }
+
+    /** Returns a view of my underlying graph pinned as by its pin.  I
+     *  never hide or add edges, so a search may read my adjacency, and
+     *  the ids of the edges in it, from that view, and look up weights
+     *  and other edge properties by those ids. */
+    @Override
+    Graph pin() {
+        return underlying().pin();
+    }
+
+    @Override
+    void unpin(Graph view) {
+        underlying().unpin(view);
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        return underlying().successorEdge(v, k);
+    }
+
+    @Override
+    int predecessorEdge(int v, int k) {
+        return underlying().predecessorEdge(v, k);
+    }
+
+    /** Returns a batch of edge additions and removals to be made to me
+     *  all at once by its commit method, which may also set the labels
+     *  and weights of the edges it adds (see GraphBatch). */
+    public GraphBatch<EL> batch() {
+        return new GraphBatch<>(this, this);
+    }
+
+    /** Remove the edges (US[i], VS[i]), for 0 <= i < N, in one pass over
+     *  my underlying graph.  A subclass may override remove(U, V), so
+     *  unless I am exactly a LabeledGraph, the edges are removed one at a
+     *  time by my own remove. */
+    @Override
+    void removeEdges(int[] us, int[] vs, int n) {
+        if (getClass() != LabeledGraph.class) {
+            super.removeEdges(us, vs, n);
+            return;
+        }
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i += 1) {
+            ids[i] = edgeId(us[i], vs[i]);
         }
+        underlying().removeEdges(us, vs, n);
+        for (int e : ids) {
+            if (e != 0) {
+                clearEdgeLabel(e);
+            }
+        }
+    }
+
+    @Override
+    void reserveEdges(int n) {
+        underlying().reserveEdges(n);
     }
 
     @Override
@@ -90,22 +317,61 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         int e = edgeId(u, v);
         if (e != 0) {
             super.remove(u, v);
-            if (e < _elabel.size()) {
-                _elabel.set(e, null);
-            }
+            clearEdgeLabel(e);
+        }
+    }
+
+    /** Remove the label and properties, if any, of the edge whose id is
+     *  E.  Edge ids are reused once their edges are removed, so this must
+     *  be done for every edge that goes away. */
+    private void clearEdgeLabel(int e) {
+        _elabel.remove(e);
+        for (PropertyColumn column : _edgeColumns.values()) {
+            column.clear(e);
         }
     }
 
-    /** If necessary, add nulls to L to make its length N.  Has no effect if
-     *  L's length is already at least N. */
-    static void expand(ArrayList<?> L, int n) {
-        while (L.size() < n) {
-            L.add(null);
+    /** Returns the key of LAB in my index, having checked that no vertex
+     *  other than V has a label with that key. */
+    private Object checkUniqueKey(int v, VL lab) {
+        Object key = _index.keyOf(lab);
+        int w = _index.get(key, _vlabel);
+        if (w != 0 && w != v) {
+            throw new IllegalArgumentException("duplicate label key: "
+                                               + key);
         }
+        return key;
     }
 
+    /** Add COLUMN to COLUMNS, and return it. */
+    private static <C extends PropertyColumn> C addProperty(
+        HashMap<String, PropertyColumn> columns, C column) {
+        if (columns.containsKey(column.name())) {
+            throw new IllegalArgumentException("duplicate property: "
+                                               + column.name());
+        }
+        columns.put(column.name(), column);
+        return column;
+    }
+
+    /** The weight of an edge whose weight has not been set. */
+    public static final double DEFAULT_WEIGHT = 1.0;
+    /** The name of the edge property holding edge weights. */
+    public static final String WEIGHT = "weight";
+
     /** Mapping of vertex numbers to vertex labels. */
-    private final ArrayList<VL> _vlabel = new ArrayList<>();
+    private final LabelMap<VL> _vlabel = new LabelMap<>();
     /** Mapping of unique edge ids to edge labels. */
-    private final ArrayList<EL> _elabel = new ArrayList<>();
+    private final LabelMap<EL> _elabel = new LabelMap<>();
+    /** Index of my vertices by the keys of their labels, or null. */
+    private LabelIndex<VL> _index;
+    /** My vertex properties, by name. */
+    private final HashMap<String, PropertyColumn> _vertexColumns =
+        new LinkedHashMap<>();
+    /** My edge properties, by name. */
+    private final HashMap<String, PropertyColumn> _edgeColumns =
+        new LinkedHashMap<>();
+    /** Mapping of unique edge ids to edge weights. */
+    private final PropertyColumn.Doubles _weights =
+        new PropertyColumn.Doubles(WEIGHT, DEFAULT_WEIGHT);
 }
@@ -0,0 +1,195 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/** Lower bounds on the distances in a weighted graph, computed from the
+ *  distances to and from a few chosen vertices, the landmarks, for use
+ *  as the estimatedDistance of an A* search (see ShortestPaths).  By the
+ *  triangle inequality, for any landmark L, the distance from V to T is
+ *  at least dist(L, T) - dist(L, V) and at least dist(V, L) - dist(T, L);
+ *  the bound is the largest of these over all landmarks.  Such bounds
+ *  are consistent, as are maxima of consistent bounds, so they may be
+ *  combined with other consistent estimates (such as straight-line
+ *  distances) and used by bidirectional searches.
+ *
+ *  The landmarks are chosen one at a time, each being the vertex
+ *  farthest from those already chosen, which places them on the edges of
+ *  the graph where they bound the most paths well.  The distances are
+ *  kept as floats, rounded so that the bounds never exceed the true
+ *  distances, with each vertex's distances stored together.  The
+ *  searches from each landmark over the predecessors of the graph are
+ *  made in parallel.  The bounds are valid only while the graph and its
+ *  weights are unchanged.
+ *  @author Florence Lau
+ */
+public final class Landmarks {
+
+    /** Bounds on the distances in G, whose edge weights are those
+     *  recorded by LabeledGraph.setWeight, from COUNT landmarks (fewer if
+     *  G has fewer vertices). */
+    public Landmarks(LabeledGraph<?, ?> G, int count) {
+        Graph view = G.pin();
+        try {
+            _maxVertex = view.maxVertex();
+            _count = Math.min(count, view.vertexSize());
+            _landmarks = new int[_count];
+            _from = new float[(_maxVertex + 1) * _count];
+            choose(G, view);
+            if (view.isDirected()) {
+                _to = new float[_from.length];
+                IntStream.range(0, _count).parallel()
+                    .forEach(i -> search(G, view, i, false, _to));
+            } else {
+                _to = _from;
+            }
+        } finally {
+            G.unpin(view);
+        }
+    }
+
+    /** Returns the number of landmarks. */
+    public int size() {
+        return _count;
+    }
+
+    /** Returns landmark K, 0 <= K < size(). */
+    public int landmark(int k) {
+        return _landmarks[k];
+    }
+
+    /** Returns a lower bound on the length of a shortest path from V to
+     *  T, which is positive infinity if there is certainly none, or 0 if
+     *  V or T is not a vertex for which I have distances. */
+    public double lowerBound(int v, int t) {
+        if (v == t || v <= 0 || t <= 0 || v > _maxVertex
+            || t > _maxVertex) {
+            return 0.0;
+        }
+        double result = 0.0;
+        int bv = v * _count, bt = t * _count;
+        for (int i = 0; i < _count; i += 1) {
+            result = Math.max(result, difference(_from[bt + i],
+                                                 _from[bv + i]));
+            result = Math.max(result, difference(_to[bv + i],
+                                                 _to[bt + i]));
+        }
+        return result;
+    }
+
+    /** Returns a lower bound on A - B, where A and B are rounded distances
+     *  from my tables, and where A is infinite only if the true
+     *  difference is.  An unknown (infinite) B gives 0. */
+    private static double difference(float a, float b) {
+        if (b == Float.POSITIVE_INFINITY) {
+            return 0.0;
+        } else if (a == Float.POSITIVE_INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            return (double) a - b - Math.ulp(a) - Math.ulp(b);
+        }
+    }
+
+    /** Choose my landmarks in VIEW, a pinned view of G, filling in _from.
+     *  The first is the vertex farthest from the first vertex of VIEW,
+     *  and each later one the vertex whose distance from the closest
+     *  landmark so far is greatest, vertices not reachable from any of
+     *  them coming first. */
+    private void choose(LabeledGraph<?, ?> G, Graph view) {
+        if (_count == 0) {
+            return;
+        }
+        double[] nearest = new double[_maxVertex + 1];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int seed = view.intVertices().nextInt();
+        _landmarks[0] = seed;
+        search(G, view, 0, true, _from);
+        int first = farthest(view, 0, nearest);
+        _landmarks[0] = first == 0 ? seed : first;
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < _count; i += 1) {
+            search(G, view, i, true, _from);
+            if (i + 1 < _count) {
+                _landmarks[i + 1] = farthest(view, i, nearest);
+            }
+        }
+    }
+
+    /** Update NEAREST, which holds for each vertex the smallest distance
+     *  to it from landmarks 0 .. I-1, with the distances from landmark I
+     *  in _from, and return the vertex for which it is greatest, or the
+     *  first vertex that is not a landmark for which it is infinite. */
+    private int farthest(Graph view, int i, double[] nearest) {
+        int result = 0;
+        double best = -1;
+        for (IntIteration it = view.intVertices(); it.hasNext(); ) {
+            int v = it.nextInt();
+            float d = _from[v * _count + i];
+            nearest[v] = Math.min(nearest[v], d);
+            if (nearest[v] > best && !isLandmark(v, i)) {
+                best = nearest[v];
+                result = v;
+            }
+        }
+        return result;
+    }
+
+    /** Returns true iff V is one of landmarks 0 .. I. */
+    private boolean isLandmark(int v, int i) {
+        for (int k = 0; k <= i; k += 1) {
+            if (_landmarks[k] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Find the distances in VIEW, a pinned view of G, from landmark I
+     *  if FORWARD, and otherwise to it, and store them, rounded down to
+     *  floats, at positions V * size() + I of TABLE. */
+    private void search(LabeledGraph<?, ?> G, Graph view, int i,
+                        boolean forward, float[] table) {
+        SearchWorkspace ws = new SearchWorkspace();
+        ws.begin(_maxVertex);
+        IndexedHeap fringe = ws.fringe();
+        int source = _landmarks[i];
+        ws.setWeight(source, 0);
+        fringe.put(source, 0);
+        while (!fringe.isEmpty()) {
+            int v = fringe.removeMin();
+            double d = ws.weight(v);
+            int n = forward ? view.outDegree(v) : view.inDegree(v);
+            for (int k = 0; k < n; k += 1) {
+                int w = forward ? view.successor(v, k)
+                    : view.predecessor(v, k);
+                double dw = d + G.edgeWeight(forward
+                                             ? view.successorEdge(v, k)
+                                             : view.predecessorEdge(v, k));
+                if (dw < ws.weight(w)) {
+                    ws.setWeight(w, dw);
+                    fringe.put(w, dw);
+                }
+            }
+        }
+        for (int v = 0; v <= _maxVertex; v += 1) {
+            double d = ws.weight(v);
+            float f = (float) d;
+            table[v * _count + i] = f > d ? Math.nextDown(f) : f;
+        }
+    }
+
+    /** The largest vertex number. */
+    private final int _maxVertex;
+    /** The number of landmarks. */
+    private final int _count;
+    /** The landmarks. */
+    private final int[] _landmarks;
+    /** The distance from landmark I to vertex V is at
+     *  _from[V * _count + I]. */
+    private final float[] _from;
+    /** The distance from vertex V to landmark I is at _to[V * _count + I].
+     *  The same array as _from if the graph is undirected. */
+    private final float[] _to;
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for Landmarks.
+ *  @author Florence Lau
+ */
+public class LandmarksTests {
+
+    /** Check that the bounds of L never exceed the distances in G, and
+     *  that they are exact from each landmark. */
+    private static void checkBounds(LabeledGraph<Void, Void> g,
+                                    Landmarks L) {
+        Set<Integer> chosen = new HashSet<>();
+        for (int i = 0; i < L.size(); i += 1) {
+            assertTrue(g.contains(L.landmark(i)));
+            assertTrue(chosen.add(L.landmark(i)));
+        }
+        int n = g.maxVertex();
+        for (int source = 1; source <= n; source += 1) {
+            if (!g.contains(source)) {
+                continue;
+            }
+            WeightedShortestPaths paths =
+                new WeightedShortestPaths(g, source);
+            paths.setPaths();
+            boolean isLandmark = chosen.contains(source);
+            for (int dest = 1; dest <= n; dest += 1) {
+                double d = paths.getWeight(dest);
+                double bound = L.lowerBound(source, dest);
+                assertTrue(bound >= 0);
+                if (d == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                assertTrue(bound <= d);
+                if (isLandmark) {
+                    assertEquals(d, bound, 1e-4);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirected() {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(true, 200, 700, 40);
+        checkBounds(g, new Landmarks(g, 6));
+    }
+
+    @Test
+    public void testUndirected() {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(false, 200, 300, 41);
+        checkBounds(g, new Landmarks(g, 6));
+    }
+
+    @Test
+    public void testUnreachable() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.setWeight(1, 2, 3);
+        g.add(3, 4);
+        g.setWeight(3, 4, 5);
+        Landmarks L = new Landmarks(g, 2);
+        assertEquals(Double.POSITIVE_INFINITY, L.lowerBound(1, 4), 0);
+        assertEquals(Double.POSITIVE_INFINITY, L.lowerBound(2, 1), 0);
+        assertEquals(0, L.lowerBound(2, 2), 0);
+        assertEquals(0, L.lowerBound(2, 7), 0);
+        checkBounds(g, L);
+    }
+
+    @Test
+    public void testFewVertices() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        g.add();
+        Landmarks L = new Landmarks(g, 4);
+        assertEquals(1, L.size());
+        assertEquals(1, L.landmark(0));
+        assertEquals(0, new Landmarks(new LabeledGraph<Void, Void>(
+            new DirectedGraph()), 4).size());
+    }
+
+    @Test
+    public void testAStar() {
+        LabeledGraph<Void, Void> g =
+            ShortestPathsTests.randomWeightedGraph(true, 300, 1200, 42);
+        Landmarks L = new Landmarks(g, 8);
+        for (int source = 1; source <= 300; source += 7) {
+            for (int dest = 1; dest <= 300; dest += 11) {
+                final int t = dest;
+                WeightedShortestPaths plain =
+                    new WeightedShortestPaths(g, source, dest);
+                WeightedShortestPaths alt =
+                    new WeightedShortestPaths(g, source, dest) {
+                        @Override
+                        protected double estimatedDistance(int v) {
+                            return L.lowerBound(v, t);
+                        }
+                    };
+                plain.setPaths();
+                alt.setPaths();
+                assertEquals(plain.getWeight(dest), alt.getWeight(dest),
+                             1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static graph.GraphFormat.*;
+
+/** A read-only Graph whose vertex set, adjacency lists, edge ids and
+ *  predecessor lists reside in a memory-mapped graph file written by
+ *  write(G, FILE) (see GraphFormat for the layout).  Opening a MappedGraph
+ *  only maps the file, and parsing is unnecessary, so it takes time
+ *  independent of the size of the graph.  The operating system pages
+ *  the data in as it is used, and processes that map the same file share
+ *  the same pages, so the graph need not fit in the Java heap.
+ *
+ *  A MappedGraph has the same vertices, edges, edge ids, and neighbor and
+ *  edge orders as the graph that was written, and so may be used with
+ *  LabeledGraph, Traversal, and ShortestPaths as that graph was.  Methods
+ *  that would modify it throw UnsupportedOperationException.  Its contents
+ *  never change, so it may be shared among threads.  Do not modify the
+ *  file while it is mapped.  A MappedGraph ignores any labels stored in
+ *  the file; see LabeledGraph.read.
+ *  @author Florence Lau
+ */
+public class MappedGraph extends Graph {
+
+    /** Write G to FILE in the format read by MappedGraph(FILE), replacing
+     *  the previous contents of FILE. */
+    public static void write(Graph G, File file) throws IOException {
+        new GraphWriter(G).write(file);
+    }
+
+    /** A graph mapped from FILE, which must have been written by
+     *  write(G, FILE). */
+    public MappedGraph(File file) throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), READ)) {
+            _format = GraphFormat.read(in);
+            _bits = section(in, BITS);
+            _outStart = section(in, OUT_START);
+            _outTargets = section(in, OUT_TARGETS);
+            _outIds = section(in, OUT_IDS);
+            _sortedTargets = section(in, SORTED_TARGETS);
+            _sortedIds = section(in, SORTED_IDS);
+            if (_format.directed()) {
+                _inStart = section(in, IN_START);
+                _inSources = section(in, IN_SOURCES);
+            } else {
+                _inStart = _outStart;
+                _inSources = _outTargets;
+            }
+            _edgeU = section(in, EDGE_U);
+            _edgeV = section(in, EDGE_V);
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return _format.vertexSize();
+    }
+
+    @Override
+    public int maxVertex() {
+        return _format.maxVertex();
+    }
+
+    @Override
+    public int edgeSize() {
+        return _format.edgeSize();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _format.directed();
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _outStart.get(v + 1) - _outStart.get(v) : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _inStart.get(v + 1) - _inStart.get(v) : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= maxVertex()
+            && (_bits.get(u >>> 5) & (1 << (u & 31))) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw readOnly();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _next > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_next <= 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v + 1);
+                return v;
+            }
+
+            /** The next vertex to deliver, or 0 if there is none. */
+            private int _next = nextVertex(1);
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        if (k < 0 || k >= outDegree(v)) {
+            return 0;
+        }
+        return _outTargets.get((long) _outStart.get(v) + k);
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        if (k < 0 || k >= outDegree(v)) {
+            return 0;
+        }
+        return _outIds.get((long) _outStart.get(v) + k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        if (k < 0 || k >= inDegree(v)) {
+            return 0;
+        }
+        return _inSources.get((long) _inStart.get(v) + k);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return range(_outTargets, _outStart, v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return range(_inSources, _inStart, v);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        return copy(_outTargets, _outStart, v, dst);
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        return copy(_inSources, _inStart, v, dst);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _k < _edgeU.length();
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _edgeU.get(_k);
+                _edge[1] = _edgeV.get(_k);
+                _k += 1;
+                return _edge;
+            }
+
+            /** Index of the next edge to deliver. */
+            private long _k;
+            /** The array used to return each edge. */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        long lo = _outStart.get(u), hi = _outStart.get(u + 1) - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            int w = _sortedTargets.get(mid);
+            if (w < v) {
+                lo = mid + 1;
+            } else if (w > v) {
+                hi = mid - 1;
+            } else {
+                return _sortedIds.get(mid);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    long modCount() {
+        return 0;
+    }
+
+    /** Returns the smallest vertex >= V, or 0 if there is none. */
+    private int nextVertex(int v) {
+        int max = maxVertex();
+        while (v <= max) {
+            int word = _bits.get(v >>> 5) >>> (v & 31);
+            if (word != 0) {
+                return v + Integer.numberOfTrailingZeros(word);
+            }
+            v = (v | 31) + 1;
+        }
+        return 0;
+    }
+
+    /** Returns an iteration over the list for V in LISTS, whose offsets are
+     *  START. */
+    private IntIteration range(MappedInts lists, MappedInts start, int v) {
+        final long from = contains(v) ? start.get(v) : 0,
+            to = contains(v) ? start.get(v + 1) : 0;
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < to;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_k >= to) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return lists.get(_k - 1);
+            }
+
+            /** Index of the next value to deliver. */
+            private long _k = from;
+        };
+    }
+
+    /** Copy as much of the list for V in LISTS, whose offsets are START,
+     *  as fits into DST, and return the length of the list. */
+    private int copy(MappedInts lists, MappedInts start, int v, int[] dst) {
+        if (!contains(v)) {
+            return 0;
+        }
+        long from = start.get(v);
+        int n = (int) (start.get(v + 1) - from);
+        for (int k = 0; k < n && k < dst.length; k += 1) {
+            dst[k] = lists.get(from + k);
+        }
+        return n;
+    }
+
+    /** Returns a mapping of section S of IN. */
+    private MappedInts section(FileChannel in, int s) throws IOException {
+        return new MappedInts(in, _format.offset(s), _format.length(s));
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("graph is read-only");
+    }
+
+    /** The layout of my file. */
+    private final GraphFormat _format;
+    /** Vertex presence bitmap. */
+    private final MappedInts _bits;
+    /** Offsets of the successor lists. */
+    private final MappedInts _outStart;
+    /** Successor lists. */
+    private final MappedInts _outTargets;
+    /** Edge ids corresponding to _outTargets. */
+    private final MappedInts _outIds;
+    /** Successor lists, each sorted. */
+    private final MappedInts _sortedTargets;
+    /** Edge ids corresponding to _sortedTargets. */
+    private final MappedInts _sortedIds;
+    /** Offsets of the predecessor lists. */
+    private final MappedInts _inStart;
+    /** Predecessor lists. */
+    private final MappedInts _inSources;
+    /** First end points of the edges in insertion order. */
+    private final MappedInts _edgeU;
+    /** Second end points of the edges in insertion order. */
+    private final MappedInts _edgeV;
+}
@@ -0,0 +1,188 @@
+package graph;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static graph.FrozenGraphTests.assertSameGraph;
+import static graph.FrozenGraphTests.randomGraph;
+
+/** Unit tests for the MappedGraph class.
+ *  @author Florence Lau
+ */
+public class MappedGraphTests {
+
+    /** Returns G written to and mapped back from a temporary file. */
+    static MappedGraph roundTrip(Graph g) throws IOException {
+        File f = File.createTempFile("graph", ".bin");
+        f.deleteOnExit();
+        MappedGraph.write(g, f);
+        return new MappedGraph(f);
+    }
+
+    @Test
+    public void testDirected() throws IOException {
+        Graph g = randomGraph(true, 70, 500, 5);
+        assertSameGraph(g, roundTrip(g));
+    }
+
+    @Test
+    public void testUndirected() throws IOException {
+        Graph g = randomGraph(false, 70, 500, 6);
+        assertSameGraph(g, roundTrip(g));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        MappedGraph m = roundTrip(new DirectedGraph());
+        assertEquals(0, m.vertexSize());
+        assertEquals(0, m.maxVertex());
+        assertFalse(m.vertices().hasNext());
+        assertFalse(m.edges().hasNext());
+    }
+
+    @Test
+    public void testPaths() throws IOException {
+        Graph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 4);
+        g.add(1, 3);
+        g.add(3, 4);
+        final LabeledGraph<Void, Double> m =
+            new LabeledGraph<>(roundTrip(g));
+        m.setLabel(1, 2, 1.0);
+        m.setLabel(2, 4, 5.0);
+        m.setLabel(1, 3, 2.0);
+        m.setLabel(3, 4, 1.0);
+        SimpleShortestPaths p = new SimpleShortestPaths(m, 1, 4) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return m.getLabel(u, v);
+            }
+        };
+        p.setPaths();
+        assertEquals(3.0, p.getWeight(4), 1e-9);
+        assertEquals(Arrays.asList(1, 3, 4), p.pathTo());
+    }
+
+    @Test
+    public void testFrozenRead() throws IOException {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph g = randomGraph(directed, 90, 600, 7);
+            File f = File.createTempFile("graph", ".bin");
+            f.deleteOnExit();
+            MappedGraph.write(g, f);
+            FrozenGraph h = FrozenGraph.read(f);
+            assertSameGraph(g, h);
+            assertFalse(h.isStale());
+        }
+    }
+
+    /** Returns a small graph labeled with names and lengths, with some
+     *  labels missing. */
+    static LabeledGraph<String, Double> labeled(boolean directed) {
+        LabeledGraph<String, Double> g =
+            new LabeledGraph<>(randomGraph(directed, 40, 200, 8));
+        for (int v : g.vertices()) {
+            if (v % 3 != 0) {
+                g.setLabel(v, "v\u00e9" + v);
+            }
+        }
+        for (int[] e : g.edges()) {
+            if ((e[0] + e[1]) % 4 != 0) {
+                g.setLabel(e[0], e[1], e[0] * 0.5 + e[1]);
+            }
+        }
+        return g;
+    }
+
+    @Test
+    public void testLabels() throws IOException {
+        for (boolean directed : new boolean[] { true, false }) {
+            for (boolean mapped : new boolean[] { true, false }) {
+                LabeledGraph<String, Double> g = labeled(directed);
+                File f = File.createTempFile("graph", ".bin");
+                f.deleteOnExit();
+                g.write(f, LabelCodec.STRINGS, LabelCodec.DOUBLES);
+                LabeledGraph<String, Double> h =
+                    LabeledGraph.read(f, LabelCodec.STRINGS,
+                                      LabelCodec.DOUBLES, mapped);
+                assertSameGraph(g, h);
+                for (int v : g.vertices()) {
+                    assertEquals(g.getLabel(v), h.getLabel(v));
+                }
+                for (int[] e : g.edges()) {
+                    assertEquals(g.getLabel(e[0], e[1]),
+                                 h.getLabel(e[0], e[1]));
+                }
+                assertSameGraph(g, new MappedGraph(f));
+            }
+        }
+    }
+
+    @Test
+    public void testSkipLabels() throws IOException {
+        LabeledGraph<String, Double> g = labeled(true);
+        File f = File.createTempFile("graph", ".bin");
+        f.deleteOnExit();
+        g.write(f, LabelCodec.STRINGS, LabelCodec.DOUBLES);
+        LabeledGraph<String, Double> h =
+            LabeledGraph.read(f, null, LabelCodec.DOUBLES, false);
+        for (int v : g.vertices()) {
+            assertNull(h.getLabel(v));
+        }
+        for (int[] e : g.edges()) {
+            assertEquals(g.getLabel(e[0], e[1]), h.getLabel(e[0], e[1]));
+        }
+        g.write(f, LabelCodec.STRINGS, null);
+        h = LabeledGraph.read(f, LabelCodec.STRINGS, LabelCodec.DOUBLES,
+                              true);
+        for (int v : g.vertices()) {
+            assertEquals(g.getLabel(v), h.getLabel(v));
+        }
+        for (int[] e : g.edges()) {
+            assertNull(h.getLabel(e[0], e[1]));
+        }
+    }
+
+    @Test
+    public void testVersion1() throws IOException {
+        Graph g = randomGraph(true, 30, 100, 9);
+        File f = File.createTempFile("graph", ".bin");
+        f.deleteOnExit();
+        MappedGraph.write(g, f);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            raf.seek(4);
+            raf.writeInt(Integer.reverseBytes(1));
+        }
+        assertSameGraph(g, FrozenGraph.read(f));
+        assertSameGraph(g, LabeledGraph.read(f, LabelCodec.STRINGS,
+                                             LabelCodec.STRINGS, true));
+    }
+
+    @Test(expected = IOException.class)
+    public void testFutureVersion() throws IOException {
+        File f = File.createTempFile("graph", ".bin");
+        f.deleteOnExit();
+        MappedGraph.write(new DirectedGraph(), f);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            raf.seek(4);
+            raf.writeInt(Integer.reverseBytes(GraphFormat.VERSION + 1));
+        }
+        FrozenGraph.read(f);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAGraph() throws IOException {
+        File f = File.createTempFile("graph", ".bin");
+        f.deleteOnExit();
+        new MappedGraph(f);
+    }
+}
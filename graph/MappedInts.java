@@ -0,0 +1,57 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/** A read-only array of ints backed by a memory-mapped region of a file.
+ *  Since a single mapping is limited to 2GB, the region is mapped in
+ *  chunks of 2**CHUNK_SHIFT ints, so that arrays may be as long as the
+ *  file allows.  Reading does not change any state, so a MappedInts may
+ *  be used by several threads at once.
+ *  @author Florence Lau
+ */
+final class MappedInts {
+
+    /** The LENGTH ints starting at byte OFFSET of CHANNEL, which must be
+     *  open for reading.  The mapping remains valid after CHANNEL is
+     *  closed. */
+    MappedInts(FileChannel channel, long offset, long length)
+        throws IOException {
+        _length = length;
+        int n = (int) ((length + CHUNK - 1) >>> CHUNK_SHIFT);
+        _chunks = new IntBuffer[n];
+        for (int c = 0; c < n; c += 1) {
+            long start = (long) c << CHUNK_SHIFT;
+            long size = Math.min(CHUNK, length - start);
+            _chunks[c] =
+                channel.map(FileChannel.MapMode.READ_ONLY,
+                            offset + 4 * start, 4 * size)
+                .order(GraphFormat.ORDER).asIntBuffer();
+        }
+    }
+
+    /** Returns the number of ints in me. */
+    long length() {
+        return _length;
+    }
+
+    /** Returns int #I.  Assumes 0 <= I < length(). */
+    int get(long i) {
+        return _chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & MASK));
+    }
+
+    /** Log base 2 of the number of ints in each mapped chunk. */
+    private static final int CHUNK_SHIFT = 28;
+    /** Number of ints in each mapped chunk. */
+    private static final long CHUNK = 1L << CHUNK_SHIFT;
+    /** Mask for the index of an int within its chunk. */
+    private static final long MASK = CHUNK - 1;
+
+    /** The mapped chunks. */
+    private final IntBuffer[] _chunks;
+    /** Number of ints in me. */
+    private final long _length;
+}
@@ -0,0 +1,396 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/** A named column of values of one primitive type (or dictionary-encoded
+ *  Strings), indexed by non-negative keys: vertex numbers for vertex
+ *  properties and edge ids for edge properties (see
+ *  LabeledGraph.addVertexProperty and LabeledGraph.addEdgeProperty).
+ *  Values are held in a single array, so that an algorithm that scans one
+ *  attribute touches only that attribute's memory.  Every key has a
+ *  value; those never set, or cleared because their vertex or edge was
+ *  removed, have the column's default value.
+ *  @author Florence Lau
+ */
+public abstract class PropertyColumn {
+
+    /** A column named NAME. */
+    PropertyColumn(String name) {
+        _name = name;
+    }
+
+    /** Returns my name. */
+    public String name() {
+        return _name;
+    }
+
+    /** Set the value at KEY to my default. */
+    public void clear(int key) {
+        if (key < capacity()) {
+            fill(key, key + 1);
+        }
+    }
+
+    /** Make sure that my array can hold KEY, filling any new positions
+     *  with my default. */
+    final void reserve(int key) {
+        int n = capacity();
+        if (key >= n) {
+            resize(grow(n, key));
+            fill(n, capacity());
+        }
+    }
+
+    /** Returns the length of my array. */
+    abstract int capacity();
+
+    /** Replace my array with a copy of it of length N. */
+    abstract void resize(int n);
+
+    /** Set the values at keys FROM .. TO-1 of my array to my default. */
+    abstract void fill(int from, int to);
+
+    /** Returns the new length for an array of length N that must hold
+     *  KEY. */
+    private static int grow(int n, int key) {
+        if (key < 0) {
+            throw new IndexOutOfBoundsException("negative key");
+        }
+        return Math.max(key + 1, n + (n >> 1) + INITIAL_CAPACITY);
+    }
+
+    /** Returns the largest of KEYS, or -1 if there are none.  Checks that
+     *  KEYS and VALUES, of length N, have the same length. */
+    static int maxKey(int[] keys, int n) {
+        if (keys.length != n) {
+            throw new IllegalArgumentException("mismatched keys and values");
+        }
+        int max = -1;
+        for (int key : keys) {
+            max = Math.max(max, key);
+        }
+        return max;
+    }
+
+    /** Minimum growth of a column's array. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** My name. */
+    private final String _name;
+
+    /** A column of ints. */
+    public static class Ints extends PropertyColumn {
+        /** A column named NAME whose default value is DFLT. */
+        public Ints(String name, int dflt) {
+            super(name);
+            _default = dflt;
+        }
+
+        /** Returns the value at KEY. */
+        public int get(int key) {
+            return key < _values.length ? _values[key] : _default;
+        }
+
+        /** Set the value at KEY to VALUE. */
+        public void set(int key, int value) {
+            reserve(key);
+            _values[key] = value;
+        }
+
+        /** Set the value at KEYS[i] to VALUES[i] for all i. */
+        public void set(int[] keys, int[] values) {
+            reserve(maxKey(keys, values.length));
+            for (int i = 0; i < keys.length; i += 1) {
+                _values[keys[i]] = values[i];
+            }
+        }
+
+        /** Returns my values, indexed by key.  Keys at or beyond its
+         *  length have the default value.  The result is shared with me,
+         *  and is replaced by a new array when I grow. */
+        public int[] values() {
+            return _values;
+        }
+
+        @Override
+        int capacity() {
+            return _values.length;
+        }
+
+        @Override
+        void resize(int n) {
+            _values = Arrays.copyOf(_values, n);
+        }
+
+        @Override
+        void fill(int from, int to) {
+            Arrays.fill(_values, from, to, _default);
+        }
+
+        /** The default value. */
+        private final int _default;
+        /** The values, indexed by key. */
+        private int[] _values = new int[0];
+    }
+
+    /** A column of longs. */
+    public static class Longs extends PropertyColumn {
+        /** A column named NAME whose default value is DFLT. */
+        public Longs(String name, long dflt) {
+            super(name);
+            _default = dflt;
+        }
+
+        /** Returns the value at KEY. */
+        public long get(int key) {
+            return key < _values.length ? _values[key] : _default;
+        }
+
+        /** Set the value at KEY to VALUE. */
+        public void set(int key, long value) {
+            reserve(key);
+            _values[key] = value;
+        }
+
+        /** Set the value at KEYS[i] to VALUES[i] for all i. */
+        public void set(int[] keys, long[] values) {
+            reserve(maxKey(keys, values.length));
+            for (int i = 0; i < keys.length; i += 1) {
+                _values[keys[i]] = values[i];
+            }
+        }
+
+        /** Returns my values, indexed by key.  Keys at or beyond its
+         *  length have the default value.  The result is shared with me,
+         *  and is replaced by a new array when I grow. */
+        public long[] values() {
+            return _values;
+        }
+
+        @Override
+        int capacity() {
+            return _values.length;
+        }
+
+        @Override
+        void resize(int n) {
+            _values = Arrays.copyOf(_values, n);
+        }
+
+        @Override
+        void fill(int from, int to) {
+            Arrays.fill(_values, from, to, _default);
+        }
+
+        /** The default value. */
+        private final long _default;
+        /** The values, indexed by key. */
+        private long[] _values = new long[0];
+    }
+
+    /** A column of floats. */
+    public static class Floats extends PropertyColumn {
+        /** A column named NAME whose default value is DFLT. */
+        public Floats(String name, float dflt) {
+            super(name);
+            _default = dflt;
+        }
+
+        /** Returns the value at KEY. */
+        public float get(int key) {
+            return key < _values.length ? _values[key] : _default;
+        }
+
+        /** Set the value at KEY to VALUE. */
+        public void set(int key, float value) {
+            reserve(key);
+            _values[key] = value;
+        }
+
+        /** Set the value at KEYS[i] to VALUES[i] for all i. */
+        public void set(int[] keys, float[] values) {
+            reserve(maxKey(keys, values.length));
+            for (int i = 0; i < keys.length; i += 1) {
+                _values[keys[i]] = values[i];
+            }
+        }
+
+        /** Returns my values, indexed by key.  Keys at or beyond its
+         *  length have the default value.  The result is shared with me,
+         *  and is replaced by a new array when I grow. */
+        public float[] values() {
+            return _values;
+        }
+
+        @Override
+        int capacity() {
+            return _values.length;
+        }
+
+        @Override
+        void resize(int n) {
+            _values = Arrays.copyOf(_values, n);
+        }
+
+        @Override
+        void fill(int from, int to) {
+            Arrays.fill(_values, from, to, _default);
+        }
+
+        /** The default value. */
+        private final float _default;
+        /** The values, indexed by key. */
+        private float[] _values = new float[0];
+    }
+
+    /** A column of doubles. */
+    public static class Doubles extends PropertyColumn {
+        /** A column named NAME whose default value is DFLT. */
+        public Doubles(String name, double dflt) {
+            super(name);
+            _default = dflt;
+        }
+
+        /** Returns the value at KEY. */
+        public double get(int key) {
+            return key < _values.length ? _values[key] : _default;
+        }
+
+        /** Set the value at KEY to VALUE. */
+        public void set(int key, double value) {
+            reserve(key);
+            _values[key] = value;
+        }
+
+        /** Set the value at KEYS[i] to VALUES[i] for all i. */
+        public void set(int[] keys, double[] values) {
+            reserve(maxKey(keys, values.length));
+            for (int i = 0; i < keys.length; i += 1) {
+                _values[keys[i]] = values[i];
+            }
+        }
+
+        /** Returns my values, indexed by key.  Keys at or beyond its
+         *  length have the default value.  The result is shared with me,
+         *  and is replaced by a new array when I grow. */
+        public double[] values() {
+            return _values;
+        }
+
+        @Override
+        int capacity() {
+            return _values.length;
+        }
+
+        @Override
+        void resize(int n) {
+            _values = Arrays.copyOf(_values, n);
+        }
+
+        @Override
+        void fill(int from, int to) {
+            Arrays.fill(_values, from, to, _default);
+        }
+
+        /** The default value. */
+        private final double _default;
+        /** The values, indexed by key. */
+        private double[] _values = new double[0];
+    }
+
+    /** A column of Strings, each stored as an int code into a dictionary
+     *  of the distinct Strings stored, so that a String repeated on many
+     *  vertices or edges is held once.  The default value is null, whose
+     *  code is 0. */
+    public static class Strings extends PropertyColumn {
+        /** A column named NAME. */
+        public Strings(String name) {
+            super(name);
+            _dictionary.add(null);
+        }
+
+        /** Returns the value at KEY. */
+        public String get(int key) {
+            return _dictionary.get(code(key));
+        }
+
+        /** Returns the code of the value at KEY. */
+        public int code(int key) {
+            return key < _codes.length ? _codes[key] : 0;
+        }
+
+        /** Returns the String whose code is CODE. */
+        public String decode(int code) {
+            return _dictionary.get(code);
+        }
+
+        /** Returns the code for VALUE, or -1 if it has never been stored
+         *  in me. */
+        public int codeOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = _codeOf.get(value);
+            return code == null ? -1 : code;
+        }
+
+        /** Set the value at KEY to VALUE. */
+        public void set(int key, String value) {
+            reserve(key);
+            _codes[key] = encode(value);
+        }
+
+        /** Set the value at KEYS[i] to VALUES[i] for all i. */
+        public void set(int[] keys, String[] values) {
+            reserve(maxKey(keys, values.length));
+            for (int i = 0; i < keys.length; i += 1) {
+                _codes[keys[i]] = encode(values[i]);
+            }
+        }
+
+        /** Returns the codes of my values, indexed by key.  Keys at or
+         *  beyond its length have code 0.  The result is shared with me,
+         *  and is replaced by a new array when I grow. */
+        public int[] codes() {
+            return _codes;
+        }
+
+        @Override
+        int capacity() {
+            return _codes.length;
+        }
+
+        @Override
+        void resize(int n) {
+            _codes = Arrays.copyOf(_codes, n);
+        }
+
+        @Override
+        void fill(int from, int to) {
+            Arrays.fill(_codes, from, to, 0);
+        }
+
+        /** Returns the code for VALUE, adding it to the dictionary if
+         *  necessary. */
+        private int encode(String value) {
+            int code = codeOf(value);
+            if (code < 0) {
+                code = _dictionary.size();
+                _dictionary.add(value);
+                _codeOf.put(value, code);
+            }
+            return code;
+        }
+
+        /** The codes of the values, indexed by key. */
+        private int[] _codes = new int[0];
+        /** The distinct values, indexed by code. */
+        private final ArrayList<String> _dictionary = new ArrayList<>();
+        /** The inverse of _dictionary. */
+        private final HashMap<String, Integer> _codeOf = new HashMap<>();
+    }
+}
@@ -0,0 +1,120 @@
+package graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for the PropertyColumn classes and their use in
+ *  LabeledGraph.
+ *  @author Florence Lau
+ */
+public class PropertyColumnTests {
+
+    @Test
+    public void testNumericColumns() {
+        PropertyColumn.Ints ints = new PropertyColumn.Ints("i", -1);
+        PropertyColumn.Longs longs = new PropertyColumn.Longs("l", 7L);
+        PropertyColumn.Floats floats = new PropertyColumn.Floats("f", 0.5f);
+        PropertyColumn.Doubles doubles =
+            new PropertyColumn.Doubles("d", 2.0);
+        assertEquals(-1, ints.get(1000));
+        assertEquals(7L, longs.get(3));
+        ints.set(100, 5);
+        longs.set(1, 1L << 40);
+        floats.set(2, 1.5f);
+        doubles.set(50, 3.25);
+        assertEquals(5, ints.get(100));
+        assertEquals(-1, ints.get(99));
+        assertEquals(1L << 40, longs.get(1));
+        assertEquals(7L, longs.get(0));
+        assertEquals(1.5f, floats.get(2), 0);
+        assertEquals(0.5f, floats.get(3), 0);
+        assertEquals(3.25, doubles.get(50), 0);
+        assertEquals(2.0, doubles.values()[49], 0);
+        ints.clear(100);
+        assertEquals(-1, ints.get(100));
+        assertEquals("d", doubles.name());
+    }
+
+    @Test
+    public void testBulkSet() {
+        PropertyColumn.Doubles x = new PropertyColumn.Doubles("x", 0.0);
+        x.set(new int[] { 3, 1, 200 }, new double[] { 1.0, 2.0, 3.0 });
+        assertEquals(2.0, x.get(1), 0);
+        assertEquals(1.0, x.get(3), 0);
+        assertEquals(3.0, x.get(200), 0);
+        assertEquals(0.0, x.get(2), 0);
+        assertTrue(x.values().length > 200);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkSetMismatch() {
+        new PropertyColumn.Ints("x", 0).set(new int[] { 1 }, new int[0]);
+    }
+
+    @Test
+    public void testStrings() {
+        PropertyColumn.Strings s = new PropertyColumn.Strings("class");
+        assertNull(s.get(4));
+        s.set(1, "highway");
+        s.set(2, "street");
+        s.set(3, "highway");
+        assertEquals("highway", s.get(3));
+        assertEquals(s.code(1), s.code(3));
+        assertNotEquals(s.code(1), s.code(2));
+        assertEquals(s.code(2), s.codeOf("street"));
+        assertEquals(-1, s.codeOf("path"));
+        assertEquals("street", s.decode(s.codes()[2]));
+        s.clear(1);
+        assertNull(s.get(1));
+        assertEquals(0, s.code(1));
+    }
+
+    @Test
+    public void testMaintainedOnRemove() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        PropertyColumn.Doubles elev =
+            g.addVertexProperty(new PropertyColumn.Doubles("elev", -1.0));
+        PropertyColumn.Ints speed =
+            g.addEdgeProperty(new PropertyColumn.Ints("speed", 0));
+        for (int i = 0; i < 4; i += 1) {
+            elev.set(g.add(), 10.0 * i);
+        }
+        speed.set(g.add(1, 2), 30);
+        speed.set(g.add(2, 3), 40);
+        speed.set(g.add(3, 4), 50);
+        assertEquals(40, speed.get(g.edgeKey(2, 3)));
+        assertEquals(0, g.edgeKey(3, 2));
+        int e12 = g.edgeKey(1, 2), e34 = g.edgeKey(3, 4);
+        g.remove(3, 4);
+        assertEquals(0, speed.get(e34));
+        g.remove(1);
+        assertEquals(-1.0, elev.get(1), 0);
+        assertEquals(0, speed.get(e12));
+        assertEquals(20.0, elev.get(3), 0);
+        assertSame(elev, g.vertexProperty("elev",
+                                          PropertyColumn.Doubles.class));
+        assertNull(g.edgeProperty("toll", PropertyColumn.Ints.class));
+    }
+
+    @Test
+    public void testWeightColumn() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        g.add();
+        g.add();
+        int e = g.add(1, 2);
+        g.setWeight(1, 2, 4.0);
+        PropertyColumn.Doubles w =
+            g.edgeProperty(LabeledGraph.WEIGHT, PropertyColumn.Doubles.class);
+        assertEquals(4.0, w.get(e), 0);
+        w.set(e, 6.0);
+        assertEquals(6.0, g.getWeight(1, 2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateName() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        g.addEdgeProperty(new PropertyColumn.Doubles(LabeledGraph.WEIGHT,
+                                                     0.0));
+    }
+}
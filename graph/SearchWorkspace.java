@@ -0,0 +1,114 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** The vertex weights, predecessors, and fringe used by a shortest-path
+ *  search (see SimpleShortestPaths), kept so that they may be reused by
+ *  later searches.  Each entry carries the number of the search, or
+ *  epoch, that last set it; starting a search just advances the epoch,
+ *  which makes every older entry read as unreached (infinite weight and
+ *  no predecessor).  A search therefore costs time proportional to the
+ *  vertices it reaches rather than to the size of the graph, once the
+ *  arrays have grown to fit it.
+ *
+ *  A workspace holds the results of only its most recent search, so
+ *  searches that share one must not need each other's results at the
+ *  same time, and a workspace must not be used by two threads at once.
+ *  forCurrentThread provides one workspace per thread for this purpose.
+ *  @author Florence Lau
+ */
+public final class SearchWorkspace {
+
+    /** An empty workspace. */
+    public SearchWorkspace() {
+        _weights = new double[0];
+        _predecessors = new int[0];
+        _stamps = new int[0];
+    }
+
+    /** Returns the workspace belonging to the current thread. */
+    public static SearchWorkspace forCurrentThread() {
+        return LOCAL.get();
+    }
+
+    /** Start a new search of a graph whose vertices are numbered at most
+     *  MAXVERTEX, forgetting the results of the previous one. */
+    void begin(int maxVertex) {
+        if (maxVertex >= _stamps.length) {
+            int n = Math.max(maxVertex + 1, _stamps.length
+                             + (_stamps.length >> 1));
+            _weights = Arrays.copyOf(_weights, n);
+            _predecessors = Arrays.copyOf(_predecessors, n);
+            _stamps = Arrays.copyOf(_stamps, n);
+        }
+        _epoch += 1;
+        if (_epoch == 0) {
+            Arrays.fill(_stamps, 0);
+            _epoch = 1;
+        }
+        _fringe.clear();
+        _fringe.reserve(maxVertex);
+    }
+
+    /** Returns the weight of V in the current search, or positive
+     *  infinity if V has not been reached. */
+    double weight(int v) {
+        return reached(v) ? _weights[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Set the weight of V in the current search to W. */
+    void setWeight(int v, double w) {
+        touch(v);
+        _weights[v] = w;
+    }
+
+    /** Returns the predecessor of V in the current search, or 0 if it
+     *  has none. */
+    int predecessor(int v) {
+        return reached(v) ? _predecessors[v] : 0;
+    }
+
+    /** Set the predecessor of V in the current search to U. */
+    void setPredecessor(int v, int u) {
+        touch(v);
+        _predecessors[v] = u;
+    }
+
+    /** Returns the fringe for searches using me. */
+    IndexedHeap fringe() {
+        return _fringe;
+    }
+
+    /** Returns true iff V has been given a weight or predecessor in the
+     *  current search. */
+    private boolean reached(int v) {
+        return v >= 0 && v < _stamps.length && _stamps[v] == _epoch;
+    }
+
+    /** Stamp V as belonging to the current search, giving it infinite
+     *  weight and no predecessor if it did not already. */
+    private void touch(int v) {
+        if (_stamps[v] != _epoch) {
+            _stamps[v] = _epoch;
+            _weights[v] = Double.POSITIVE_INFINITY;
+            _predecessors[v] = 0;
+        }
+    }
+
+    /** The workspaces of the threads that have asked for one. */
+    private static final ThreadLocal<SearchWorkspace> LOCAL =
+        ThreadLocal.withInitial(SearchWorkspace::new);
+
+    /** Vertex weights, valid where _stamps matches _epoch. */
+    private double[] _weights;
+    /** Vertex predecessors, valid where _stamps matches _epoch. */
+    private int[] _predecessors;
+    /** The epoch in which each vertex was last set. */
+    private int[] _stamps;
+    /** The number of the current search; 0 before the first. */
+    private int _epoch;
+    /** The fringe. */
+    private final IndexedHeap _fringe = new IndexedHeap();
+}
@@ -2,13 +2,9 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.AbstractQueue;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.TreeSet;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
 
 /** The shortest paths through an edge-weighted graph.
  *  By overriding methods getWeight, setWeight, getPredecessor, and
@@ -17,7 +13,6 @@ import java.util.Iterator;
  *  can search for paths to specific destinations using A* search.
  *  @author Florence Lau
  */
-@SuppressWarnings("unchecked")
 public abstract class ShortestPaths {
 
     /** The shortest paths in G from SOURCE. */
@@ -34,18 +29,158 @@ public abstract class ShortestPaths {
 
     /** Initialize the shortest paths.  Must be called before using
      *  getWeight, getPredecessor, and pathTo.
+     *  The search sees a snapshot of the graph, if it offers them (see
+     *  VersionedGraph), so it is unaffected by concurrent changes.
      *  Used the algorithm from Hilfinger's Lecture 34 and
-     *  Ching Fang's Google Slides on A* search. */
+     *  Ching Fang's Google Slides on A* search.  The fringe is an
+     *  IndexedHeap keyed on getWeight(V) + estimatedDistance(V), whose
+     *  entries are updated in place when a shorter path to V is found.
+     *  A vertex whose weight improves after it has left the fringe (which
+     *  happens only if estimatedDistance is not consistent) is put back,
+     *  so the paths found are shortest whenever the estimate is never too
+     *  high. */
     public void setPaths() {
-        TreeSetQueue<Integer> fringe = new TreeSetQueue<>();
-        for (int v : _G.vertices()) {
+        _view = _G.pin();
+        IndexedHeap fringe = null;
+        try {
+            Graph G = _view;
+            initialize(G);
+            int source = getSource(), dest = getDest();
+            setWeight(source, 0);
+            setPredecessor(source, 0);
+            fringe = fringe(G);
+            if (dest != 0 && bidirectional() && G.contains(dest)) {
+                searchBoth(G, fringe);
+            } else {
+                search(G, fringe);
+            }
+        } finally {
+            if (fringe != null) {
+                fringe.clear();
+            }
+            _G.unpin(_view);
+            _view = null;
+        }
+    }
+
+    /** Search G from the source, using FRINGE, until the destination (if
+     *  any) is reached. */
+    private void search(Graph G, IndexedHeap fringe) {
+        int source = getSource(), dest = getDest();
+        fringe.put(source, estimatedDistance(source));
+        while (!fringe.isEmpty()) {
+            int v = fringe.removeMin();
+            if (v == dest) {
+                break;
+            }
+            double weight = getWeight(v);
+            int n = G.outDegree(v);
+            for (int k = 0; k < n; k += 1) {
+                int w = G.successor(v, k);
+                double totalWeight = weight + edgeWeight(v, k, w);
+                if (totalWeight < getWeight(w)) {
+                    setWeight(w, totalWeight);
+                    setPredecessor(w, v);
+                    fringe.put(w, totalWeight + estimatedDistance(w));
+                }
+            }
+        }
+    }
+
+    /** Search G forwards from the source, using FRINGE, and backwards
+     *  from the destination at the same time, expanding whichever
+     *  search has the smaller fringe.  Both are A* searches, guided by
+     *  the potential P(V) = (estimatedDistance(V) -
+     *  estimatedDistanceFromSource(V)) / 2 and its negation, so that
+     *  they agree on the reduced length of every edge.  The search stops
+     *  once the smallest keys of the two fringes sum to at least the
+     *  length MU of the best path yet found through a vertex reached
+     *  from both sides: no undiscovered path can be shorter.  The
+     *  backward half of that path is then recorded in the predecessors
+     *  and weights, so that pathTo(getDest()) and getWeight(getDest())
+     *  give the result as for a one-directional search. */
+    private void searchBoth(Graph G, IndexedHeap forward) {
+        int source = getSource(), dest = getDest();
+        SearchWorkspace back = BACKWARD.get();
+        back.begin(G.maxVertex());
+        IndexedHeap backward = back.fringe();
+        back.setWeight(dest, 0);
+        forward.put(source, potential(source));
+        backward.put(dest, -potential(dest));
+        double mu = source == dest ? 0 : Double.POSITIVE_INFINITY;
+        int meet = source == dest ? source : 0;
+        while (!forward.isEmpty() && !backward.isEmpty()
+               && forward.minPriority() + backward.minPriority() < mu) {
+            if (forward.size() <= backward.size()) {
+                int v = forward.removeMin();
+                double weight = getWeight(v);
+                int n = G.outDegree(v);
+                for (int k = 0; k < n; k += 1) {
+                    int w = G.successor(v, k);
+                    double totalWeight = weight + edgeWeight(v, k, w);
+                    if (totalWeight < getWeight(w)) {
+                        setWeight(w, totalWeight);
+                        setPredecessor(w, v);
+                        forward.put(w, totalWeight + potential(w));
+                        if (totalWeight + back.weight(w) < mu) {
+                            mu = totalWeight + back.weight(w);
+                            meet = w;
+                        }
+                    }
+                }
+            } else {
+                int v = backward.removeMin();
+                double weight = back.weight(v);
+                int n = G.inDegree(v);
+                for (int k = 0; k < n; k += 1) {
+                    int u = G.predecessor(v, k);
+                    double totalWeight =
+                        weight + predecessorEdgeWeight(v, k, u);
+                    if (totalWeight < back.weight(u)) {
+                        back.setWeight(u, totalWeight);
+                        back.setPredecessor(u, v);
+                        backward.put(u, totalWeight - potential(u));
+                        if (totalWeight + getWeight(u) < mu) {
+                            mu = totalWeight + getWeight(u);
+                            meet = u;
+                        }
+                    }
+                }
+            }
+        }
+        backward.clear();
+        for (int v = meet; v != dest && v != 0; v = back.predecessor(v)) {
+            int next = back.predecessor(v);
+            setPredecessor(next, v);
+            setWeight(next, mu - back.weight(next));
+        }
+    }
+
+    /** Returns the potential of V used by searchBoth. */
+    private double potential(int v) {
+        return (estimatedDistance(v) - estimatedDistanceFromSource(v)) / 2;
+    }
+
+    /** Prepare for a search of G, the view of my graph about to be
+     *  searched by setPaths, by setting the weight of each vertex to
+     *  positive infinity and its predecessor to 0.  This default visits
+     *  every vertex; subclasses that can forget earlier results more
+     *  cheaply (see SimpleShortestPaths) override it. */
+    protected void initialize(Graph G) {
+        for (IntIteration it = G.intVertices(); it.hasNext(); ) {
+            int v = it.nextInt();
             setWeight(v, Double.POSITIVE_INFINITY);
             setPredecessor(v, 0);
         }
-        setWeight(getSource(), 0);
-        setPredecessor(getSource(), 0);
-        AStarTraversal t = new AStarTraversal(_G, fringe);
-        t.traverse(getSource());
+    }
+
+    /** Returns an empty fringe for a search of G by setPaths.  By
+     *  default, this is one kept by me between searches. */
+    IndexedHeap fringe(Graph G) {
+        if (_fringe == null) {
+            _fringe = new IndexedHeap(G.maxVertex());
+        }
+        return _fringe;
     }
 
     /** Returns the starting vertex. */
@@ -79,10 +214,53 @@ public abstract class ShortestPaths {
         return 0.0;
     }
 
+    /** Returns an estimated heuristic weight of the shortest path from the
+     *  source to vertex V, used by bidirectional searches as
+     *  estimatedDistance is by forward ones.  This is assumed to be less
+     *  than the actual weight, and is 0 by default. */
+    protected double estimatedDistanceFromSource(int v) {
+        return 0.0;
+    }
+
+    /** Returns true iff setPaths is to search from the source and the
+     *  destination at once, meeting in the middle, which usually
+     *  examines far fewer vertices when there is a destination.  The
+     *  result is then guaranteed to be a shortest path to the
+     *  destination only if estimatedDistance and
+     *  estimatedDistanceFromSource are consistent (never decrease along
+     *  an edge by more than its weight), and the weights and predecessors
+     *  of other vertices reflect only the forward search.  The backward
+     *  search keeps its state in storage shared by the thread's searches,
+     *  so the estimates must not themselves start a bidirectional search.
+     *  False by default. */
+    protected boolean bidirectional() {
+        return false;
+    }
+
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
      *  not in the graph, returns positive infinity. */
     protected abstract double getWeight(int u, int v);
 
+    /** Returns the graph being searched by setPaths: a view of _G that
+     *  does not change during the search (see Graph.pin).  Valid only
+     *  during setPaths. */
+    Graph view() {
+        return _view;
+    }
+
+    /** Returns getWeight(V, W), where W is successor K of V.  Subclasses
+     *  that can find the weight from the position of the edge in V's
+     *  adjacency list override this to avoid looking the edge up. */
+    double edgeWeight(int v, int k, int w) {
+        return getWeight(v, w);
+    }
+
+    /** Returns getWeight(U, V), where U is predecessor K of V, as for
+     *  edgeWeight. */
+    double predecessorEdgeWeight(int v, int k, int u) {
+        return getWeight(u, v);
+    }
+
     /** Returns a list of vertices starting at _source and ending
      *  at V that represents a shortest path to V.  Invalid if there is a
      *  destination vertex other than V. */
@@ -107,111 +285,18 @@ public abstract class ShortestPaths {
 
     /** The graph being searched. */
     protected final Graph _G;
+    /** The view of _G being searched during setPaths, or null. */
+    private Graph _view;
     /** The starting vertex. */
     private final int _source;
     /** The target vertex. */
     private final int _dest;
+    /** The fringe of setPaths, kept between calls, or null. */
+    private IndexedHeap _fringe;
 
-    /** Custom traversal for A* search. */
-    class AStarTraversal extends Traversal {
-        /** An A* traversal using GRAPH and FRINGE. */
-        protected AStarTraversal(Graph graph, TreeSetQueue fringe) {
-            super(graph, fringe);
-            g = graph;
-            f = fringe;
-        }
-
-        @Override
-        protected boolean visit(int v) {
-            if (v == getDest()) {
-                f.clear();
-                return true;
-            }
-            for (int successor : g.successors(v)) {
-                double totalWeight = getWeight(v)
-                        + getWeight(v, successor);
-                if (totalWeight < getWeight(successor)) {
-                    setWeight(successor, totalWeight);
-                    setPredecessor(successor, v);
-                    f.remove((Object) successor);
-                    f.add(successor);
-                }
-            }
-            return false;
-        }
-
-        /** My graph. */
-        private Graph g;
-
-        /** My fringe. */
-        private TreeSetQueue<Integer> f;
-    }
-
-    /** TreeSet that is used as a queue. */
-    private class TreeSetQueue<Integer> extends AbstractQueue<Integer> {
-
-        /** A custom kind of treeset queue. */
-        TreeSetQueue() {
-            myTreeSet = new TreeSet<>(new MyComparator<>());
-        }
-
-        @Override
-        public boolean offer(Integer v) {
-            try {
-                myTreeSet.add(v);
-                return true;
-            } catch (ClassCastException excp) {
-                return false;
-            } catch (NullPointerException excp) {
-                return false;
-            } catch (IllegalArgumentException excp) {
-                return false;
-            }
-        }
-
-        @Override
-        public Integer poll() {
-            return myTreeSet.pollFirst();
-        }
-
-        @Override
-        public Iterator<Integer> iterator() {
-            return myTreeSet.iterator();
-        }
-
-        @Override
-        public Integer peek() {
-            if (myTreeSet.isEmpty()) {
-                return null;
-            } else {
-                return myTreeSet.first();
-            }
-        }
-
-        @Override
-        public int size() {
-            return myTreeSet.size();
-        }
-
-        /** My TreeSet. */
-        private TreeSet<Integer> myTreeSet;
-    }
-
-    /** The type of comparator used in TreeSetQueue. */
-    private class MyComparator<Integer> implements Comparator<Integer> {
-        @Override
-        public int compare(Object u, Object v) {
-            int first = (int) u;
-            int second = (int) v;
-            double uWeight = getWeight(first) + estimatedDistance(first);
-            double vWeight = getWeight(second) + estimatedDistance(second);
-            if (uWeight < vWeight) {
-                return -5;
-            } else if (uWeight > vWeight) {
-                return 5;
-            } else {
-                return 2;
-            }
-        }
-    }
+    /** The weights, successors, and fringe of the backward half of a
+     *  bidirectional search, one per thread.  They are needed only while
+     *  the search runs, so every search on a thread shares them. */
+    private static final ThreadLocal<SearchWorkspace> BACKWARD =
+        ThreadLocal.withInitial(SearchWorkspace::new);
 }
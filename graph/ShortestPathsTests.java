@@ -3,6 +3,9 @@ package graph;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -54,4 +57,286 @@ public class ShortestPathsTests {
         correct.add(Double.POSITIVE_INFINITY);
         assertEquals(weights, correct);
     }
+
+    /** Returns G with random weights on its edges. */
+    static LabeledGraph<Void, Void> weighted(Graph g, long seed) {
+        LabeledGraph<Void, Void> result = new LabeledGraph<>(g);
+        Random r = new Random(seed);
+        for (int[] e : result.edges()) {
+            result.setWeight(e[0], e[1], r.nextInt(20) + 0.5);
+        }
+        return result;
+    }
+
+    /** Returns FrozenGraphTests.randomGraph(DIRECTED, N, M, SEED) with
+     *  random weights. */
+    static LabeledGraph<Void, Void> randomWeightedGraph(boolean directed,
+                                                        int n, int m,
+                                                        long seed) {
+        return weighted(FrozenGraphTests.randomGraph(directed, n, m, seed),
+                        seed);
+    }
+
+    @Test
+    public void testWeightColumn() {
+        for (boolean directed : new boolean[] { true, false }) {
+            final LabeledGraph<Void, Void> g = weighted(
+                FrozenGraphTests.randomGraph(directed, 60, 300, 11), 12);
+            int source = g.vertices().next();
+            WeightedShortestPaths fast = new WeightedShortestPaths(g, source);
+            SimpleShortestPaths slow = new SimpleShortestPaths(g, source) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return g.getWeight(u, v);
+                }
+            };
+            fast.setPaths();
+            slow.setPaths();
+            for (int v : g.vertices()) {
+                assertEquals(slow.getWeight(v), fast.getWeight(v), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testWeightDefaults() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        g.add();
+        g.add();
+        g.add(1, 2);
+        assertEquals(LabeledGraph.DEFAULT_WEIGHT, g.getWeight(1, 2), 0);
+        assertEquals(Double.POSITIVE_INFINITY, g.getWeight(2, 1), 0);
+        g.setWeight(1, 2, 7.5);
+        assertEquals(7.5, g.getWeight(1, 2), 0);
+        g.remove(1, 2);
+        g.add(2, 1);
+        assertEquals(LabeledGraph.DEFAULT_WEIGHT, g.getWeight(2, 1), 0);
+        WeightedShortestPaths p = new WeightedShortestPaths(g, 2, 1);
+        p.setPaths();
+        assertEquals(1.0, p.getWeight(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWeightNoEdge() {
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        g.add();
+        g.setWeight(1, 1, 2.0);
+    }
+
+    @Test
+    public void testIndexedHeap() {
+        Random r = new Random(21);
+        int n = 200;
+        double[] keys = new double[n + 1];
+        Arrays.fill(keys, Double.NaN);
+        IndexedHeap h = new IndexedHeap();
+        int size = 0;
+        for (int i = 0; i < 5000; i += 1) {
+            if (r.nextInt(3) == 0 && !h.isEmpty()) {
+                double min = h.minPriority();
+                int v = h.removeMin();
+                assertEquals(keys[v], min, 0);
+                for (double k : keys) {
+                    assertFalse(k < min);
+                }
+                keys[v] = Double.NaN;
+                size -= 1;
+            } else {
+                int v = 1 + r.nextInt(n);
+                double k = r.nextInt(1000);
+                if (Double.isNaN(keys[v])) {
+                    size += 1;
+                }
+                keys[v] = k;
+                h.put(v, k);
+                assertEquals(k, h.priority(v), 0);
+            }
+            assertEquals(size, h.size());
+        }
+        h.clear();
+        assertTrue(h.isEmpty());
+        assertFalse(h.contains(1));
+    }
+
+    @Test
+    public void testInconsistentEstimate() {
+        final LabeledGraph<Void, Void> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.setWeight(1, 2, 4);
+        g.add(1, 3);
+        g.setWeight(1, 3, 1);
+        g.add(3, 2);
+        g.setWeight(3, 2, 1);
+        g.add(2, 4);
+        g.setWeight(2, 4, 10);
+        final double[] h = { 0, 0, 0, 11, 0 };
+        WeightedShortestPaths p = new WeightedShortestPaths(g, 1, 4) {
+            @Override
+            protected double estimatedDistance(int v) {
+                return h[v];
+            }
+        };
+        p.setPaths();
+        assertEquals(12.0, p.getWeight(4), 0);
+        assertEquals(Arrays.asList(1, 3, 2, 4), p.pathTo());
+    }
+
+    @Test
+    public void testSharedWorkspace() throws Exception {
+        LabeledGraph<Void, Void> g = weighted(
+            FrozenGraphTests.randomGraph(true, 80, 400, 22), 23);
+        SearchWorkspace ws = new SearchWorkspace();
+        for (int source = 1; source <= 80; source += 7) {
+            for (int dest = 0; dest <= 80; dest += 40) {
+                WeightedShortestPaths shared =
+                    new WeightedShortestPaths(g, source, dest, ws),
+                    fresh = new WeightedShortestPaths(g, source, dest);
+                shared.setPaths();
+                fresh.setPaths();
+                for (int v = 0; v <= 81; v += 1) {
+                    assertEquals(fresh.getWeight(v), shared.getWeight(v), 0);
+                    assertEquals(fresh.getPredecessor(v),
+                                 shared.getPredecessor(v));
+                }
+            }
+        }
+        SearchWorkspace mine = SearchWorkspace.forCurrentThread();
+        assertSame(mine, SearchWorkspace.forCurrentThread());
+        SearchWorkspace[] other = new SearchWorkspace[1];
+        Thread t = new Thread(() -> {
+            other[0] = SearchWorkspace.forCurrentThread();
+        });
+        t.start();
+        t.join();
+        assertNotNull(other[0]);
+        assertNotSame(mine, other[0]);
+    }
+
+    /** Shortest paths in a weighted graph, bidirectional iff BOTH, with
+     *  the straight-line distances between the points (XS[v], YS[v])
+     *  as estimates if XS is not null. */
+    static class Bidirectional extends WeightedShortestPaths {
+        /** Paths in G from SOURCE to DEST. */
+        Bidirectional(LabeledGraph<?, ?> G, int source, int dest,
+                      boolean both, double[] xs, double[] ys) {
+            super(G, source, dest);
+            _both = both;
+            _xs = xs;
+            _ys = ys;
+        }
+
+        @Override
+        protected boolean bidirectional() {
+            return _both;
+        }
+
+        @Override
+        protected double estimatedDistance(int v) {
+            return distance(v, getDest());
+        }
+
+        @Override
+        protected double estimatedDistanceFromSource(int v) {
+            return distance(v, getSource());
+        }
+
+        /** Returns the straight-line distance from U to V, or 0. */
+        private double distance(int u, int v) {
+            return _xs == null ? 0 : Math.hypot(_xs[u] - _xs[v],
+                                                _ys[u] - _ys[v]);
+        }
+
+        /** True iff searching from both ends. */
+        private final boolean _both;
+        /** Coordinates of the vertices, or null. */
+        private final double[] _xs, _ys;
+    }
+
+    /** Check that bidirectional searches of G, using the points (XS[v],
+     *  YS[v]) if XS is not null, find paths of the same length as
+     *  one-directional ones, and that the paths are valid. */
+    private void checkBidirectional(LabeledGraph<?, ?> g, double[] xs,
+                                    double[] ys) {
+        int n = g.maxVertex();
+        for (int source = 1; source <= n; source += 5) {
+            for (int dest = 1; dest <= n; dest += 3) {
+                Bidirectional one =
+                    new Bidirectional(g, source, dest, false, xs, ys),
+                    both = new Bidirectional(g, source, dest, true, xs, ys);
+                one.setPaths();
+                both.setPaths();
+                assertEquals(one.getWeight(dest), both.getWeight(dest),
+                             1e-9);
+                if (source == dest
+                    || both.getWeight(dest) == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                List<Integer> path = both.pathTo();
+                double length = 0;
+                for (int i = 1; i < path.size(); i += 1) {
+                    length += g.getWeight(path.get(i - 1), path.get(i));
+                }
+                assertEquals(source, (int) path.get(0));
+                assertEquals(dest, (int) path.get(path.size() - 1));
+                assertEquals(both.getWeight(dest), length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectional() {
+        for (boolean directed : new boolean[] { true, false }) {
+            checkBidirectional(weighted(FrozenGraphTests.randomGraph(
+                directed, 70, 180, 24), 25), null, null);
+        }
+    }
+
+    @Test
+    public void testBidirectionalAStar() {
+        Random r = new Random(26);
+        int n = 80;
+        double[] xs = new double[n + 1], ys = new double[n + 1];
+        LabeledGraph<Void, Void> g = new LabeledGraph<>(new DirectedGraph());
+        for (int v = 1; v <= n; v += 1) {
+            g.add();
+            xs[v] = r.nextDouble() * 100;
+            ys[v] = r.nextDouble() * 100;
+        }
+        for (int i = 0; i < 300; i += 1) {
+            int u = 1 + r.nextInt(n), v = 1 + r.nextInt(n);
+            if (g.add(u, v) != 0) {
+                g.setWeight(u, v, Math.hypot(xs[u] - xs[v], ys[u] - ys[v])
+                            * (1 + r.nextDouble()));
+            }
+        }
+        checkBidirectional(g, xs, ys);
+    }
+
+    @Test
+    public void testFilteredGraph() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            d.add();
+        }
+        d.add(1, 2);
+        d.add(2, 3);
+        d.add(1, 4);
+        d.add(4, 3);
+        LabeledGraph<Void, Void> g =
+            new LabeledGraph<>(new TraversalTests.HidingFilter(d, 1, 2));
+        g.setWeight(2, 3, 1);
+        g.setWeight(1, 4, 1);
+        g.setWeight(4, 3, 5);
+        for (boolean both : new boolean[] { false, true }) {
+            ShortestPaths s = new Bidirectional(g, 1, 3, both, null, null);
+            s.setPaths();
+            assertEquals(6, s.getWeight(3), 0);
+            assertEquals(Arrays.asList(1, 4, 3), s.pathTo(3));
+            assertEquals(Double.POSITIVE_INFINITY, s.getWeight(2), 0);
+        }
+    }
 }
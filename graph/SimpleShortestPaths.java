@@ -4,7 +4,12 @@ package graph;
 
 /** A partial implementation of ShortestPaths that contains the weights of
  *  the vertices and the predecessor edges.   The client needs to
- *  supply only the two-argument getWeight method.
+ *  supply only the two-argument getWeight method.  The weights and
+ *  predecessors are kept in a SearchWorkspace, which may be supplied by
+ *  the client so that it can be shared by many searches; each search
+ *  then costs time proportional to the vertices it reaches rather than
+ *  to the size of the graph.  The results of a search sharing a
+ *  workspace are valid only until the next search using it.
  *  @author Florence Lau
  */
 public abstract class SimpleShortestPaths extends ShortestPaths {
@@ -16,10 +21,15 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     /** A shortest path in G from SOURCE to DEST. */
     public SimpleShortestPaths(Graph G, int source, int dest) {
+        this(G, source, dest, new SearchWorkspace());
+    }
+
+    /** A shortest path in G from SOURCE to DEST, whose results are kept
+     *  in WORKSPACE. */
+    public SimpleShortestPaths(Graph G, int source, int dest,
+                               SearchWorkspace workspace) {
         super(G, source, dest);
-        _graph = G;
-        weights = new double[_graph.maxVertex() + 1];
-        _predecessors = new int[_graph.maxVertex() + 1];
+        _workspace = workspace;
     }
 
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
@@ -29,31 +39,35 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     @Override
     public double getWeight(int v) {
-        return weights[v];
+        return _workspace.weight(v);
     }
 
     @Override
     protected void setWeight(int v, double w) {
-        weights[v] = w;
+        _workspace.setWeight(v, w);
     }
 
     @Override
     public int getPredecessor(int v) {
-        return _predecessors[v];
+        return _workspace.predecessor(v);
     }
 
     @Override
     protected void setPredecessor(int v, int u) {
-        _predecessors[v] = u;
+        _workspace.setPredecessor(v, u);
     }
 
-    /** Array of vertex weights. */
-    private double[] weights;
+    @Override
+    protected void initialize(Graph G) {
+        _workspace.begin(G.maxVertex());
+    }
 
-    /** Array of vertex predecessors. */
-    private int[] _predecessors;
+    @Override
+    IndexedHeap fringe(Graph G) {
+        return _workspace.fringe();
+    }
 
-    /** The graph where shortest paths are found. */
-    private Graph _graph;
+    /** Holds my weights and predecessors. */
+    private final SearchWorkspace _workspace;
 
 }
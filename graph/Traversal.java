@@ -46,21 +46,28 @@ public abstract class Traversal {
     public void traverse(Collection<Integer> V0) {
         clear();
         _fringe.addAll(V0);
-        while (!_fringe.isEmpty()) {
-            int v = _fringe.remove();
-            if (marked(v) && !postvisited.contains(v) && shouldPostVisit(v)) {
-                postVisit(v);
-                postvisited.add(v);
-            } else if (!marked(v)) {
-                mark(v);
-                visit(v);
-                _fringe.add(v);
-                for (int w : _G.successors(v)) {
-                    if (processSuccessor(v, w)) {
-                        _fringe.add(w);
+        Graph G = _G.pin();
+        try {
+            while (!_fringe.isEmpty()) {
+                int v = _fringe.remove();
+                if (marked(v) && !postvisited.contains(v)
+                    && shouldPostVisit(v)) {
+                    postVisit(v);
+                    postvisited.add(v);
+                } else if (!marked(v)) {
+                    mark(v);
+                    visit(v);
+                    _fringe.add(v);
+                    for (IntIteration s = G.intSuccessors(v); s.hasNext(); ) {
+                        int w = s.nextInt();
+                        if (processSuccessor(v, w)) {
+                            _fringe.add(w);
+                        }
                     }
                 }
             }
+        } finally {
+            _G.unpin(G);
         }
     }
 
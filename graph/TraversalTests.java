@@ -3,7 +3,9 @@ package graph;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -11,6 +13,85 @@ import static org.junit.Assert.*;
  *  @author Florence Lau
  */
 public class TraversalTests {
+
+    /** A view of a graph without its edge (A, B), for testing that searches
+     *  honor the methods a GraphFilter overrides. */
+    static class HidingFilter extends GraphFilter {
+        /** A view of G without the edge (A, B). */
+        HidingFilter(Graph G, int a, int b) {
+            super(G);
+            _a = a;
+            _b = b;
+        }
+
+        /** Returns true iff (U, V) is the hidden edge. */
+        private boolean hidden(int u, int v) {
+            return u == _a && v == _b;
+        }
+
+        /** Returns the contents of ENDS, leaving out X. */
+        private static List<Integer> without(Iteration<Integer> ends,
+                                             int x) {
+            List<Integer> result = FrozenGraphTests.list(ends);
+            result.remove(Integer.valueOf(x));
+            return result;
+        }
+
+        @Override
+        public boolean contains(int u, int v) {
+            return !hidden(u, v) && super.contains(u, v);
+        }
+
+        @Override
+        public int edgeSize() {
+            return super.edgeSize() - (super.contains(_a, _b) ? 1 : 0);
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return Iteration.iteration(
+                v == _a ? without(super.successors(v), _b)
+                : FrozenGraphTests.list(super.successors(v)));
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            return Iteration.iteration(
+                v == _b ? without(super.predecessors(v), _a)
+                : FrozenGraphTests.list(super.predecessors(v)));
+        }
+
+        @Override
+        public int outDegree(int v) {
+            return FrozenGraphTests.list(successors(v)).size();
+        }
+
+        @Override
+        public int inDegree(int v) {
+            return FrozenGraphTests.list(predecessors(v)).size();
+        }
+
+        @Override
+        public int successor(int v, int k) {
+            List<Integer> s = FrozenGraphTests.list(successors(v));
+            return k < s.size() ? s.get(k) : 0;
+        }
+
+        @Override
+        public int predecessor(int v, int k) {
+            List<Integer> p = FrozenGraphTests.list(predecessors(v));
+            return k < p.size() ? p.get(k) : 0;
+        }
+
+        @Override
+        protected int edgeId(int u, int v) {
+            return hidden(u, v) ? 0 : super.edgeId(u, v);
+        }
+
+        /** The hidden edge. */
+        private final int _a, _b;
+    }
+
     @Test
     public void testBreadth() {
         Graph g = new DirectedGraph();
@@ -55,4 +136,22 @@ public class TraversalTests {
         d.traverse(3);
         assertEquals(d.testingMarked(), order);
     }
+
+    @Test
+    public void testFilteredBreadth() {
+        Graph d = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            d.add();
+        }
+        d.add(1, 2);
+        d.add(1, 4);
+        d.add(2, 3);
+        BreadthFirstTraversal b =
+            new BreadthFirstTraversal(new HidingFilter(d, 1, 2));
+        b.traverse(1);
+        assertEquals(Arrays.asList(1, 4), b.testingMarked());
+        b = new BreadthFirstTraversal(d);
+        b.traverse(1);
+        assertEquals(Arrays.asList(1, 2, 4, 3), b.testingMarked());
+    }
 }
@@ -2,8 +2,17 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
 /** Represents an undirected graph.  Out edges and in edges are not
  *  distinguished.  Likewise for successors and predecessors.
+ *  Each edge is stored once, in the edge table of GraphObj.  A vertex
+ *  keeps only a list of the ids of its incident edges, in the order they
+ *  were added (a self edge appears once); the neighbor across edge E from
+ *  V is found from E's end points as U ^ W ^ V, without a second copy of
+ *  the edge.
  *
  *  @author Florence Lau
  */
@@ -14,19 +23,142 @@ public class UndirectedGraph extends GraphObj {
         return false;
     }
 
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? incidence.size(v) : 0;
+    }
+
     @Override
     public int inDegree(int v) {
         return outDegree(v);
     }
 
+    @Override
+    public int successor(int v, int k) {
+        int e = element(incidence, v, k);
+        return e == 0 ? 0 : otherEnd(e, v);
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        return element(incidence, v, k);
+    }
+
     @Override
     public int predecessor(int v, int k) {
         return successor(v, k);
     }
 
+    @Override
+    int predecessorEdge(int v, int k) {
+        return successorEdge(v, k);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        int n = copy(incidence, v, dst);
+        for (int k = Math.min(n, dst.length) - 1; k >= 0; k -= 1) {
+            dst[k] = otherEnd(dst[k], v);
+        }
+        return n;
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        return copySuccessors(v, dst);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < incidence.size(v);
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return otherEnd(incidence.get(v, _k - 1), v);
+            }
+
+            /** Index of the next incident edge. */
+            private int _k;
+        };
+    }
+
     @Override
     public Iteration<Integer> predecessors(int v) {
         return successors(v);
     }
 
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    void link(int u, int v, int e) {
+        incidence.add(u, e);
+        if (u != v) {
+            incidence.add(v, e);
+        }
+    }
+
+    @Override
+    void unlink(int u, int v, int e) {
+        incidence.remove(u, e);
+        if (u != v) {
+            incidence.remove(v, e);
+        }
+    }
+
+    @Override
+    void unlinkAll(int v, BitSet dead) {
+        removeIds(incidence, null, v, dead);
+    }
+
+    @Override
+    int[] incidentEdges(int v) {
+        return incidence.toArray(v);
+    }
+
+    @Override
+    void clearVertex(int v) {
+        incidence.clear(v);
+    }
+
+    @Override
+    void loadAdjacency(int n, int[] edgeU, int[] edgeV) {
+        int m = edgeU.length;
+        int[] size = new int[n + 1];
+        for (int i = 0; i < m; i += 1) {
+            size[edgeU[i]] += 1;
+            if (edgeU[i] != edgeV[i]) {
+                size[edgeV[i]] += 1;
+            }
+        }
+        int[][] rows = rows(size);
+        Arrays.fill(size, 0);
+        for (int i = 0; i < m; i += 1) {
+            int u = edgeU[i], v = edgeV[i];
+            rows[u][size[u]] = i + 1;
+            size[u] += 1;
+            if (u != v) {
+                rows[v][size[v]] = i + 1;
+                size[v] += 1;
+            }
+        }
+        for (int v = 1; v <= n; v += 1) {
+            incidence.set(v, rows[v], size[v]);
+        }
+    }
+
+    /** The ids of the edges incident on each vertex, in the order the
+     *  edges were added. */
+    private final IntLists incidence = new IntLists();
+
 }
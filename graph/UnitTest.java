@@ -15,7 +15,20 @@ public class UnitTest {
 
     /** Run all JUnit tests in the graph package. */
     public static void main(String[] ignored) {
-        System.exit(textui.runClasses(graph.GraphTesting.class));
+        System.exit(textui.runClasses(graph.GraphTesting.class,
+                                      graph.GraphObjTests.class,
+                                      graph.TraversalTests.class,
+                                      graph.ShortestPathsTests.class,
+                                      graph.FrozenGraphTests.class,
+                                      graph.MappedGraphTests.class,
+                                      graph.GraphBuilderTests.class,
+                                      graph.PropertyColumnTests.class,
+                                      graph.LabelMapTests.class,
+                                      graph.ConcurrentGraphTests.class,
+                                      graph.VersionedGraphTests.class,
+                                      graph.GraphBatchTests.class,
+                                      graph.ContractionHierarchyTests.class,
+                                      graph.LandmarksTests.class));
     }
 
 }
@@ -0,0 +1,589 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static graph.GraphVersion.BITS;
+import static graph.GraphVersion.EMPTY;
+import static graph.GraphVersion.MASK;
+import static graph.GraphVersion.NO_SEQS;
+
+/** A Graph, directed or undirected, whose readers never block its writers
+ *  nor see a change half made.  Each change publishes a new immutable
+ *  version of the graph (a GraphVersion), copying only the parts of the
+ *  previous one that change: the lists of the vertices involved, the
+ *  leaves of the vertex tree that hold them, and the path above those
+ *  leaves.  Reads made directly on a VersionedGraph see the latest
+ *  version at the time of each call; pin() returns a Snapshot, a Graph
+ *  that stays at the version current when it was pinned until it is
+ *  closed, however the VersionedGraph changes meanwhile.  Traversals and
+ *  ShortestPaths.setPaths pin a snapshot of their graph for their
+ *  duration automatically, including when it is labeled by a
+ *  LabeledGraph, so that a weighted search is not disturbed by changes
+ *  made while it runs.  Old versions are reclaimed once no snapshot pins
+ *  them.
+ *
+ *  Changes are serialized with one another (on this object's lock), but
+ *  neither reads nor snapshots take that lock.  Vertex numbers and edge
+ *  ids are allocated as in DirectedGraph and UndirectedGraph.
+ *  @author Florence Lau
+ */
+public class VersionedGraph extends Graph {
+
+    /** An empty graph, directed iff DIRECTED. */
+    public VersionedGraph(boolean directed) {
+        _directed = directed;
+        _current = new GraphVersion(directed,
+                                    new GraphVersion.Leaf(null, directed),
+                                    0, 0, 0, 0, 0);
+    }
+
+    /** Returns a Snapshot of my current version.  It must be closed when
+     *  no longer needed, so that the version can be reclaimed. */
+    @Override
+    public Snapshot pin() {
+        _pinned.incrementAndGet();
+        return new Snapshot(_current, _pinned);
+    }
+
+    @Override
+    void unpin(Graph view) {
+        ((Snapshot) view).close();
+    }
+
+    /** Returns the number of snapshots pinned and not yet closed. */
+    public int pinned() {
+        return _pinned.get();
+    }
+
+    @Override
+    public int vertexSize() {
+        return _current.vertexSize();
+    }
+
+    @Override
+    public int maxVertex() {
+        return _current.maxVertex();
+    }
+
+    @Override
+    public int edgeSize() {
+        return _current.edgeSize();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return GraphVersion.length(_current.successors(v));
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return GraphVersion.length(_current.predecessors(v));
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return _current.contains(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return _current.edgeId(u, v) != 0;
+    }
+
+    @Override
+    public synchronized int add() {
+        int v;
+        if (!_deletedVertices.isEmpty()) {
+            v = _deletedVertices.removeMin();
+        } else {
+            _highestVertex += 1;
+            v = _highestVertex;
+        }
+        GraphVersion.Leaf leaf = leafForWrite(v);
+        leaf.present |= 1L << v;
+        leaf.out[v & MASK] = leaf.outIds[v & MASK] = EMPTY;
+        leaf.outSeqs[v & MASK] = NO_SEQS;
+        if (_directed) {
+            leaf.in[v & MASK] = leaf.inIds[v & MASK] = EMPTY;
+        }
+        _numVertices += 1;
+        publish();
+        return v;
+    }
+
+    @Override
+    public synchronized int add(int u, int v) {
+        GraphVersion work = _current;
+        if (!work.contains(u) || !work.contains(v)) {
+            return 0;
+        }
+        int e = work.edgeId(u, v);
+        if (e != 0) {
+            return e;
+        }
+        if (!_freeEdgeIds.isEmpty()) {
+            e = _freeEdgeIds.removeMin();
+        } else {
+            _highestEdgeId += 1;
+            e = _highestEdgeId;
+        }
+        long seq = _edgeSequence;
+        _edgeSequence += 1;
+        GraphVersion.Leaf lu = leafForWrite(u);
+        lu.out[u & MASK] = append(lu.out[u & MASK], v);
+        lu.outIds[u & MASK] = append(lu.outIds[u & MASK], e);
+        lu.outSeqs[u & MASK] = append(lu.outSeqs[u & MASK], seq);
+        GraphVersion.Leaf lv = leafForWrite(v);
+        if (_directed) {
+            lv.in[v & MASK] = append(lv.in[v & MASK], u);
+            lv.inIds[v & MASK] = append(lv.inIds[v & MASK], e);
+        } else if (u != v) {
+            lv.out[v & MASK] = append(lv.out[v & MASK], u);
+            lv.outIds[v & MASK] = append(lv.outIds[v & MASK], e);
+            lv.outSeqs[v & MASK] = append(lv.outSeqs[v & MASK], seq);
+        }
+        _numEdges += 1;
+        publish();
+        return e;
+    }
+
+    @Override
+    public synchronized void remove(int v) {
+        GraphVersion work = _current;
+        if (!work.contains(v)) {
+            return;
+        }
+        for (int w : work.successors(v)) {
+            removeEdge(v, w);
+        }
+        if (_directed) {
+            for (int w : work.predecessors(v)) {
+                removeEdge(w, v);
+            }
+        }
+        GraphVersion.Leaf leaf = leafForWrite(v);
+        leaf.present &= ~(1L << v);
+        leaf.out[v & MASK] = leaf.outIds[v & MASK] = null;
+        leaf.outSeqs[v & MASK] = null;
+        if (_directed) {
+            leaf.in[v & MASK] = leaf.inIds[v & MASK] = null;
+        }
+        _deletedVertices.add(v);
+        _numVertices -= 1;
+        publish();
+    }
+
+    @Override
+    public synchronized void remove(int u, int v) {
+        GraphVersion work = _current;
+        if (work.contains(u) && work.contains(v)
+            && work.edgeId(u, v) != 0) {
+            removeEdge(u, v);
+            publish();
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return _current.vertices();
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return _current.vertices();
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return GraphVersion.element(_current.successors(v), k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        return GraphVersion.element(_current.predecessors(v), k);
+    }
+
+    @Override
+    public int copySuccessors(int v, int[] dst) {
+        return GraphVersion.copy(_current.successors(v), dst);
+    }
+
+    @Override
+    public int copyPredecessors(int v, int[] dst) {
+        return GraphVersion.copy(_current.predecessors(v), dst);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return GraphVersion.iteration(_current.successors(v));
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return GraphVersion.iteration(_current.predecessors(v));
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return _current.edges();
+    }
+
+    @Override
+    int successorEdge(int v, int k) {
+        return _current.successorEdge(v, k);
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return _current.edgeId(u, v);
+    }
+
+    @Override
+    long modCount() {
+        return _current.stamp();
+    }
+
+    /** Remove edge (U, V), which is present, in the edit in progress. */
+    private void removeEdge(int u, int v) {
+        GraphVersion.Leaf lu = leafForWrite(u);
+        int k = GraphVersion.indexOf(lu.out[u & MASK], v);
+        if (k < 0) {
+            return;
+        }
+        _freeEdgeIds.add(lu.outIds[u & MASK][k]);
+        lu.out[u & MASK] = removeAt(lu.out[u & MASK], k);
+        lu.outIds[u & MASK] = removeAt(lu.outIds[u & MASK], k);
+        lu.outSeqs[u & MASK] = removeAt(lu.outSeqs[u & MASK], k);
+        GraphVersion.Leaf lv = leafForWrite(v);
+        if (_directed) {
+            k = GraphVersion.indexOf(lv.in[v & MASK], u);
+            lv.in[v & MASK] = removeAt(lv.in[v & MASK], k);
+            lv.inIds[v & MASK] = removeAt(lv.inIds[v & MASK], k);
+        } else if (u != v) {
+            k = GraphVersion.indexOf(lv.out[v & MASK], u);
+            lv.out[v & MASK] = removeAt(lv.out[v & MASK], k);
+            lv.outIds[v & MASK] = removeAt(lv.outIds[v & MASK], k);
+            lv.outSeqs[v & MASK] = removeAt(lv.outSeqs[v & MASK], k);
+        }
+        _numEdges -= 1;
+    }
+
+    /** Returns the leaf holding vertex V in the edit in progress (starting
+     *  one if necessary), copying it and the nodes above it if they
+     *  belong to a published version. */
+    private GraphVersion.Leaf leafForWrite(int v) {
+        if (_edit == null) {
+            _edit = new Object();
+            _root = _current.root();
+            _height = _current.height();
+            _numVertices = _current.vertexSize();
+            _numEdges = _current.edgeSize();
+        }
+        while (v >= GraphVersion.capacity(_height)) {
+            GraphVersion.Inner root = new GraphVersion.Inner(_edit);
+            root.children[0] = _root;
+            _root = root;
+            _height += 1;
+        }
+        _root = owned(_root);
+        GraphVersion.Node node = _root;
+        for (int level = _height; level > 0; level -= 1) {
+            GraphVersion.Inner inner = (GraphVersion.Inner) node;
+            int i = (v >>> (BITS * level)) & MASK;
+            GraphVersion.Node child = inner.children[i];
+            if (child == null) {
+                child = level > 1 ? new GraphVersion.Inner(_edit)
+                    : new GraphVersion.Leaf(_edit, _directed);
+            } else {
+                child = owned(child);
+            }
+            inner.children[i] = child;
+            node = child;
+        }
+        return (GraphVersion.Leaf) node;
+    }
+
+    /** Returns NODE if the edit in progress owns it, and otherwise a copy
+     *  that it owns. */
+    private GraphVersion.Node owned(GraphVersion.Node node) {
+        return node.owner == _edit ? node : node.copy(_edit);
+    }
+
+    /** Publish the edit in progress as my current version. */
+    private void publish() {
+        if (_edit == null) {
+            return;
+        }
+        _current = new GraphVersion(_directed, _root, _height, _numVertices,
+                                    _highestVertex, _numEdges,
+                                    _current.stamp() + 1);
+        _edit = null;
+        _root = null;
+    }
+
+    /** Returns a copy of ROW with X added at the end. */
+    private static int[] append(int[] row, int x) {
+        int[] result = Arrays.copyOf(row, row.length + 1);
+        result[row.length] = x;
+        return result;
+    }
+
+    /** Returns a copy of ROW with X added at the end. */
+    private static long[] append(long[] row, long x) {
+        long[] result = Arrays.copyOf(row, row.length + 1);
+        result[row.length] = x;
+        return result;
+    }
+
+    /** Returns a copy of ROW without element K. */
+    private static int[] removeAt(int[] row, int k) {
+        if (row.length == 1) {
+            return EMPTY;
+        }
+        int[] result = Arrays.copyOf(row, row.length - 1);
+        System.arraycopy(row, k + 1, result, k, row.length - k - 1);
+        return result;
+    }
+
+    /** Returns a copy of ROW without element K. */
+    private static long[] removeAt(long[] row, int k) {
+        if (row.length == 1) {
+            return NO_SEQS;
+        }
+        long[] result = Arrays.copyOf(row, row.length - 1);
+        System.arraycopy(row, k + 1, result, k, row.length - k - 1);
+        return result;
+    }
+
+    /** A read-only view of one version of a VersionedGraph, which stays
+     *  the same until closed.  Its vertex numbers and edge ids are those
+     *  of the VersionedGraph at the time it was pinned.  Attempts to
+     *  change it throw UnsupportedOperationException, and any use after
+     *  it is closed throws IllegalStateException. */
+    public static final class Snapshot extends Graph
+        implements AutoCloseable {
+
+        /** A snapshot of VERSION, counted in PINNED while open. */
+        Snapshot(GraphVersion version, AtomicInteger pinned) {
+            _version = version;
+            _pinned = pinned;
+        }
+
+        /** Release my version.  Has no effect if I am already closed. */
+        @Override
+        public synchronized void close() {
+            if (_version != null) {
+                _version = null;
+                _pinned.decrementAndGet();
+            }
+        }
+
+        /** Returns me: I do not change. */
+        @Override
+        Graph pin() {
+            return this;
+        }
+
+        @Override
+        void unpin(Graph view) {
+        }
+
+        @Override
+        public int vertexSize() {
+            return version().vertexSize();
+        }
+
+        @Override
+        public int maxVertex() {
+            return version().maxVertex();
+        }
+
+        @Override
+        public int edgeSize() {
+            return version().edgeSize();
+        }
+
+        @Override
+        public boolean isDirected() {
+            return version().isDirected();
+        }
+
+        @Override
+        public int outDegree(int v) {
+            return GraphVersion.length(version().successors(v));
+        }
+
+        @Override
+        public int inDegree(int v) {
+            return GraphVersion.length(version().predecessors(v));
+        }
+
+        @Override
+        public boolean contains(int u) {
+            return version().contains(u);
+        }
+
+        @Override
+        public boolean contains(int u, int v) {
+            return version().edgeId(u, v) != 0;
+        }
+
+        @Override
+        public int add() {
+            throw readOnly();
+        }
+
+        @Override
+        public int add(int u, int v) {
+            throw readOnly();
+        }
+
+        @Override
+        public void remove(int v) {
+            throw readOnly();
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            throw readOnly();
+        }
+
+        @Override
+        public Iteration<Integer> vertices() {
+            return version().vertices();
+        }
+
+        @Override
+        public IntIteration intVertices() {
+            return version().vertices();
+        }
+
+        @Override
+        public int successor(int v, int k) {
+            return GraphVersion.element(version().successors(v), k);
+        }
+
+        @Override
+        public int predecessor(int v, int k) {
+            return GraphVersion.element(version().predecessors(v), k);
+        }
+
+        @Override
+        public int copySuccessors(int v, int[] dst) {
+            return GraphVersion.copy(version().successors(v), dst);
+        }
+
+        @Override
+        public int copyPredecessors(int v, int[] dst) {
+            return GraphVersion.copy(version().predecessors(v), dst);
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return intSuccessors(v);
+        }
+
+        @Override
+        public IntIteration intSuccessors(int v) {
+            return GraphVersion.iteration(version().successors(v));
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            return intPredecessors(v);
+        }
+
+        @Override
+        public IntIteration intPredecessors(int v) {
+            return GraphVersion.iteration(version().predecessors(v));
+        }
+
+        @Override
+        public Iteration<int[]> edges() {
+            return version().edges();
+        }
+
+        @Override
+        int successorEdge(int v, int k) {
+            return version().successorEdge(v, k);
+        }
+
+        @Override
+        protected int edgeId(int u, int v) {
+            return version().edgeId(u, v);
+        }
+
+        @Override
+        long modCount() {
+            return version().stamp();
+        }
+
+        /** Returns my version, which must not have been released. */
+        private GraphVersion version() {
+            GraphVersion version = _version;
+            if (version == null) {
+                throw new IllegalStateException("snapshot closed");
+            }
+            return version;
+        }
+
+        /** Returns the exception thrown by attempts to change me. */
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        /** My version, or null once I am closed. */
+        private volatile GraphVersion _version;
+        /** Count of open snapshots of my graph. */
+        private final AtomicInteger _pinned;
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** The latest published version. */
+    private volatile GraphVersion _current;
+    /** Number of open snapshots. */
+    private final AtomicInteger _pinned = new AtomicInteger();
+
+    /* The following are used only by writers, holding my lock. */
+
+    /** The token owning the nodes created by the edit in progress, or
+     *  null if there is none. */
+    private Object _edit;
+    /** Root of the tree being edited. */
+    private GraphVersion.Node _root;
+    /** Height of the tree being edited. */
+    private int _height;
+    /** Number of vertices after the edit in progress. */
+    private int _numVertices;
+    /** Number of edges after the edit in progress. */
+    private int _numEdges;
+    /** Largest vertex number ever allocated. */
+    private int _highestVertex;
+    /** The unused vertex numbers less than _highestVertex. */
+    private final IntHeap _deletedVertices = new IntHeap();
+    /** Largest edge id ever allocated. */
+    private int _highestEdgeId;
+    /** Released edge ids less than _highestEdgeId. */
+    private final IntHeap _freeEdgeIds = new IntHeap();
+    /** The sequence number of the next edge added. */
+    private long _edgeSequence;
+}
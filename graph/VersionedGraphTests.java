@@ -0,0 +1,220 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for VersionedGraph and its snapshots.
+ *  @author Florence Lau
+ */
+public class VersionedGraphTests {
+
+    /** Apply the same random operations to a VersionedGraph and a
+     *  GraphObj, both directed iff DIRECTED, comparing them. */
+    private void checkSequential(boolean directed) {
+        Random rand = new Random(19);
+        VersionedGraph G = new VersionedGraph(directed);
+        Graph H = directed ? new DirectedGraph() : new UndirectedGraph();
+        for (int i = 0; i < 200; i += 1) {
+            assertEquals(H.add(), G.add());
+        }
+        for (int i = 0; i < 4000; i += 1) {
+            int op = rand.nextInt(10);
+            int u = 1 + rand.nextInt(300), v = 1 + rand.nextInt(300);
+            if (op < 2) {
+                assertEquals(H.add(), G.add());
+            } else if (op < 3) {
+                H.remove(u);
+                G.remove(u);
+            } else if (op < 8) {
+                assertEquals(H.add(u, v), G.add(u, v));
+            } else {
+                H.remove(u, v);
+                G.remove(u, v);
+            }
+            assertEquals(H.contains(u, v), G.contains(u, v));
+        }
+        FrozenGraphTests.assertSameGraph(H, G);
+    }
+
+    @Test
+    public void testSequentialDirected() {
+        checkSequential(true);
+    }
+
+    @Test
+    public void testSequentialUndirected() {
+        checkSequential(false);
+    }
+
+    @Test
+    public void testSnapshots() {
+        VersionedGraph G = new VersionedGraph(true);
+        for (int i = 0; i < 10; i += 1) {
+            G.add();
+        }
+        G.add(1, 2);
+        G.add(2, 3);
+        VersionedGraph.Snapshot S = G.pin();
+        assertEquals(1, G.pinned());
+        G.remove(2);
+        G.add(1, 3);
+        assertEquals(2, S.edgeSize());
+        assertEquals(10, S.vertexSize());
+        assertTrue(S.contains(1, 2));
+        assertFalse(S.contains(1, 3));
+        assertEquals(Arrays.asList(3), FrozenGraphTests.list(S.successors(2)));
+        assertFalse(G.contains(2));
+        assertTrue(G.contains(1, 3));
+        assertEquals(10, G.maxVertex());
+        try {
+            S.add();
+            fail("snapshot changed");
+        } catch (UnsupportedOperationException excp) {
+            assertEquals(2, S.edgeSize());
+        }
+        S.close();
+        assertEquals(0, G.pinned());
+        try {
+            S.vertexSize();
+            fail("closed snapshot used");
+        } catch (IllegalStateException excp) {
+            S.close();
+        }
+        assertEquals(0, G.pinned());
+    }
+
+    @Test
+    public void testLargeVertexNumbers() {
+        VersionedGraph G = new VersionedGraph(false);
+        int n = 100000;
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        G.add(1, n);
+        G.add(n, n);
+        assertEquals(n, G.maxVertex());
+        assertEquals(Arrays.asList(1, n),
+                     FrozenGraphTests.list(G.successors(n)));
+        G.remove(n);
+        assertEquals(n - 1, G.maxVertex());
+        assertEquals(0, G.outDegree(1));
+        assertEquals(n, G.add());
+    }
+
+    @Test
+    public void testSearchDuringUpdates() throws Exception {
+        int n = 400;
+        VersionedGraph G = new VersionedGraph(true);
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        for (int v = 1; v < n; v += 1) {
+            G.add(v, v + 1);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Throwable[] failure = new Throwable[1];
+        Thread writer = new Thread(() -> {
+            Random rand = new Random(3);
+            try {
+                while (!done.get()) {
+                    int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n);
+                    if (rand.nextBoolean()) {
+                        G.add(u, v);
+                    } else if (v != u + 1) {
+                        G.remove(u, v);
+                    }
+                }
+            } catch (Throwable excp) {
+                failure[0] = excp;
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 50; i += 1) {
+                SimpleShortestPaths paths =
+                    new SimpleShortestPaths(G, 1, n) {
+                        @Override
+                        protected double getWeight(int u, int v) {
+                            return 1.0;
+                        }
+                    };
+                paths.setPaths();
+                List<Integer> path = paths.pathTo(n);
+                assertEquals(1, (int) path.get(0));
+                assertEquals(n, (int) path.get(path.size() - 1));
+                assertEquals(0, G.pinned());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+        assertNull(failure[0]);
+    }
+
+    @Test
+    public void testWeightedSearchDuringRemovals() throws Exception {
+        int n = 400;
+        VersionedGraph G = new VersionedGraph(true);
+        LabeledGraph<Void, Void> L = new LabeledGraph<>(G);
+        for (int i = 0; i < n; i += 1) {
+            L.add();
+        }
+        for (int v = 1; v < n; v += 1) {
+            L.add(v, v + 1);
+            L.setWeight(v, v + 1, 1.0);
+            if (v + 5 <= n) {
+                L.add(v, v + 5);
+                L.setWeight(v, v + 5, 1.0);
+            }
+        }
+        WeightedShortestPaths initial = new WeightedShortestPaths(L, 1, n);
+        initial.setPaths();
+        double shortest = initial.getWeight(n);
+        AtomicBoolean done = new AtomicBoolean();
+        Throwable[] failure = new Throwable[1];
+        Thread writer = new Thread(() -> {
+            Random rand = new Random(4);
+            try {
+                while (!done.get() && L.edgeSize() > n - 1) {
+                    int u = 1 + rand.nextInt(n - 5);
+                    L.remove(u, u + 5);
+                }
+            } catch (Throwable excp) {
+                failure[0] = excp;
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 50; i += 1) {
+                int[] pinned = new int[1];
+                WeightedShortestPaths paths =
+                    new WeightedShortestPaths(L, 1, n) {
+                        @Override
+                        protected double estimatedDistance(int v) {
+                            pinned[0] = Math.max(pinned[0], G.pinned());
+                            return 0.0;
+                        }
+                    };
+                paths.setPaths();
+                List<Integer> path = paths.pathTo(n);
+                double w = paths.getWeight(n);
+                assertEquals(path.size() - 1, w, 0);
+                assertTrue(w >= shortest && w <= n - 1);
+                assertEquals(1, (int) path.get(0));
+                assertEquals(n, (int) path.get(path.size() - 1));
+                assertEquals(1, pinned[0]);
+                assertEquals(0, G.pinned());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+        assertNull(failure[0]);
+    }
+}
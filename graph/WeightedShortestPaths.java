@@ -0,0 +1,53 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** Shortest paths through a LabeledGraph whose edge weights are those
+ *  recorded by LabeledGraph.setWeight.  Relaxing an edge reads its weight
+ *  directly from the graph's array of weights, at the edge id recorded
+ *  in the adjacency list, so that neither the edge nor a label object is
+ *  looked up.  By default there is no heuristic (see
+ *  ShortestPaths.estimatedDistance); clients may override
+ *  estimatedDistance to perform A* search.
+ *  @author Florence Lau
+ */
+public class WeightedShortestPaths extends SimpleShortestPaths {
+
+    /** The shortest paths in G from SOURCE. */
+    public WeightedShortestPaths(LabeledGraph<?, ?> G, int source) {
+        this(G, source, 0);
+    }
+
+    /** A shortest path in G from SOURCE to DEST. */
+    public WeightedShortestPaths(LabeledGraph<?, ?> G, int source,
+                                 int dest) {
+        this(G, source, dest, new SearchWorkspace());
+    }
+
+    /** A shortest path in G from SOURCE to DEST, whose results are kept
+     *  in WORKSPACE (see SimpleShortestPaths). */
+    public WeightedShortestPaths(LabeledGraph<?, ?> G, int source,
+                                 int dest, SearchWorkspace workspace) {
+        super(G, source, dest, workspace);
+        _weighted = G;
+    }
+
+    @Override
+    protected double getWeight(int u, int v) {
+        return _weighted.getWeight(u, v);
+    }
+
+    @Override
+    double edgeWeight(int v, int k, int w) {
+        return _weighted.edgeWeight(view().successorEdge(v, k));
+    }
+
+    @Override
+    double predecessorEdgeWeight(int v, int k, int u) {
+        return _weighted.edgeWeight(view().predecessorEdge(v, k));
+    }
+
+    /** The graph searched, with its weights. */
+    private final LabeledGraph<?, ?> _weighted;
+
+}
@@ -4,12 +4,19 @@ import graph.DirectedGraph;
 import graph.LabeledGraph;
 
 /** A directed, labeled subtype of Graph that describes dependencies between
- *  targets in a Makefile.
+ *  targets in a Makefile.  Rules may be found by target name.
  *  @author Florence Lau
  */
 class Depends extends LabeledGraph<Rule, Void> {
     /** An empty dependency graph. */
     Depends() {
         super(new DirectedGraph());
+        indexLabels(Rule::getTarget);
+    }
+
+    /** Returns the Rule for TARGET, or null if there is none. */
+    Rule getRule(String target) {
+        int v = find(target);
+        return v == 0 ? null : getLabel(v);
     }
 }
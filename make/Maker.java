@@ -118,10 +118,9 @@ class Maker {
                          List<String> commands) {
         if (target != null) {
             Rule rule;
-            rule = _targets.get(target);
+            rule = _depends.getRule(target);
             if (rule == null) {
                 rule = new Rule(this, target);
-                _targets.put(target, rule);
             }
             for (String dependency: dependencies) {
                 Rule depRule = addRule(dependency,
@@ -173,8 +172,6 @@ class Maker {
     private Depends _depends = new Depends();
     /** Mapping of target names to their ages. */
     private HashMap<String, Integer> _ages = new HashMap<>();
-    /** Mapping of target names to their Rules. */
-    private HashMap<String, Rule> _targets = new HashMap<>();
     /** Depth-first traversal of my vertices. */
     private MakeTraversal _traversal;
 
@@ -1,5 +1,7 @@
 package make;
 
+import graph.IntIteration;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,7 +24,6 @@ class Rule {
 
     /** Add the target of DEPENDENT to my dependencies. */
     void addDependency(Rule dependent) {
-        _depends.add(dependent);
         _depends.add(_vertex, dependent.getVertex());
     }
 
@@ -60,8 +61,9 @@ class Rule {
     /** Check that dependencies are in fact built before it's time to rebuild
      *  a node. */
     private void checkFinishedDependencies() {
-        for (int s : _depends.successors(getVertex())) {
-            if (_depends.getLabel(s).isUnfinished()) {
+        IntIteration succ = _depends.intSuccessors(getVertex());
+        while (succ.hasNext()) {
+            if (_depends.getLabel(succ.nextInt()).isUnfinished()) {
                 error("Error: Not all dependencies are built");
             }
         }
@@ -74,8 +76,9 @@ class Rule {
         if (_time == null) {
             return true;
         }
-        for (int s : _depends.successors(getVertex())) {
-            Integer successorTime = _depends.getLabel(s).getTime();
+        IntIteration succ = _depends.intSuccessors(getVertex());
+        while (succ.hasNext()) {
+            Integer successorTime = _depends.getLabel(succ.nextInt()).getTime();
             if (successorTime == null || successorTime > _time) {
                 return true;
             }
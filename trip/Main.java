@@ -19,17 +19,20 @@ public final class Main {
 
     /** Entry point for the CS61B trip program.  RAWARGS may contain options
      *  and targets:
-     *      [ -m MAP ] [ -o OUT ] [ REQUEST ]
+     *      [ -m MAP ] [ -o OUT ] [ -c CACHE ] [ REQUEST ]
      *  where MAP (default Map) contains the map data, OUT (default standard
      *  output) takes the result, and REQUEST (default standard input) contains
-     *  the locations along the requested trip.
+     *  the locations along the requested trip.  If CACHE is given, trips
+     *  are planned with a contraction hierarchy of the map, kept in the
+     *  file CACHE and rebuilt when the map changes.
      */
     public static void main(String... rawArgs) {
         String mapFileName;
         String outFileName;
+        String cacheFileName;
         List<String> targets;
         CommandArgs args =
-            new CommandArgs("-m={0,1} -o={0,1} --={2,}", rawArgs);
+            new CommandArgs("-m={0,1} -o={0,1} -c={0,1} --={2,}", rawArgs);
 
         if (!args.ok()) {
             usage();
@@ -37,6 +40,7 @@ public final class Main {
 
         mapFileName = args.getFirst("-m", "Map");
         outFileName = args.getFirst("-o");
+        cacheFileName = args.getFirst("-c");
         targets = args.get("--");
 
         setFiles(outFileName);
@@ -45,6 +49,9 @@ public final class Main {
 
         try {
             trip.readMap(mapFileName);
+            if (cacheFileName != null) {
+                trip.useHierarchy(cacheFileName);
+            }
             trip.makeTrip(targets);
         } catch (IllegalArgumentException excp) {
             System.err.printf("trip: %s%n", excp.getMessage());
@@ -79,7 +86,7 @@ public final class Main {
     /** Print a brief usage message and exit program abnormally. */
     private static void usage() {
         System.err.printf("Usage: java trip.Main [ -m MAPFILE ] [ -o OUTFILE ]"
-                          + " [ REQUESTFILE ]%n");
+                          + " [ -c CACHEFILE ] [ REQUESTFILE ]%n");
         System.exit(1);
     }
 
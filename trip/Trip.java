@@ -1,15 +1,20 @@
 package trip;
 
+import graph.ContractionHierarchy;
 import graph.DirectedGraph;
 import graph.LabeledGraph;
-import graph.SimpleShortestPaths;
+import graph.Landmarks;
+import graph.SearchWorkspace;
+import graph.WeightedShortestPaths;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.Scanner;
 import java.util.InputMismatchException;
 import java.util.NoSuchElementException;
-import java.io.FileNotFoundException;
 import java.util.List;
-import java.util.HashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import static trip.Main.error;
 
@@ -25,6 +30,7 @@ class Trip {
         n = 0;
         try {
             File f = new File(name);
+            _mapFile = f;
             Scanner inp = new Scanner(f);
             while (inp.hasNext()) {
                 n += 1;
@@ -41,7 +47,7 @@ class Trip {
                     break;
                 }
             }
-        } catch (FileNotFoundException excp) {
+        } catch (IOException excp) {
             error("File not found");
         } catch (InputMismatchException excp) {
             error("bad entry #%d", n);
@@ -50,6 +56,42 @@ class Trip {
         }
     }
 
+    /** Plan trips using a contraction hierarchy of the map, kept in the
+     *  file named NAME.  The hierarchy is read from that file if it was
+     *  made from the current map file, and is otherwise built and written
+     *  there. */
+    void useHierarchy(String name) {
+        File file = new File(name);
+        long checksum = mapChecksum();
+        try {
+            _hierarchy = ContractionHierarchy.load(file, checksum);
+            return;
+        } catch (IOException excp) {
+            _hierarchy = new ContractionHierarchy(_map);
+        }
+        try {
+            _hierarchy.save(file, checksum);
+        } catch (IOException excp) {
+            error("could not write %s", name);
+        }
+    }
+
+    /** Returns the CRC-32 checksum of the contents of the map file. */
+    private long mapChecksum() {
+        byte[] buffer = new byte[1 << 16];
+        try (CheckedInputStream in =
+             new CheckedInputStream(new FileInputStream(_mapFile),
+                                    new CRC32())) {
+            while (in.read(buffer) >= 0) {
+                continue;
+            }
+            return in.getChecksum().getValue();
+        } catch (IOException excp) {
+            error("File not found");
+            return 0;
+        }
+    }
+
     /** Produce a report on the standard output of a shortest journey from
      *  DESTS.get(0), then DESTS.get(1), .... */
     void makeTrip(List<String> dests) {
@@ -57,22 +99,36 @@ class Trip {
             error("must have at least two locations for a trip");
         }
 
+        if (_hierarchy == null && _landmarks == null
+            && dests.size() > LANDMARK_TRIP_SIZE) {
+            _landmarks = new Landmarks(_map, LANDMARKS);
+        }
+
         System.out.printf("From %s:%n%n", dests.get(0));
         int step;
 
         step = 1;
         for (int i = 1; i < dests.size(); i += 1) {
-            Integer
-                from = _sites.get(dests.get(i - 1)),
-                to = _sites.get(dests.get(i));
-            if (from == null) {
+            int
+                from = _map.find(dests.get(i - 1)),
+                to = _map.find(dests.get(i));
+            if (from == 0) {
                 error("No location named %s", dests.get(i - 1));
-            } else if (to == null) {
+            } else if (to == 0) {
                 error("No location named %s", dests.get(i));
             }
-            TripPlan plan = new TripPlan(from, to);
-            plan.setPaths();
-            List<Integer> segment = plan.pathTo(to);
+            List<Integer> segment;
+            if (_hierarchy == null) {
+                TripPlan plan = new TripPlan(from, to);
+                plan.setPaths();
+                segment = plan.pathTo(to);
+            } else {
+                segment = _hierarchy.path(from, to);
+                if (segment == null) {
+                    error("No route from %s to %s", dests.get(i - 1),
+                          dests.get(i));
+                }
+            }
             step = reportSegment(step, from, segment);
         }
     }
@@ -125,11 +181,10 @@ class Trip {
 
     /** Add a new location named NAME at (X, Y). */
     private void addLocation(String name, double x, double y) {
-        if (_sites.containsKey(name)) {
+        if (_map.find(name) != 0) {
             error("multiple entries for %s", name);
         }
-        int v = _map.add(new Location(name, x, y));
-        _sites.put(name, v);
+        _map.add(new Location(name, x, y));
     }
 
     /** Add a stretch of road named NAME from the Location named FROM
@@ -138,54 +193,90 @@ class Trip {
      *  to FROM. */
     private void addRoad(String from, String name, double length,
                          Direction dir, String to) {
-        Integer v0 = _sites.get(from),
-            v1 = _sites.get(to);
+        int v0 = _map.find(from),
+            v1 = _map.find(to);
 
-        if (v0 == null) {
+        if (v0 == 0) {
             error("location %s not defined", from);
-        } else if (v1 == null) {
+        } else if (v1 == 0) {
             error("location %s not defined", to);
         }
         Road forward = new Road(name, dir, length);
         Road reverse = new Road(name, dir.reverse(), length);
         _map.add(v0, v1, forward);
+        _map.setWeight(v0, v1, length);
         _map.add(v1, v0, reverse);
+        _map.setWeight(v1, v0, length);
     }
 
     /** Represents the network of Locations and Roads. */
     private RoadMap _map = new RoadMap();
-    /** Mapping of Location names to corresponding map vertices. */
-    private HashMap<String, Integer> _sites = new HashMap<>();
+    /** The map file. */
+    private File _mapFile;
+    /** A contraction hierarchy of _map, or null if trips are planned by
+     *  searching _map itself. */
+    private ContractionHierarchy _hierarchy;
+    /** Landmark distance bounds on _map that sharpen the estimates of
+     *  each TripPlan, or null if straight-line distances alone are used.
+     *  Built for trips long enough to repay the searches they take. */
+    private Landmarks _landmarks;
+    /** Number of landmarks in _landmarks. */
+    private static final int LANDMARKS = 8;
+    /** Smallest number of locations in a trip for which _landmarks is
+     *  built, since each landmark costs about two whole-map searches. */
+    private static final int LANDMARK_TRIP_SIZE = 4 * LANDMARKS;
+    /** Holds the results of each TripPlan, which are needed only until
+     *  the next one is made. */
+    private final SearchWorkspace _workspace = new SearchWorkspace();
 
     /** A labeled directed graph of Locations whose edges are labeled by
-     *  Roads. */
+     *  Roads, in which Locations may be found by name. */
     private static class RoadMap extends LabeledGraph<Location, Road> {
         /** An empty RoadMap. */
         RoadMap() {
             super(new DirectedGraph());
+            indexLabels(Location::toString);
         }
     }
 
-    /** Paths in _map from a given location. */
-    private class TripPlan extends SimpleShortestPaths {
+    /** Paths in _map from a given location, weighted by road length. */
+    private class TripPlan extends WeightedShortestPaths {
         /** A plan for travel from START to DEST according to _map. */
         TripPlan(int start, int dest) {
-            super(_map, start, dest);
+            super(_map, start, dest, _workspace);
+            _startLocation = _map.getLabel(start);
             _finalLocation = _map.getLabel(dest);
         }
 
         @Override
-        protected double getWeight(int u, int v) {
-            Road edgeRoad = _map.getLabel(u, v);
-            return edgeRoad.length();
+        protected boolean bidirectional() {
+            return true;
         }
 
         @Override
         protected double estimatedDistance(int v) {
             Location to = _map.getLabel(v);
-            return to.dist(_finalLocation);
+            double result = to.dist(_finalLocation);
+            if (_landmarks != null) {
+                result = Math.max(result,
+                                  _landmarks.lowerBound(v, getDest()));
+            }
+            return result;
+        }
+
+        @Override
+        protected double estimatedDistanceFromSource(int v) {
+            Location from = _map.getLabel(v);
+            double result = from.dist(_startLocation);
+            if (_landmarks != null) {
+                result = Math.max(result,
+                                  _landmarks.lowerBound(getSource(), v));
+            }
+            return result;
         }
 
+        /** Location of the start. */
+        private final Location _startLocation;
         /** Location of the destination. */
         private final Location _finalLocation;
     }